@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+/**
+ * A bracketed region of access to a shared direct or memory-mapped Resource,
+ * as returned by {@link Resource#openScope()}.
+ *
+ * <p>While any scope of a Resource is open, a close of that Resource from another thread waits until every
+ * open scope has been closed. A scope must be closed exactly once, by the thread that opened it,
+ * typically with a try-with-resources statement.</p>
+ */
+public interface AccessScope extends AutoCloseable {
+
+  /**
+   * Ends this scope. This allows a pending close of the Resource to proceed once all other scopes have ended.
+   */
+  @Override
+  void close();
+
+}
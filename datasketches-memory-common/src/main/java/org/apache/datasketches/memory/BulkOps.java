@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration of the parallel bulk operations {@link Memory#copyToParallel(long, WritableMemory, long, long)},
+ * {@link Memory#equalToParallel(long, Memory, long, long)}, {@link WritableMemory#fillParallel(long, long, byte)}
+ * and {@link WritableMemory#clearParallel(long, long)}.
+ *
+ * <p>A range of at least the parallel threshold is split into tasks of about the task size, which run in the
+ * configured {@link ForkJoinPool}. Within a task the bytes are still processed in chunks of at most 1MB, so the
+ * worker threads reach safepoints as promptly as the sequential operations do.
+ * Smaller ranges are processed by the calling thread exactly as the sequential operations would.</p>
+ *
+ * <p>The calling thread waits for all of the tasks to complete. It keeps a scope open on each resource
+ * for the duration of the operation, so that a resource in shared mode cannot be closed underneath the tasks.</p>
+ */
+public final class BulkOps {
+
+  /** The default range size in bytes at or above which the parallel operations split the work: 16MB. */
+  public static final long DEFAULT_PARALLEL_THRESHOLD_BYTES = 16L << 20;
+
+  /** The default size in bytes of the range processed by one task: 4MB. */
+  public static final long DEFAULT_TASK_BYTES = 4L << 20;
+
+  /** The minimum size in bytes of the range processed by one task: 4KB. */
+  public static final long MIN_TASK_BYTES = 4L << 10;
+
+  private static volatile long parallelThresholdBytes = DEFAULT_PARALLEL_THRESHOLD_BYTES;
+  private static volatile long taskBytes = DEFAULT_TASK_BYTES;
+  private static volatile ForkJoinPool pool = null; //null selects the common pool
+
+  private BulkOps() { /* singleton */ }
+
+  /**
+   * Returns the range size in bytes at or above which the parallel operations split the work.
+   * @return the range size in bytes at or above which the parallel operations split the work.
+   */
+  public static long getParallelThresholdBytes() {
+    return parallelThresholdBytes;
+  }
+
+  /**
+   * Sets the range size in bytes at or above which the parallel operations split the work.
+   * @param thresholdBytes the new threshold. It must be &gt; 0.
+   */
+  public static void setParallelThresholdBytes(final long thresholdBytes) {
+    if (thresholdBytes <= 0) {
+      throw new IllegalArgumentException("thresholdBytes must be > 0: " + thresholdBytes);
+    }
+    parallelThresholdBytes = thresholdBytes;
+  }
+
+  /**
+   * Returns the size in bytes of the range processed by one task.
+   * @return the size in bytes of the range processed by one task.
+   */
+  public static long getTaskBytes() {
+    return taskBytes;
+  }
+
+  /**
+   * Sets the size in bytes of the range processed by one task.
+   * @param bytes the new task size. It must be &ge; {@link #MIN_TASK_BYTES}.
+   */
+  public static void setTaskBytes(final long bytes) {
+    if (bytes < MIN_TASK_BYTES) {
+      throw new IllegalArgumentException("bytes must be >= " + MIN_TASK_BYTES + ": " + bytes);
+    }
+    taskBytes = bytes;
+  }
+
+  /**
+   * Returns the pool that runs the tasks. By default this is the {@link ForkJoinPool#commonPool()}.
+   * @return the pool that runs the tasks.
+   */
+  public static ForkJoinPool getPool() {
+    final ForkJoinPool p = pool;
+    return (p == null) ? ForkJoinPool.commonPool() : p;
+  }
+
+  /**
+   * Sets the pool that runs the tasks.
+   * @param newPool the new pool. It must be non-null.
+   */
+  public static void setPool(final ForkJoinPool newPool) {
+    pool = Objects.requireNonNull(newPool, "newPool must be non-null.");
+  }
+
+  /**
+   * Restores the default threshold, task size and pool.
+   */
+  public static void reset() {
+    parallelThresholdBytes = DEFAULT_PARALLEL_THRESHOLD_BYTES;
+    taskBytes = DEFAULT_TASK_BYTES;
+    pool = null;
+  }
+
+}
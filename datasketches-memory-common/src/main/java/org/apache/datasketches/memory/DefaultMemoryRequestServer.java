@@ -21,6 +21,8 @@ package org.apache.datasketches.memory;
 
 import java.nio.ByteOrder;
 
+import org.apache.datasketches.memory.internal.BaseWritableMemoryImpl;
+
 /**
  * This example MemoryRequestServer is simple but demonstrates one of many ways to
  * manage continuous requests for larger memory.
@@ -31,6 +33,7 @@ import java.nio.ByteOrder;
 public final class DefaultMemoryRequestServer implements MemoryRequestServer {
   private final boolean offHeap; //create the new memory off-heap; otherwise, on-heap
   private final boolean copyOldToNew; //copy data from old memory to new memory.
+  private final boolean reallocate; //grow whole off-heap allocations by native reallocation.
 
   /**
    * Default constructor.
@@ -49,8 +52,28 @@ public final class DefaultMemoryRequestServer implements MemoryRequestServer {
   public DefaultMemoryRequestServer(
       final boolean offHeap, 
       final boolean copyOldToNew) {
+    this(offHeap, copyOldToNew, false);
+  }
+
+  /**
+   * Constructor with parameters
+   * @param offHeap if true, the returned new memory will be off heap
+   * @param copyOldToNew if true, the data from the current memory will be copied to the new memory,
+   * starting at address 0, and through the currentMemory capacity.
+   * @param reallocate if true, and both <i>offHeap</i> and <i>copyOldToNew</i> are true, and the current memory
+   * is a whole off-heap allocation, the current memory is grown by native reallocation (see
+   * {@link WritableMemory#reallocateDirect(WritableMemory, long)}) instead of being copied.
+   * The current memory is then no longer alive when the request returns, so the client must not read it
+   * between the request and {@link #requestClose(WritableMemory, WritableMemory)}, and a confined current memory
+   * must be requested from its owner thread.
+   */
+  public DefaultMemoryRequestServer(
+      final boolean offHeap,
+      final boolean copyOldToNew,
+      final boolean reallocate) {
     this.offHeap = offHeap;
     this.copyOldToNew = copyOldToNew;
+    this.reallocate = reallocate;
   }
 
   @Override
@@ -65,6 +88,14 @@ public final class DefaultMemoryRequestServer implements MemoryRequestServer {
       throw new IllegalArgumentException("newCapacityBytes must be &gt; currentBytes");
     }
 
+    if (reallocate && offHeap && copyOldToNew && currentWmem.isAlive()
+        && BaseWritableMemoryImpl.isReallocatable(currentWmem)) {
+      //grow by native reallocation, which can avoid the copy, and invalidates the current memory
+      newWmem = WritableMemory.reallocateDirect(currentWmem, newCapacityBytes);
+      newWmem.setMemoryRequestServer(this);
+      return newWmem;
+    }
+
     if (offHeap) {
       newWmem = WritableMemory.allocateDirect(newCapacityBytes, order, this);
     }
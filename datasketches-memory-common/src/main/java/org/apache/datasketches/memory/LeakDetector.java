@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import java.util.Locale;
+import java.util.Objects;
+
+import org.apache.datasketches.memory.internal.LeakDetection;
+
+/**
+ * Opt-in detection of off-heap and memory-mapped resources that are reclaimed by the Cleaner without ever
+ * having been closed.
+ *
+ * <p>When a resource is selected for tracking, the stack of the thread that allocated or mapped it is captured.
+ * If that resource later becomes unreachable without a call to {@link Resource#close()}, the Cleaner frees it
+ * as usual and the captured allocation site is reported as a warning to the
+ * <i>java.util.logging</i> logger named <i>org.apache.datasketches.memory.internal.LeakDetection</i>.</p>
+ *
+ * <p>The level may be set programmatically or at startup with the system properties
+ * <i>datasketches.memory.leakDetection.level</i> (DISABLED, SIMPLE or PARANOID) and
+ * <i>datasketches.memory.leakDetection.samplingInterval</i>.
+ * The cost of the SIMPLE level is one random draw per allocation plus a stack capture for the sampled
+ * fraction, which is low enough to leave on in production.</p>
+ */
+public final class LeakDetector {
+
+  /**
+   * The level of leak detection.
+   */
+  public enum Level {
+    /** No allocation sites are captured. */
+    DISABLED,
+    /** The allocation site of one in every <i>samplingInterval</i> resources is captured. */
+    SIMPLE,
+    /** The allocation site of every resource is captured. Intended for tests and debugging. */
+    PARANOID
+  }
+
+  /** The system property that sets the initial level. */
+  public static final String LEVEL_PROPERTY = "datasketches.memory.leakDetection.level";
+
+  /** The system property that sets the initial sampling interval of the SIMPLE level. */
+  public static final String SAMPLING_INTERVAL_PROPERTY = "datasketches.memory.leakDetection.samplingInterval";
+
+  /** The default sampling interval of the SIMPLE level. */
+  public static final int DEFAULT_SAMPLING_INTERVAL = 128;
+
+  private static volatile Level level = initialLevel();
+  private static volatile int samplingInterval = initialSamplingInterval();
+
+  private LeakDetector() { /* singleton */ }
+
+  /**
+   * Returns the current level of leak detection.
+   * @return the current level of leak detection.
+   */
+  public static Level getLevel() {
+    return level;
+  }
+
+  /**
+   * Sets the level of leak detection. Only resources allocated after this call are affected.
+   * @param newLevel the new level. It must be non-null.
+   */
+  public static void setLevel(final Level newLevel) {
+    level = Objects.requireNonNull(newLevel, "newLevel must be non-null.");
+  }
+
+  /**
+   * Returns the sampling interval of the SIMPLE level.
+   * @return the sampling interval of the SIMPLE level.
+   */
+  public static int getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Sets the sampling interval of the SIMPLE level. On average, one in every <i>interval</i> resources is tracked.
+   * @param interval the sampling interval. It must be &gt; 0.
+   */
+  public static void setSamplingInterval(final int interval) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval must be > 0: " + interval);
+    }
+    samplingInterval = interval;
+  }
+
+  /**
+   * Returns the number of tracked resources that have been reported as leaked.
+   * @return the number of tracked resources that have been reported as leaked.
+   */
+  public static long getReportedLeakCount() {
+    return LeakDetection.getReportedLeakCount();
+  }
+
+  private static Level initialLevel() {
+    final String prop = System.getProperty(LEVEL_PROPERTY);
+    if (prop == null) { return Level.DISABLED; }
+    try {
+      return Level.valueOf(prop.trim().toUpperCase(Locale.ROOT));
+    } catch (final IllegalArgumentException e) {
+      return Level.DISABLED;
+    }
+  }
+
+  private static int initialSamplingInterval() {
+    final String prop = System.getProperty(SAMPLING_INTERVAL_PROPERTY);
+    if (prop == null) { return DEFAULT_SAMPLING_INTERVAL; }
+    try {
+      final int interval = Integer.parseInt(prop.trim());
+      return (interval > 0) ? interval : DEFAULT_SAMPLING_INTERVAL;
+    } catch (final NumberFormatException e) {
+      return DEFAULT_SAMPLING_INTERVAL;
+    }
+  }
+
+}
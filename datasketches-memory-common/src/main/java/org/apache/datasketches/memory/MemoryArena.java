@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import org.apache.datasketches.memory.internal.BaseWritableMemoryImpl;
+import org.apache.datasketches.memory.internal.Util;
+
+/**
+ * An arena carves many off-heap regions out of a few large off-heap chunks and frees them all together.
+ *
+ * <p>Each allocation is a pointer bump within the current chunk, padded so that the start of the returned
+ * region is aligned to the requested alignment. When the current chunk cannot satisfy a request, a new chunk
+ * is allocated. Requests larger than the chunk size get a dedicated chunk of their own.</p>
+ *
+ * <p>A single {@link #close()} frees every chunk, after which every region allocated from this arena is no
+ * longer <em>alive</em>. Regions must not be closed individually: closing any region closes the whole chunk
+ * that backs it, and with it every other region carved from that chunk.</p>
+ *
+ * <p>An arena is confined to the thread that created it, as is all off-heap memory.</p>
+ *
+ * <p><b>NOTE:</b> Off-heap memory acquired may have garbage in it.
+ * It is the responsibility of the using application to clear this memory, if required.</p>
+ */
+public final class MemoryArena implements AutoCloseable {
+
+  /**
+   * The default chunk size: 1MB.
+   */
+  public static final long DEFAULT_CHUNK_BYTES = 1L << 20;
+
+  private final long chunkBytes;
+  private final ArrayList<WritableMemory> chunks = new ArrayList<>();
+  private WritableMemory current = null;
+  private long currentOffset = 0;
+  private long allocatedBytes = 0;
+  private long reservedBytes = 0;
+  private boolean alive = true;
+
+  /**
+   * Creates an arena with a chunk size of {@link #DEFAULT_CHUNK_BYTES}.
+   */
+  public MemoryArena() {
+    this(DEFAULT_CHUNK_BYTES);
+  }
+
+  /**
+   * Creates an arena with the given chunk size. No memory is allocated until the first request.
+   * @param chunkBytes the size in bytes of each off-heap chunk. It must be &gt; 0.
+   */
+  public MemoryArena(final long chunkBytes) {
+    if (chunkBytes <= 0) {
+      throw new IllegalArgumentException("chunkBytes must be > 0: " + chunkBytes);
+    }
+    this.chunkBytes = chunkBytes;
+  }
+
+  /**
+   * Allocates an 8-byte aligned, native-ordered region of the given capacity from this arena.
+   * @param capacityBytes the capacity of the region in bytes. It must be &ge; 0.
+   * @return a new WritableMemory region backed by this arena.
+   */
+  public WritableMemory allocate(final long capacityBytes) {
+    return allocate(capacityBytes, Long.BYTES, ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Allocates a region of the given capacity, alignment and byte order from this arena.
+   * @param capacityBytes the capacity of the region in bytes. It must be &ge; 0.
+   * @param alignment the alignment in bytes of the start address of the region.
+   * It must be a positive power of 2; e.g., 1, 8, 64 (cache line) or 4096 (page).
+   * @param byteOrder the byte order of the returned region. It must be non-null.
+   * @return a new WritableMemory region backed by this arena.
+   * @throws IllegalStateException if this arena has been closed.
+   */
+  public WritableMemory allocate(final long capacityBytes, final int alignment, final ByteOrder byteOrder) {
+    Util.negativeCheck(capacityBytes, "capacityBytes");
+    Objects.requireNonNull(byteOrder, "byteOrder must be non-null.");
+    if ((alignment <= 0) || ((alignment & (alignment - 1)) != 0)) {
+      throw new IllegalArgumentException("alignment must be a positive power of 2: " + alignment);
+    }
+    checkAlive();
+    final long mask = alignment - 1L;
+    long offset = (current == null) ? 0 : alignedOffset(current, currentOffset, mask);
+    if ((current == null) || (offset + capacityBytes > current.getCapacity())) {
+      final long newChunkBytes = Math.max(chunkBytes, capacityBytes + mask);
+      final WritableMemory chunk = BaseWritableMemoryImpl.wrapDirect(newChunkBytes, ByteOrder.nativeOrder(), null);
+      chunks.add(chunk);
+      reservedBytes += newChunkBytes;
+      offset = alignedOffset(chunk, 0, mask);
+      //keep bump allocating from whichever chunk has the most space left
+      if ((current == null) || (newChunkBytes - offset - capacityBytes > current.getCapacity() - currentOffset)) {
+        current = chunk;
+        currentOffset = offset + capacityBytes;
+      }
+      allocatedBytes += capacityBytes;
+      return chunk.writableRegion(offset, capacityBytes, byteOrder);
+    }
+    currentOffset = offset + capacityBytes;
+    allocatedBytes += capacityBytes;
+    return current.writableRegion(offset, capacityBytes, byteOrder);
+  }
+
+  /**
+   * Frees every chunk of this arena. All regions allocated from this arena become invalid.
+   * @throws IllegalStateException if this arena has already been closed.
+   */
+  @Override
+  public void close() {
+    checkAlive();
+    alive = false;
+    RuntimeException ex = null;
+    for (final WritableMemory chunk : chunks) {
+      try {
+        if (chunk.isAlive()) { chunk.close(); }
+      } catch (final RuntimeException e) {
+        if (ex == null) { ex = e; } else { ex.addSuppressed(e); }
+      }
+    }
+    chunks.clear();
+    current = null;
+    if (ex != null) { throw ex; }
+  }
+
+  /**
+   * Returns true if this arena has not been closed.
+   * @return true if this arena has not been closed.
+   */
+  public boolean isAlive() {
+    return alive;
+  }
+
+  /**
+   * Returns the total number of bytes handed out as regions, excluding alignment padding.
+   * @return the total number of bytes handed out as regions.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Returns the total number of off-heap bytes reserved by the chunks of this arena.
+   * @return the total number of off-heap bytes reserved by the chunks of this arena.
+   */
+  public long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  /**
+   * Returns the number of off-heap chunks allocated by this arena.
+   * @return the number of off-heap chunks allocated by this arena.
+   */
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  private void checkAlive() {
+    if (!alive) { throw new IllegalStateException("This MemoryArena has been closed."); }
+  }
+
+  //returns the smallest offset >= offset whose absolute address is aligned by mask + 1.
+  private static long alignedOffset(final WritableMemory chunk, final long offset, final long mask) {
+    final long address = chunk.getCumulativeOffset(offset);
+    return offset + (((address + mask) & ~mask) - address);
+  }
+
+}
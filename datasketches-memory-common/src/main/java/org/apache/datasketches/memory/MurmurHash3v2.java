@@ -19,9 +19,13 @@
 
 package org.apache.datasketches.memory;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_BYTE_BASE_OFFSET;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 
+import org.apache.datasketches.memory.internal.CharSequenceChunker;
+import org.apache.datasketches.memory.internal.ResourceImpl;
+import org.apache.datasketches.memory.internal.Util;
+
 /**
  * The MurmurHash3 is a fast, non-cryptographic, 128-bit hash function that has
  * excellent avalanche and 2-way bit independence properties.
@@ -31,8 +35,9 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
  * MurmurHash3_x64_128(...), final revision 150</a>,
  * which is in the Public Domain, was the inspiration for this implementation in Java.</p>
  *
- * <p>This implementation of the MurmurHash3 allows hashing of a block of on-heap Memory defined by an offset
- * and length. The calling API also allows the user to supply the small output array of two longs,
+ * <p>This implementation of the MurmurHash3 allows hashing of a block of on-heap, off-heap or memory-mapped
+ * Memory defined by an offset and length. The bytes are hashed as they lie in the resource, so the byte order
+ * of the Memory does not change the result. The calling API also allows the user to supply the small output array of two longs,
  * so that the entire hash function is static and free of object allocations.</p>
  *
  * <p>This implementation produces exactly the same hash result as the
@@ -43,6 +48,8 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 public final class MurmurHash3v2 {
   private static final long C1 = 0x87c37b91114253d5L;
   private static final long C2 = 0x4cf5ad432745937fL;
+  //the 128-bit hash of one key in hashBatch and hashToIndexes, which never call each other
+  private static final ThreadLocal<long[]> KEY_HASH = ThreadLocal.withInitial(() -> new long[2]);
 
   //Provided for backward compatibility
 
@@ -164,11 +171,41 @@ public final class MurmurHash3v2 {
       final String in, 
       final long seed, 
       final long[] hashOut) {
+    return hash((CharSequence) in, seed, hashOut);
+  }
+
+  /**
+   * Returns a 128-bit hash of the UTF-8 encoding of the input, which is the same as the hash of the
+   * array returned by {@code in.toString().getBytes(UTF_8)}.
+   * The chars are encoded on the fly into a small reused scratch array, so no objects are allocated.
+   * An empty or null input throws IllegalArgumentException.
+   * @param in a CharSequence
+   * @param seed A long valued seed.
+   * @param hashOut A long array of size 2
+   * @return the hash
+   */
+  public static long[] hash(
+      final CharSequence in,
+      final long seed,
+      final long[] hashOut) {
     if ((in == null) || (in.length() == 0)) {
       throw new IllegalArgumentException("Input in is empty or null.");
     }
-    final byte[] byteArr = in.getBytes(UTF_8);
-    return hash(Memory.wrap(byteArr), 0L, byteArr.length, seed, hashOut);
+    try (CharSequenceChunker chunker = CharSequenceChunker.open(in, 0, in.length(), true)) {
+      final byte[] bytes = chunker.getBytes();
+      hashOut[0] = seed;
+      hashOut[1] = seed;
+      long lengthBytes = 0;
+      int n = chunker.next(0);
+      while (chunker.hasMoreChars()) { //hash the whole blocks and carry the rest to the next chunk
+        final int blockBytes = n & ~15;
+        mixBlocks(bytes, ARRAY_BYTE_BASE_OFFSET, blockBytes >>> 4, hashOut);
+        lengthBytes += blockBytes;
+        n = chunker.next(blockBytes);
+      }
+      mixBlocks(bytes, ARRAY_BYTE_BASE_OFFSET, n >>> 4, hashOut);
+      return mixTailAndFinalize(bytes, ARRAY_BYTE_BASE_OFFSET + (n & ~15), n & 15, lengthBytes + n, hashOut);
+    }
   }
 
   //The main API call
@@ -176,10 +213,12 @@ public final class MurmurHash3v2 {
   /**
    * Returns a 128-bit hash of the input as a long array of size 2.
    *
-   * @param mem The input on-heap Memory. Must be non-null and non-empty,
+   * @param mem The input Memory, which may be on-heap, off-heap or memory-mapped. Must be non-null and non-empty,
    * otherwise throws IllegalArgumentException.
    * @param offsetBytes the starting point within Memory.
    * @param lengthBytes the total number of bytes to be hashed.
+   * The range given by <i>offsetBytes</i> and <i>lengthBytes</i> must be within the capacity of the Memory,
+   * otherwise throws MemoryBoundsException.
    * @param seed A long valued seed.
    * @param hashOut the size 2 long array for the resulting 128-bit hash
    * @return the hash.
@@ -194,22 +233,156 @@ public final class MurmurHash3v2 {
     if ((mem == null) || (mem.getCapacity() == 0L)) {
       throw new IllegalArgumentException("Input mem is empty or null.");
     }
+    ResourceImpl.checkBounds(offsetBytes, lengthBytes, mem.getCapacity());
+    //null for off-heap and memory-mapped resources, whose cumulative offsets are then absolute addresses
+    final Object uObj = ((WritableMemory) mem).getArray();
+    final long cumOff = mem.getCumulativeOffset(offsetBytes);
+
+    hashOut[0] = seed;
+    hashOut[1] = seed;
+    mixBlocks(uObj, cumOff, lengthBytes >>> 4, hashOut);
+    return mixTailAndFinalize(uObj, cumOff + (lengthBytes & ~15L), (int) (lengthBytes & 15L), lengthBytes, hashOut);
+  }
+
+  /**
+   * Hashes each of <i>count</i> consecutive keys of <i>keyWidthBytes</i> bytes, starting at the given offset
+   * of the given Memory. The 128-bit hash of key <i>i</i> is placed at indices 2<i>i</i> and 2<i>i</i> + 1 of
+   * <i>hashOut</i>. Each hash is the same as that of
+   * {@link #hash(Memory, long, long, long, long[])} for the key alone, but validity and bounds are checked
+   * once for the whole batch and keys of 8 and 16 bytes take a specialized loop.
+   *
+   * @param mem The input Memory, which may be on-heap, off-heap or memory-mapped.
+   * @param offsetBytes the offset in bytes of the first key.
+   * @param keyWidthBytes the width in bytes of every key. It must be &gt; 0.
+   * @param count the number of keys. It must be &ge; 0.
+   * @param seed A long valued seed.
+   * @param hashOut the long array for the resulting hashes. Its length must be &ge; 2 * <i>count</i>.
+   * @return hashOut
+   */
+  public static long[] hashBatch(
+      final Memory mem,
+      final long offsetBytes,
+      final int keyWidthBytes,
+      final int count,
+      final long seed,
+      final long[] hashOut) {
+    Util.checkBatch(keyWidthBytes, count, hashOut.length, 2);
+    ((ResourceImpl) mem).checkValidAndBounds(offsetBytes, (long) keyWidthBytes * count);
     final Object uObj = ((WritableMemory) mem).getArray();
-    if (uObj == null) {
-      throw new IllegalArgumentException("The backing resource of input mem is not on-heap.");
+    long cumOff = mem.getCumulativeOffset(offsetBytes);
+
+    switch (keyWidthBytes) {
+      case 8: {
+        for (int i = 0; i < count; i++) {
+          final long h1 = seed ^ mixK1(unsafe.getLong(uObj, cumOff));
+          finalMix128(h1, seed, 8, hashOut, i << 1);
+          cumOff += 8;
+        }
+        break;
+      }
+      case 16: {
+        for (int i = 0; i < count; i++) {
+          long h1 = seed ^ mixK1(unsafe.getLong(uObj, cumOff));
+          h1 = Long.rotateLeft(h1, 27);
+          h1 += seed;
+          h1 = (h1 * 5) + 0x52dce729L;
+
+          long h2 = seed ^ mixK2(unsafe.getLong(uObj, cumOff + 8));
+          h2 = Long.rotateLeft(h2, 31);
+          h2 += h1;
+          h2 = (h2 * 5) + 0x38495ab5L;
+          finalMix128(h1, h2, 16, hashOut, i << 1);
+          cumOff += 16;
+        }
+        break;
+      }
+      default: {
+        final long[] keyHash = KEY_HASH.get();
+        final long tailOff = keyWidthBytes & ~15L;
+        for (int i = 0; i < count; i++) {
+          keyHash[0] = seed;
+          keyHash[1] = seed;
+          mixBlocks(uObj, cumOff, keyWidthBytes >>> 4, keyHash);
+          mixTailAndFinalize(uObj, cumOff + tailOff, keyWidthBytes & 15, keyWidthBytes, keyHash);
+          hashOut[i << 1] = keyHash[0];
+          hashOut[(i << 1) + 1] = keyHash[1];
+          cumOff += keyWidthBytes;
+        }
+      }
+    }
+    return hashOut;
+  }
+
+  /**
+   * Derives <i>k</i> bucket indexes for the given range of the given Memory from a single 128-bit hash,
+   * where <i>k</i> is the length of <i>indexesOut</i>. This replaces <i>k</i> separately seeded hashes of the
+   * same bytes in Bloom filters and similar structures.
+   *
+   * <p>This uses the enhanced double hashing of Dillinger and Manolios, a refinement of the scheme of
+   * Kirsch and Mitzenmacher: index <i>i</i> is (h1 + <i>i</i> * h2 + (<i>i</i><sup>3</sup> - <i>i</i>) / 6)
+   * mod <i>numBuckets</i>, computed modulo 2<sup>64</sup> and treated as unsigned, where h1 and h2 are the two
+   * halves of {@link #hash(Memory, long, long, long, long[])}. The cubic term keeps the indexes from collapsing
+   * or cycling early when h2 is a multiple of, or shares a large factor with, <i>numBuckets</i>.</p>
+   *
+   * <p>When <i>k</i> is 1 the hash is computed into a scratch array of the calling thread, so this method does
+   * not allocate.</p>
+   *
+   * @param mem The input Memory, which may be on-heap, off-heap or memory-mapped. Must be non-null and non-empty,
+   * otherwise throws IllegalArgumentException.
+   * @param offsetBytes the starting point within Memory.
+   * @param lengthBytes the total number of bytes to be hashed.
+   * @param seed A long valued seed.
+   * @param numBuckets the number of buckets. It must be &gt; 0.
+   * @param indexesOut receives the <i>k</i> indexes, each in the range [0, <i>numBuckets</i>).
+   * Its length must be &gt; 0.
+   * @return indexesOut
+   */
+  public static long[] hashToIndexes(
+      final Memory mem,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long seed,
+      final long numBuckets,
+      final long[] indexesOut) {
+    final int k = indexesOut.length;
+    if ((k == 0) || (numBuckets <= 0)) {
+      throw new IllegalArgumentException("indexesOut must be non-empty and numBuckets must be > 0: "
+          + k + ", " + numBuckets);
     }
-    long cumOff = mem.getCumulativeOffset() + offsetBytes;
+    //indexesOut holds the hash itself when it has room for it
+    final long[] hash = hash(mem, offsetBytes, lengthBytes, seed, (k >= 2) ? indexesOut : KEY_HASH.get());
+    long x = hash[0];
+    long y = hash[1];
+    for (int i = 0; i < k; i++) {
+      indexesOut[i] = Long.remainderUnsigned(x, numBuckets);
+      y += i; //the cubic term accumulates as a running sum of i
+      x += y;
+    }
+    return indexesOut;
+  }
 
-    long h1 = seed;
-    long h2 = seed;
-    long rem = lengthBytes;
+  //--Core methods------------------------------------------------------
+
+  /**
+   * Mixes the given number of 16-byte blocks into the intermediate hash held in hashOut.
+   * @param uObj the array holding the blocks, or null if cumOff is an absolute address
+   * @param cumOff the cumulative offset of the first block
+   * @param blocks the number of blocks
+   * @param hashOut holds the intermediate hash h1, h2
+   */
+  private static void mixBlocks(
+      final Object uObj,
+      long cumOff,
+      final long blocks,
+      final long[] hashOut) {
+    long h1 = hashOut[0];
+    long h2 = hashOut[1];
 
     // Process the 128-bit blocks (the body) into the hash
-    while (rem >= 16L) {
+    for (long i = 0; i < blocks; i++) {
       final long k1 = unsafe.getLong(uObj, cumOff);     //0, 16, 32, ...
       final long k2 = unsafe.getLong(uObj, cumOff + 8); //8, 24, 40, ...
       cumOff += 16L;
-      rem -= 16L;
 
       h1 ^= mixK1(k1);
       h1 = Long.rotateLeft(h1, 27);
@@ -221,12 +394,33 @@ public final class MurmurHash3v2 {
       h2 += h1;
       h2 = (h2 * 5) + 0x38495ab5L;
     }
+    hashOut[0] = h1;
+    hashOut[1] = h2;
+  }
+
+  /**
+   * Mixes the tail into the intermediate hash held in hashOut and then finalizes it.
+   * @param uObj the array holding the tail, or null if cumOff is an absolute address
+   * @param cumOff the cumulative offset of the tail
+   * @param rem the length of the tail: 0 to 15 bytes
+   * @param lengthBytes the total number of bytes hashed
+   * @param hashOut holds the intermediate hash h1, h2 and receives the resulting hash
+   * @return hashOut
+   */
+  private static long[] mixTailAndFinalize(
+      final Object uObj,
+      final long cumOff,
+      final int rem,
+      final long lengthBytes,
+      final long[] hashOut) {
+    long h1 = hashOut[0];
+    long h2 = hashOut[1];
 
     // Get the tail (if any): 1 to 15 bytes
-    if (rem > 0L) {
+    if (rem > 0) {
       long k1 = 0;
       long k2 = 0;
-      switch ((int) rem) {
+      switch (rem) {
         case 15: {
           k2 ^= (unsafe.getByte(uObj, cumOff + 14) & 0xFFL) << 48;
         }
@@ -360,10 +554,28 @@ public final class MurmurHash3v2 {
    * @return hashOut
    */
   private static long[] finalMix128(
-      long h1, 
-      long h2, 
-      final long lengthBytes, 
+      final long h1,
+      final long h2,
+      final long lengthBytes,
       final long[] hashOut) {
+    return finalMix128(h1, h2, lengthBytes, hashOut, 0);
+  }
+
+  /**
+   * Finalization: Add the length into the hash and mix
+   * @param h1 intermediate hash
+   * @param h2 intermediate hash
+   * @param lengthBytes the length in bytes
+   * @param hashOut the output array
+   * @param index the index in hashOut of the first of the two resulting longs
+   * @return hashOut
+   */
+  private static long[] finalMix128(
+      long h1,
+      long h2,
+      final long lengthBytes,
+      final long[] hashOut,
+      final int index) {
     h1 ^= lengthBytes;
     h2 ^= lengthBytes;
 
@@ -376,8 +588,8 @@ public final class MurmurHash3v2 {
     h1 += h2;
     h2 += h1;
 
-    hashOut[0] = h1;
-    hashOut[1] = h2;
+    hashOut[index] = h1;
+    hashOut[index + 1] = h2;
     return hashOut;
   }
 
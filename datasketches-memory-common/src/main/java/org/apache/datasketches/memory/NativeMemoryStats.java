@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import org.apache.datasketches.memory.internal.NativeMemoryTracker;
+
+/**
+ * Process-wide statistics of the native memory held by off-heap allocations
+ * ({@link WritableMemory#allocateDirect(long)}) and memory-mapped files.
+ *
+ * <p>Bytes are counted when the native memory is allocated or mapped and uncounted when it is freed or unmapped,
+ * whether by an explicit {@link Resource#close()} or by the Cleaner after the resource became unreachable.
+ * Resources reclaimed by the Cleaner were never closed and indicate a resource leak in the application.</p>
+ *
+ * <p>The values are updated without locking. While other threads allocate or free, a value may be slightly
+ * stale and two values read one after the other may not be consistent with each other.
+ * The peak is approximate and may miss short-lived highs.</p>
+ */
+public final class NativeMemoryStats {
+
+  private NativeMemoryStats() { /* singleton */ }
+
+  /**
+   * Gets the bytes currently held, the sum of {@link #getDirectBytes()} and {@link #getMapBytes()}.
+   * @return the bytes currently held
+   */
+  public static long getCurrentBytes() {
+    return NativeMemoryTracker.getCurrentBytes();
+  }
+
+  /**
+   * Gets the bytes currently held by off-heap allocations, including alignment padding.
+   * @return the off-heap bytes
+   */
+  public static long getDirectBytes() {
+    return NativeMemoryTracker.getDirectBytes();
+  }
+
+  /**
+   * Gets the bytes currently held by memory-mapped files.
+   * @return the mapped bytes
+   */
+  public static long getMapBytes() {
+    return NativeMemoryTracker.getMapBytes();
+  }
+
+  /**
+   * Gets the approximate high-water mark of the current bytes since startup or the last reset.
+   * @return the peak bytes
+   */
+  public static long getPeakBytes() {
+    return NativeMemoryTracker.getPeakBytes();
+  }
+
+  /**
+   * Resets the peak to the current bytes.
+   */
+  public static void resetPeakBytes() {
+    NativeMemoryTracker.resetPeakBytes();
+  }
+
+  /**
+   * Gets the number of off-heap allocations not yet freed.
+   * @return the live off-heap allocations
+   */
+  public static long getLiveDirectCount() {
+    return NativeMemoryTracker.getLiveDirectCount();
+  }
+
+  /**
+   * Gets the number of memory-mapped files not yet unmapped.
+   * @return the live mapped files
+   */
+  public static long getLiveMapCount() {
+    return NativeMemoryTracker.getLiveMapCount();
+  }
+
+  /**
+   * Gets the bytes freed by the Cleaner, that is, of resources that were never closed.
+   * @return the bytes freed by the Cleaner
+   */
+  public static long getCleanerFreedBytes() {
+    return NativeMemoryTracker.getCleanerFreedBytes();
+  }
+
+  /**
+   * Gets the number of resources freed by the Cleaner, that is, that were never closed.
+   * @return the resources freed by the Cleaner
+   */
+  public static long getCleanerFreedCount() {
+    return NativeMemoryTracker.getCleanerFreedCount();
+  }
+
+  /**
+   * Returns a human readable summary of these statistics.
+   * @return a human readable summary of these statistics.
+   */
+  public static String toSummaryString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("### Native Memory Stats ###").append(System.lineSeparator());
+    sb.append("Current Bytes       : ").append(getCurrentBytes()).append(System.lineSeparator());
+    sb.append("  Direct Bytes      : ").append(getDirectBytes()).append(System.lineSeparator());
+    sb.append("  Map Bytes         : ").append(getMapBytes()).append(System.lineSeparator());
+    sb.append("Peak Bytes          : ").append(getPeakBytes()).append(System.lineSeparator());
+    sb.append("Live Direct Count   : ").append(getLiveDirectCount()).append(System.lineSeparator());
+    sb.append("Live Map Count      : ").append(getLiveMapCount()).append(System.lineSeparator());
+    sb.append("Cleaner Freed Bytes : ").append(getCleanerFreedBytes()).append(System.lineSeparator());
+    sb.append("Cleaner Freed Count : ").append(getCleanerFreedCount()).append(System.lineSeparator());
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MemoryRequestServer that recycles off-heap blocks instead of allocating and freeing native memory
+ * on every request.
+ *
+ * <p>Requests are rounded up to a power-of-two size class. A block of that class is taken from the pool if
+ * one is available, otherwise a new off-heap block is allocated. The client receives a writable region of the
+ * block with exactly the requested capacity. When the client calls {@link #requestClose(WritableMemory,
+ * WritableMemory)} the block is returned to the pool of its size class, unless the pool of that class already
+ * retains <i>maxRetainedBytesPerClass</i> bytes, in which case the block is freed.</p>
+ *
+ * <p>A returned region, and every view of it, is no longer <em>alive</em>, just as if it had been freed, so a
+ * stale reference fails fast instead of reading or writing the block of the next client. The pool keeps the
+ * block under a new handle (see {@link WritableMemory#reallocateDirect(WritableMemory, long)}).</p>
+ *
+ * <p>Off-heap blocks are confined to the thread that allocated them. As with the
+ * {@link DefaultMemoryRequestServer}, requests, returns and {@link #close()} should be made from that thread.</p>
+ *
+ * <p><b>NOTE:</b> Recycled memory is not cleared and may contain data from a previous use.</p>
+ */
+public final class PooledMemoryRequestServer implements MemoryRequestServer, AutoCloseable {
+  private static final int MIN_CLASS_SHIFT = 3;  //8 bytes
+  private static final int MAX_CLASS_SHIFT = 62;
+
+  private final long maxRetainedBytesPerClass;
+  private final boolean copyOldToNew;
+  private final ConcurrentLinkedDeque<WritableMemory>[] pools;
+  private final AtomicLong[] retainedBytes;
+  //maps the region handed to the client to the pooled block that backs it.
+  private final Map<WritableMemory, WritableMemory> outstanding = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private volatile boolean closed = false;
+
+  /**
+   * Constructor with parameters.
+   * @param maxRetainedBytesPerClass the maximum number of bytes retained in the pool of any one size class.
+   * It must be &ge; 0. Zero disables retention.
+   * @param copyOldToNew if true, the data from the current memory will be copied to the new memory,
+   * starting at address 0, and through the currentMemory capacity.
+   */
+  @SuppressWarnings("unchecked")
+  public PooledMemoryRequestServer(
+      final long maxRetainedBytesPerClass,
+      final boolean copyOldToNew) {
+    if (maxRetainedBytesPerClass < 0) {
+      throw new IllegalArgumentException("maxRetainedBytesPerClass must be >= 0: " + maxRetainedBytesPerClass);
+    }
+    this.maxRetainedBytesPerClass = maxRetainedBytesPerClass;
+    this.copyOldToNew = copyOldToNew;
+    pools = new ConcurrentLinkedDeque[MAX_CLASS_SHIFT + 1];
+    retainedBytes = new AtomicLong[MAX_CLASS_SHIFT + 1];
+    for (int i = MIN_CLASS_SHIFT; i <= MAX_CLASS_SHIFT; i++) {
+      pools[i] = new ConcurrentLinkedDeque<>();
+      retainedBytes[i] = new AtomicLong();
+    }
+  }
+
+  @Override
+  public WritableMemory request(
+      final WritableMemory currentWmem,
+      final long newCapacityBytes) {
+    final ByteOrder order = currentWmem.getTypeByteOrder();
+    final long currentBytes = currentWmem.getCapacity();
+    if (newCapacityBytes <= currentBytes) {
+      throw new IllegalArgumentException("newCapacityBytes must be > currentBytes");
+    }
+    final WritableMemory block = acquire(newCapacityBytes);
+    final WritableMemory newWmem = block.writableRegion(0, newCapacityBytes, order);
+    outstanding.put(newWmem, block);
+
+    if (copyOldToNew) {
+      currentWmem.copyTo(0, newWmem, 0, currentBytes);
+    }
+    return newWmem;
+  }
+
+  @Override
+  public void requestClose(
+      final WritableMemory memToClose,
+      final WritableMemory newMemory) {
+    final WritableMemory block = outstanding.remove(memToClose);
+    if (block == null) { //not from this pool
+      if (memToClose.isCloseable()) { memToClose.close(); }
+      return;
+    }
+    release(block);
+  }
+
+  /**
+   * Frees all blocks currently retained by the pool. Blocks still held by clients are freed when they are
+   * returned via {@link #requestClose(WritableMemory, WritableMemory)}.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (int i = MIN_CLASS_SHIFT; i <= MAX_CLASS_SHIFT; i++) {
+      drain(i);
+    }
+  }
+
+  /**
+   * Returns the number of requests satisfied from the pool.
+   * @return the number of requests satisfied from the pool.
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of requests that required a new off-heap allocation.
+   * @return the number of requests that required a new off-heap allocation.
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the total number of bytes currently retained by the pool across all size classes.
+   * @return the total number of bytes currently retained by the pool across all size classes.
+   */
+  public long getRetainedBytes() {
+    long sum = 0;
+    for (int i = MIN_CLASS_SHIFT; i <= MAX_CLASS_SHIFT; i++) {
+      sum += retainedBytes[i].get();
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the number of bytes currently retained by the pool for the size class that would serve
+   * the given capacity.
+   * @param capacityBytes the given capacity in bytes
+   * @return the number of bytes currently retained by the pool for the corresponding size class.
+   */
+  public long getRetainedBytes(final long capacityBytes) {
+    return retainedBytes[classShift(capacityBytes)].get();
+  }
+
+  /**
+   * Returns the power-of-two size class in bytes that serves the given capacity.
+   * @param capacityBytes the given capacity in bytes. It must be &ge; 0.
+   * @return the power-of-two size class in bytes that serves the given capacity.
+   */
+  public static long sizeClass(final long capacityBytes) {
+    return 1L << classShift(capacityBytes);
+  }
+
+  private WritableMemory acquire(final long capacityBytes) {
+    final int shift = classShift(capacityBytes);
+    final WritableMemory block = pools[shift].pollFirst();
+    if (block != null) {
+      retainedBytes[shift].addAndGet(-block.getCapacity());
+      hits.increment();
+      return block;
+    }
+    misses.increment();
+    return WritableMemory.allocateDirect(1L << shift, ByteOrder.nativeOrder(), this);
+  }
+
+  private void release(final WritableMemory block) {
+    if (!block.isAlive()) { return; } //the client closed it directly
+    final long cap = block.getCapacity();
+    final int shift = classShift(cap);
+    if (closed) {
+      block.close();
+      return;
+    }
+    if (retainedBytes[shift].addAndGet(cap) > maxRetainedBytesPerClass) {
+      retainedBytes[shift].addAndGet(-cap);
+      block.close();
+      return;
+    }
+    //the same capacity only moves the block to a new handle, which invalidates the client's views of it
+    pools[shift].offerFirst(WritableMemory.reallocateDirect(block, cap)); //LIFO keeps recent blocks warm in cache
+    if (closed) { drain(shift); }
+  }
+
+  private void drain(final int shift) {
+    WritableMemory block;
+    while ((block = pools[shift].pollFirst()) != null) {
+      retainedBytes[shift].addAndGet(-block.getCapacity());
+      if (block.isAlive()) { block.close(); }
+    }
+  }
+
+  private static int classShift(final long capacityBytes) {
+    if (capacityBytes < 0 || capacityBytes > (1L << MAX_CLASS_SHIFT)) {
+      throw new IllegalArgumentException("capacityBytes out of range: " + capacityBytes);
+    }
+    final int shift = 64 - Long.numberOfLeadingZeros(Math.max(capacityBytes, 1L) - 1L);
+    return Math.max(shift, MIN_CLASS_SHIFT);
+  }
+
+}
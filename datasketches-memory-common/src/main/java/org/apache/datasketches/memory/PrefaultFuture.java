@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * The pending result of a background load of a memory-mapped Resource,
+ * as returned by {@link Resource#loadAsync(java.util.concurrent.Executor)}.
+ *
+ * <p>Cancelling stops the load before its next chunk. The future completes exceptionally with an
+ * IllegalStateException if the Resource is closed before the load finishes.</p>
+ */
+public interface PrefaultFuture extends Future<Void> {
+
+  /**
+   * Returns the number of bytes loaded so far.
+   * @return the number of bytes loaded so far.
+   */
+  long getLoadedBytes();
+
+  /**
+   * Returns the total number of bytes this load will touch, which is the capacity of the Resource.
+   * Hot ranges are loaded first and are not loaded again, nor counted twice.
+   * @return the total number of bytes this load will touch.
+   */
+  long getTotalBytes();
+
+  /**
+   * Returns a CompletionStage that completes when this load completes, for composing dependent actions.
+   * @return a CompletionStage that completes when this load completes.
+   */
+  CompletionStage<Void> asCompletionStage();
+
+}
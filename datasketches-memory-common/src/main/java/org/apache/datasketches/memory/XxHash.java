@@ -182,6 +182,48 @@ public final class XxHash {
     return hashDoubles(arr, offsetDoubles, lengthDoubles, seed);
   }
 
+  /**
+   * Hashes each of <i>count</i> consecutive keys of <i>keyWidthBytes</i> bytes, starting at the given offset
+   * of the given Memory, into the corresponding element of <i>hashOut</i>. Each hash is the same as that of
+   * {@link Resource#xxHash64(long, long, long)} for the key alone, but validity and bounds are checked once
+   * for the whole batch and keys of 8 and 16 bytes take a specialized loop.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped
+   * @param offsetBytes the offset in bytes of the first key
+   * @param keyWidthBytes the width in bytes of every key. It must be &gt; 0.
+   * @param count the number of keys. It must be &ge; 0.
+   * @param seed the given seed
+   * @param hashOut receives the hash of key <i>i</i> at index <i>i</i>. Its length must be &ge; <i>count</i>.
+   */
+  public static void hashBatch(
+      final Memory mem,
+      final long offsetBytes,
+      final int keyWidthBytes,
+      final int count,
+      final long seed,
+      final long[] hashOut) {
+    org.apache.datasketches.memory.internal.XxHash64.hashBatch(mem, offsetBytes, keyWidthBytes, count, seed, hashOut);
+  }
+
+  /**
+   * Computes the hash of the given range of the given Memory for each of the given seeds in a single pass
+   * over the bytes, for consumers such as Bloom filters that need several independent hashes per key.
+   * The hash for <i>seeds[j]</i> is placed at index <i>j</i> of <i>hashOut</i> and is the same as that of
+   * {@link Resource#xxHash64(long, long, long)} with that seed.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped
+   * @param offsetBytes the offset in bytes of the range
+   * @param lengthBytes the length in bytes of the range
+   * @param seeds the given seeds
+   * @param hashOut receives the hashes. Its length must be &ge; the number of seeds.
+   */
+  public static void hashSeeds(
+      final Memory mem,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long[] seeds,
+      final long[] hashOut) {
+    org.apache.datasketches.memory.internal.XxHash64.hashSeeds(mem, offsetBytes, lengthBytes, seeds, hashOut);
+  }
+
   /**
    * Hash the given arr starting at the given offset and continuing for the given length using the
    * given seed.
@@ -199,4 +241,36 @@ public final class XxHash {
     return org.apache.datasketches.memory.internal.XxHash64.hashString(str, offsetChars, lengthChars, seed);
   }
 
+  /**
+   * Hash the chars of the given CharSequence starting at the given offset and continuing for the given
+   * length using the given seed. The result is the same as that of {@link #hashString} and
+   * {@link #hashCharArr} for the same chars, but any CharSequence may be given and no objects are allocated.
+   * @param chars the given CharSequence
+   * @param offsetChars starting at this offset
+   * @param lengthChars continuing for this length
+   * @param seed the given seed
+   * @return the hash
+   */
+  public static long hashCharSequence(
+      final CharSequence chars,
+      final long offsetChars,
+      final long lengthChars,
+      final long seed) {
+    return org.apache.datasketches.memory.internal.XxHash64.hashCharSequence(chars, offsetChars, lengthChars, seed);
+  }
+
+  /**
+   * Hash the UTF-8 encoding of the given CharSequence using the given seed. The result is the same as that
+   * of {@link #hashByteArr} for the array returned by {@code chars.toString().getBytes(UTF_8)}, but the chars
+   * are encoded on the fly into a small reused scratch array, so no objects are allocated.
+   * @param chars the given CharSequence
+   * @param seed the given seed
+   * @return the hash
+   */
+  public static long hashUtf8(
+      final CharSequence chars,
+      final long seed) {
+    return org.apache.datasketches.memory.internal.XxHash64.hashUtf8(chars, seed);
+  }
+
 }
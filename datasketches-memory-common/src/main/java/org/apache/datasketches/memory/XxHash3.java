@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory;
+
+import static org.apache.datasketches.memory.internal.Xxh3.hashBytes128;
+import static org.apache.datasketches.memory.internal.Xxh3.hashBytes64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashChars64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashDoubles64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashFloats64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashInts64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashLong64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashLongs128;
+import static org.apache.datasketches.memory.internal.Xxh3.hashLongs64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashMemory128;
+import static org.apache.datasketches.memory.internal.Xxh3.hashMemory64;
+import static org.apache.datasketches.memory.internal.Xxh3.hashShorts64;
+
+/**
+ * The XXH3 64-bit and 128-bit hash functions of the xxHash family.
+ * XXH3 is faster than {@link XxHash} on short keys and on long inputs.
+ *
+ * <p>The hashes of a Memory, of a byte array and of a long ({@link #hash64Long(long, long)}) do not depend on the
+ * byte order of the platform. The other primitive array methods hash the native-order bytes of the array, so their
+ * results differ between little-endian and big-endian platforms.</p>
+ *
+ * <p>The C reference implementation:
+ * <a href="https://github.com/Cyan4973/xxHash">https://github.com/Cyan4973/xxHash</a>.
+ * It has a BSD 2-Clause License:
+ * <a href="http://www.opensource.org/licenses/bsd-license.php">
+ * http://www.opensource.org/licenses/bsd-license.php</a>.  See LICENSE.</p>
+ */
+public final class XxHash3 {
+
+  private XxHash3() { /* singleton */ }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given Memory.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped.
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64(
+      final Memory mem,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long seed) {
+    return hashMemory64(mem, offsetBytes, lengthBytes, seed);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given Memory into the given array.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped.
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hash128(
+      final Memory mem,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long seed,
+      final long[] hashOut) {
+    return hashMemory128(mem, offsetBytes, lengthBytes, seed, hashOut);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array.
+   * @param arr the given array
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64ByteArr(
+      final byte[] arr,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long seed) {
+    return hashBytes64(arr, offsetBytes, lengthBytes, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetShorts starting at this offset
+   * @param lengthShorts continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64ShortArr(
+      final short[] arr,
+      final long offsetShorts,
+      final long lengthShorts,
+      final long seed) {
+    return hashShorts64(arr, offsetShorts, lengthShorts, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetChars starting at this offset
+   * @param lengthChars continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64CharArr(
+      final char[] arr,
+      final long offsetChars,
+      final long lengthChars,
+      final long seed) {
+    return hashChars64(arr, offsetChars, lengthChars, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetInts starting at this offset
+   * @param lengthInts continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64IntArr(
+      final int[] arr,
+      final long offsetInts,
+      final long lengthInts,
+      final long seed) {
+    return hashInts64(arr, offsetInts, lengthInts, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetLongs starting at this offset
+   * @param lengthLongs continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64LongArr(
+      final long[] arr,
+      final long offsetLongs,
+      final long lengthLongs,
+      final long seed) {
+    return hashLongs64(arr, offsetLongs, lengthLongs, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetFloats starting at this offset
+   * @param lengthFloats continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64FloatArr(
+      final float[] arr,
+      final long offsetFloats,
+      final long lengthFloats,
+      final long seed) {
+    return hashFloats64(arr, offsetFloats, lengthFloats, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetDoubles starting at this offset
+   * @param lengthDoubles continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64DoubleArr(
+      final double[] arr,
+      final long offsetDoubles,
+      final long lengthDoubles,
+      final long seed) {
+    return hashDoubles64(arr, offsetDoubles, lengthDoubles, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the 8 bytes of the given long in little-endian order.
+   * This method has been optimized for speed when only a single hash of a long is required.
+   * @param in a long
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hash64Long(
+      final long in,
+      final long seed) {
+    return hashLong64(in, seed);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given array into the given array.
+   * @param arr the given array
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hash128ByteArr(
+      final byte[] arr,
+      final long offsetBytes,
+      final long lengthBytes,
+      final long seed,
+      final long[] hashOut) {
+    return hashBytes128(arr, offsetBytes, lengthBytes, seed, hashOut);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given array, read in the native byte order,
+   * into the given array.
+   * @param arr the given array
+   * @param offsetLongs starting at this offset
+   * @param lengthLongs continuing for this length
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hash128LongArr(
+      final long[] arr,
+      final long offsetLongs,
+      final long lengthLongs,
+      final long seed,
+      final long[] hashOut) {
+    return hashLongs128(arr, offsetLongs, lengthLongs, seed, hashOut);
+  }
+
+}
@@ -37,6 +37,8 @@ final class AccessByteBuffer {
   static final ByteBuffer ZERO_READ_ONLY_DIRECT_BYTE_BUFFER =
       ByteBuffer.allocateDirect(0).asReadOnlyBuffer();
 
+  private static final ByteBuffer ZERO_DIRECT_BYTE_BUFFER = ByteBuffer.allocateDirect(0);
+
   private static final long NIO_BUFFER_ADDRESS_FIELD_OFFSET =
       UnsafeUtil.getFieldOffset(java.nio.Buffer.class, "address");
   private static final long NIO_BUFFER_CAPACITY_FIELD_OFFSET =
@@ -93,4 +95,16 @@ final class AccessByteBuffer {
     return byteBuf;
   }
 
+  /**
+   * Like {@link #getDummyReadOnlyDirectByteBuffer(long, int)}, but the returned view is writable,
+   * so that a channel can read directly into native memory.
+   */
+  static ByteBuffer getDummyDirectByteBuffer(final long address, final int capacity) {
+    final ByteBuffer byteBuf = ZERO_DIRECT_BYTE_BUFFER.duplicate();
+    unsafe.putLong(byteBuf, NIO_BUFFER_ADDRESS_FIELD_OFFSET, address);
+    unsafe.putInt(byteBuf, NIO_BUFFER_CAPACITY_FIELD_OFFSET, capacity);
+    byteBuf.limit(capacity);
+    return byteBuf;
+  }
+
 }
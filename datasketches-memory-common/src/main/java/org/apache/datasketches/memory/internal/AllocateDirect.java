@@ -22,6 +22,11 @@ package org.apache.datasketches.memory.internal;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 
 import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.datasketches.memory.AccessScope;
 
 /**
  * Provides access to off-heap memory.
@@ -32,8 +37,14 @@ public class AllocateDirect {
   private static final Cleaner CLEANER = Cleaner.create();
   private final long rawAddress;     //used for freeMemory
   private final long alignedAddress; //data start address
+  private final long capacityBytes;
+  private final long mask;           //alignment - 1
   private final Deallocator deallocator;
   private final Cleaner.Cleanable cleanable;
+  private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock(); //read: open scopes, write: close
+  private volatile boolean shared = false;
+  //shared by every view of this allocation, null while released
+  private final AtomicReference<Thread> owner = new AtomicReference<>(Thread.currentThread());
  
   /**
    * Allocates off-heap memory with a default alignment of 8 bytes.
@@ -45,30 +56,139 @@ public class AllocateDirect {
   
   /**
    * Allocates off-heap memory with a specified alignment.
+   * The returned address is the raw native address rounded up to the next multiple of the alignment.
    * @param capacityBytes must be greater than or equal 0.
-   * @param alignment the desired alignment. It must be a power of 2; e.g., 2, 4 or 8; and greater than 1.
+   * @param alignment the desired alignment. It must be a power of 2; e.g., 8, 64 or 4096; and greater than 1.
    */
   AllocateDirect(final long capacityBytes, final int alignment) {
     if (capacityBytes < 0) { throw new IllegalArgumentException("capacityBytes must be >= 0: " + capacityBytes); }
-    final long mask = alignment - 1L;
-    if (checkAlignment(alignment)) {
+    if (!checkAlignment(alignment)) {
       throw new IllegalArgumentException("alignment must be a positive power of 2 and greater than one: " + alignment); }
+    final long mask = alignment - 1L;
+    final long rawAddress;
     try {
-      this.rawAddress = unsafe.allocateMemory(capacityBytes + mask);
+      rawAddress = unsafe.allocateMemory(capacityBytes + mask);
     } catch (final OutOfMemoryError err) {
       throw new RuntimeException(err);
-    }    
-    this.alignedAddress = rawAddress & ~mask;
-    this.deallocator = new Deallocator(rawAddress);
+    }
+    this.rawAddress = rawAddress;
+    this.alignedAddress = (rawAddress + mask) & ~mask;
+    this.capacityBytes = capacityBytes;
+    this.mask = mask;
+    this.deallocator = new Deallocator(rawAddress, capacityBytes + mask,
+        LeakDetection.sample("Direct memory", capacityBytes));
     this.cleanable = CLEANER.register(this, deallocator);
+    NativeMemoryTracker.onAllocateDirect(capacityBytes + mask);
   }
-  
+
+  //Takes ownership of an already allocated, already accounted for, native block
+  private AllocateDirect(final long rawAddress, final long capacityBytes, final long mask,
+      final LeakDetection.AllocationSite allocationSite) {
+    this.rawAddress = rawAddress;
+    this.alignedAddress = (rawAddress + mask) & ~mask;
+    this.capacityBytes = capacityBytes;
+    this.mask = mask;
+    this.deallocator = new Deallocator(rawAddress, capacityBytes + mask, allocationSite);
+    this.cleanable = CLEANER.register(this, deallocator);
+  }
+
+  /**
+   * Resizes this allocation with native reallocation, which may extend the block in place or move it without
+   * a copy through the heap. The contents up to the smaller of the old and new capacities are preserved, and the
+   * alignment is preserved. On success this allocation is no longer valid and the returned allocation owns the
+   * native memory. On failure this allocation is unchanged. If the new capacity equals the current one the block
+   * is not reallocated and only its ownership moves to the returned allocation.
+   * @param newCapacityBytes the new capacity in bytes. It must be &ge; 0.
+   * @return a new AllocateDirect that owns the resized native memory.
+   */
+  AllocateDirect reallocate(final long newCapacityBytes) {
+    if (newCapacityBytes < 0) {
+      throw new IllegalArgumentException("newCapacityBytes must be >= 0: " + newCapacityBytes); }
+    lockForClose();
+    final long newRawAddress;
+    try {
+      if (!getValid().get()) { throw new IllegalStateException("Memory not alive."); }
+      if (newCapacityBytes == capacityBytes) {
+        newRawAddress = rawAddress;
+      } else {
+        try {
+          newRawAddress = unsafe.reallocateMemory(rawAddress, newCapacityBytes + mask);
+        } catch (final OutOfMemoryError err) {
+          throw new RuntimeException(err);
+        }
+      }
+      //The old block is gone. Retire the old Deallocator without freeing it.
+      deallocator.getValid().change();
+      cleanable.clean();
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    final long oldPad = alignedAddress - rawAddress;
+    final AllocateDirect newDirect =
+        new AllocateDirect(newRawAddress, newCapacityBytes, mask, deallocator.allocationSite);
+    newDirect.shared = shared;
+    final long newPad = newDirect.alignedAddress - newRawAddress;
+    if (newPad != oldPad) { //the block moved to an address with a different alignment remainder
+      unsafe.copyMemory(newRawAddress + oldPad, newDirect.alignedAddress, Math.min(capacityBytes, newCapacityBytes));
+    }
+    NativeMemoryTracker.onReallocateDirect(capacityBytes + mask, newCapacityBytes + mask);
+    return newDirect;
+  }
+
   public long getAddress() {
     return alignedAddress;
   }
 
+  long getCapacityBytes() {
+    return capacityBytes;
+  }
+
   public void close() {
-    cleanable.clean();
+    lockForClose(); //waits for the open scopes of other threads
+    try {
+      deallocator.explicitClose = true;
+      cleanable.clean();
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+  }
+
+  Thread getOwner() {
+    return owner.get();
+  }
+
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    return owner.compareAndSet(expectedOwner, newOwner);
+  }
+
+  boolean isShared() {
+    return shared;
+  }
+
+  void share() {
+    shared = true;
+  }
+
+  /**
+   * Opens a scope during which this allocation cannot be freed by a close from another thread.
+   * @return an open scope, which must be closed by the calling thread.
+   */
+  AccessScope openScope() {
+    final Lock readLock = closeLock.readLock();
+    readLock.lock();
+    if (!getValid().get()) {
+      readLock.unlock();
+      throw new IllegalStateException("Memory not alive.");
+    }
+    return readLock::unlock;
+  }
+
+  //A thread holding a scope would otherwise wait for itself forever
+  private void lockForClose() {
+    if (closeLock.getReadHoldCount() > 0) {
+      throw new IllegalStateException("Cannot close Memory while this thread has an open scope on it.");
+    }
+    closeLock.writeLock().lock();
   }
 
   public StepBoolean getValid() {
@@ -79,10 +199,15 @@ public class AllocateDirect {
   private static final class Deallocator implements Runnable {
     //This is the only place the actual native address is kept for use by unsafe.freeMemory();
     private final long addressToFree;
+    private final long bytesToFree;
     private final StepBoolean valid = new StepBoolean(true); //only place for this
+    private final LeakDetection.AllocationSite allocationSite; //null if not tracked
+    volatile boolean explicitClose = false; //otherwise freed by the Cleaner
 
-    Deallocator(final long addressToFree) {
+    Deallocator(final long addressToFree, final long bytesToFree, final LeakDetection.AllocationSite allocationSite) {
       this.addressToFree = addressToFree;
+      this.bytesToFree = bytesToFree;
+      this.allocationSite = allocationSite;
     }
 
     StepBoolean getValid() {
@@ -91,8 +216,10 @@ public class AllocateDirect {
 
     @Override
     public void run() {
-      if (valid.change() && addressToFree != 0) {
-        unsafe.freeMemory(addressToFree);
+      if (valid.change()) {
+        if (addressToFree != 0) { unsafe.freeMemory(addressToFree); }
+        NativeMemoryTracker.onFreeDirect(bytesToFree, !explicitClose);
+        if (!explicitClose) { LeakDetection.reportLeak(allocationSite); }
       }
     }
   }
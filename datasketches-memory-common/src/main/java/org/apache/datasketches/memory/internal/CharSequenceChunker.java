@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_BYTE_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
+
+/**
+ * Encodes a range of a CharSequence, one chunk at a time, into a small scratch array owned by the calling
+ * thread, so that the hash functions can hash the encoded bytes in place without allocating a byte array
+ * per call.
+ *
+ * <p>The encoding is either UTF-8, giving exactly the bytes of {@code String.getBytes(UTF_8)}, including the
+ * '?' that replaces an unpaired surrogate, or UTF-16 in the native byte order, giving exactly the bytes of
+ * the equivalent char array.</p>
+ *
+ * <p>A chunker is obtained with {@link #open(CharSequence, int, int, boolean)} and must be closed by the same
+ * thread, typically with try-with-resources. No objects are allocated after the first use by a thread.</p>
+ */
+public final class CharSequenceChunker implements AutoCloseable {
+
+  /**
+   * The number of encoded bytes at which a chunk is complete. This is a multiple of both the 16-byte
+   * MurmurHash3 block and the 32-byte XxHash64 stripe.
+   */
+  public static final int CHUNK_BYTES = 512;
+
+  private static final ThreadLocal<CharSequenceChunker> LOCAL = ThreadLocal.withInitial(CharSequenceChunker::new);
+
+  //room for a 4-byte UTF-8 sequence that starts at the end of a chunk
+  private final byte[] bytes = new byte[CHUNK_BYTES + 3];
+  private XxHash64Streaming hasher = null; //created on first use
+  private CharSequence chars = null;
+  private int charIndex;
+  private int charEnd;
+  private boolean utf8;
+  private int byteCount;
+  private boolean inUse = false;
+
+  private CharSequenceChunker() { }
+
+  /**
+   * Returns the chunker of the calling thread, ready to encode the given range of the given CharSequence.
+   * @param chars the given CharSequence
+   * @param offsetChars the offset of the range in chars
+   * @param lengthChars the length of the range in chars
+   * @param utf8 if true the range is encoded as UTF-8, otherwise as native-ordered UTF-16.
+   * @return the chunker of the calling thread, which must be closed after use.
+   */
+  public static CharSequenceChunker open(final CharSequence chars, final int offsetChars, final int lengthChars,
+      final boolean utf8) {
+    CharSequenceChunker chunker = LOCAL.get();
+    if (chunker.inUse) { chunker = new CharSequenceChunker(); } //only if a CharSequence hashes from charAt()
+    chunker.inUse = true;
+    chunker.chars = chars;
+    chunker.charIndex = offsetChars;
+    chunker.charEnd = offsetChars + lengthChars;
+    chunker.utf8 = utf8;
+    chunker.byteCount = 0;
+    return chunker;
+  }
+
+  /**
+   * Returns the scratch array that holds the encoded bytes of the current chunk, starting at index zero.
+   * @return the scratch array
+   */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns true if chars of the range remain to be encoded by {@link #next(int)}.
+   * @return true if chars of the range remain to be encoded.
+   */
+  public boolean hasMoreChars() {
+    return charIndex < charEnd;
+  }
+
+  /**
+   * Discards the given number of bytes from the front of the current chunk, moves the bytes that remain to
+   * the front of the scratch array, and then encodes chars after them until the chunk holds at least
+   * {@link #CHUNK_BYTES} bytes or the range is exhausted.
+   * @param consumedBytes the number of bytes of the current chunk that the caller has consumed.
+   * It must be zero on the first call.
+   * @return the number of encoded bytes now at the front of the scratch array.
+   */
+  public int next(final int consumedBytes) {
+    int n = byteCount - consumedBytes;
+    if ((n > 0) && (consumedBytes > 0)) { System.arraycopy(bytes, consumedBytes, bytes, 0, n); }
+    final CharSequence cs = chars;
+    final int end = charEnd;
+    int i = charIndex;
+    if (utf8) {
+      while ((n < CHUNK_BYTES) && (i < end)) {
+        final char c = cs.charAt(i++);
+        if (c < 0x80) {
+          bytes[n++] = (byte) c;
+        } else if (c < 0x800) {
+          bytes[n++] = (byte) (0xC0 | (c >>> 6));
+          bytes[n++] = (byte) (0x80 | (c & 0x3F));
+        } else if (!Character.isSurrogate(c)) {
+          bytes[n++] = (byte) (0xE0 | (c >>> 12));
+          bytes[n++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+          bytes[n++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && (i < end) && Character.isLowSurrogate(cs.charAt(i))) {
+          final int cp = Character.toCodePoint(c, cs.charAt(i++));
+          bytes[n++] = (byte) (0xF0 | (cp >>> 18));
+          bytes[n++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+          bytes[n++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+          bytes[n++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+          bytes[n++] = (byte) '?'; //an unpaired surrogate, replaced as String.getBytes(UTF_8) does
+        }
+      }
+    } else {
+      while ((n < CHUNK_BYTES) && (i < end)) {
+        unsafe.putChar(bytes, ARRAY_BYTE_BASE_OFFSET + n, cs.charAt(i++));
+        n += Character.BYTES;
+      }
+    }
+    charIndex = i;
+    byteCount = n;
+    return n;
+  }
+
+  /**
+   * Returns the incremental hasher owned by this chunker, for ranges that encode to more than one chunk.
+   * @return the incremental hasher owned by this chunker.
+   */
+  XxHash64Streaming getHasher() {
+    if (hasher == null) { hasher = new XxHash64Streaming(); }
+    return hasher;
+  }
+
+  /**
+   * Releases this chunker for reuse by the calling thread.
+   */
+  @Override
+  public void close() {
+    chars = null; //do not retain the caller's CharSequence
+    inUse = false;
+  }
+
+}
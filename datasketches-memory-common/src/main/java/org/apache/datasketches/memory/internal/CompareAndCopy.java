@@ -19,6 +19,12 @@
 
 package org.apache.datasketches.memory.internal;
 
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_CHAR_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_DOUBLE_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_FLOAT_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_INT_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_LONG_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_SHORT_BASE_OFFSET;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.CHAR_SHIFT;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.DOUBLE_SHIFT;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.FLOAT_SHIFT;
@@ -28,12 +34,21 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.SHORT_SHIFT;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 import static org.apache.datasketches.memory.internal.Util.UNSAFE_COPY_THRESHOLD_BYTES;
 
+import java.nio.ByteOrder;
+
 /**
  * @author Lee Rhodes
  */
 //@SuppressWarnings("restriction")
 final class CompareAndCopy {
 
+  private static final boolean LITTLE_ENDIAN = Util.NATIVE_BYTE_ORDER == ByteOrder.LITTLE_ENDIAN;
+
+  //The non-native ordered array transfers use the JDK's bulk byte-swapping copy, copySwapMemory, when
+  //jdk.internal.misc is exported, and otherwise reverse the bytes one element at a time.
+  //A copy with an on-heap side does not reach a safepoint until it returns, hence the chunking by
+  //UNSAFE_COPY_THRESHOLD_BYTES.
+
   private CompareAndCopy() { }
 
   static int compare(
@@ -49,16 +64,58 @@ final class CompareAndCopy {
     final Object arr2 = state2.getUnsafeObject();
     if ((arr1 != arr2) || (cumOff1 != cumOff2)) {
       final long lenBytes = Math.min(lengthBytes1, lengthBytes2);
-      for (long i = 0; i < lenBytes; i++) {
-        final int byte1 = unsafe.getByte(arr1, cumOff1 + i);
-        final int byte2 = unsafe.getByte(arr2, cumOff2 + i);
-        if (byte1 < byte2) { return -1; }
-        if (byte1 > byte2) { return  1; }
+      final long i = mismatch(arr1, cumOff1, arr2, cumOff2, lenBytes);
+      if (i >= 0) { //bytes compare as signed values
+        return Integer.compare(unsafe.getByte(arr1, cumOff1 + i), unsafe.getByte(arr2, cumOff2 + i));
       }
     }
     return Long.compare(lengthBytes1, lengthBytes2);
   }
 
+  static long mismatch(
+      final ResourceImpl state1, final long offsetBytes1,
+      final ResourceImpl state2, final long offsetBytes2, final long lengthBytes) {
+    state1.checkValid();
+    ResourceImpl.checkBounds(offsetBytes1, lengthBytes, state1.getCapacity());
+    state2.checkValid();
+    ResourceImpl.checkBounds(offsetBytes2, lengthBytes, state2.getCapacity());
+    final long cumOff1 = state1.getCumulativeOffset(offsetBytes1);
+    final long cumOff2 = state2.getCumulativeOffset(offsetBytes2);
+    final Object arr1 = state1.getUnsafeObject(); //could be null
+    final Object arr2 = state2.getUnsafeObject(); //could be null
+    if ((arr1 == arr2) && (cumOff1 == cumOff2)) { return -1; }
+    return mismatch(arr1, cumOff1, arr2, cumOff2, lengthBytes);
+  }
+
+  //Returns the index of the first differing byte, or -1. Compares a long at a time, and uses the
+  // position of the lowest (little-endian) or highest (big-endian) set bit of the XOR to locate the byte.
+  //only valid and bounds checks have been performed at this point
+  static long mismatch(final Object arr1, final long cumOff1, final Object arr2,
+      final long cumOff2, final long lengthBytes) {
+    long off = 0;
+    while ((lengthBytes - off) >= Long.BYTES) {
+      final int chunk = (int) Math.min(lengthBytes - off, UNSAFE_COPY_THRESHOLD_BYTES);
+      // int-counted loop to avoid safepoint polls (otherwise why we chunk by
+      // UNSAFE_COPY_MEMORY_THRESHOLD)
+      int i = 0;
+      for (; i <= (chunk - Long.BYTES); i += Long.BYTES) {
+        final long v1 = unsafe.getLong(arr1, cumOff1 + off + i);
+        final long v2 = unsafe.getLong(arr2, cumOff2 + off + i);
+        if (v1 != v2) {
+          final long diff = v1 ^ v2;
+          final int bits = LITTLE_ENDIAN ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff);
+          return off + i + (bits >>> 3);
+        }
+      }
+      off += i;
+    }
+    //check the remainder bytes, if any
+    for (; off < lengthBytes; off++) {
+      if (unsafe.getByte(arr1, cumOff1 + off) != unsafe.getByte(arr2, cumOff2 + off)) { return off; }
+    }
+    return -1;
+  }
+
   static boolean equals(final ResourceImpl state1, final ResourceImpl state2) {
     final long cap1 = state1.getCapacity();
     final long cap2 = state2.getCapacity();
@@ -66,8 +123,7 @@ final class CompareAndCopy {
   }
 
   //Developer notes: this is subtlety different from (compare == 0) in that this has an early
-  // stop if the arrays and offsets are the same as there is only one length.  Also this can take
-  // advantage of chunking with longs, while compare cannot.
+  // stop if the arrays and offsets are the same as there is only one length.
   static boolean equals(
       final ResourceImpl state1, final long offsetBytes1,
       final ResourceImpl state2, final long offsetBytes2, long lengthBytes) {
@@ -186,7 +242,7 @@ final class CompareAndCopy {
    * @param lengthBytes The length to be copied in bytes
    * @see #UNSAFE_COPY_THRESHOLD_BYTES
    */
-  private static void copyNonOverlappingMemoryWithChunking(final Object srcUnsafeObj,
+  static void copyNonOverlappingMemoryWithChunking(final Object srcUnsafeObj,
       long srcAdd, final Object dstUnsafeObj, long dstAdd, long lengthBytes) {
     while (lengthBytes > 0) {
       final long chunk = Math.min(lengthBytes, UNSAFE_COPY_THRESHOLD_BYTES);
@@ -215,12 +271,16 @@ final class CompareAndCopy {
 
   private static void getCharArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final char[] dstArray, final int dstOffsetChars, final int lengthChars) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthChars; i++) {
-      dstArray[dstOffsetChars + i] = Character.reverseBytes(
-          unsafe.getChar(unsafeObj, cumOffsetBytes + (((long) i) << CHAR_SHIFT)));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_CHAR_BASE_OFFSET + (((long) dstOffsetChars) << CHAR_SHIFT),
+          ((long) lengthChars) << CHAR_SHIFT, Character.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthChars; i++) {
+        dstArray[dstOffsetChars + i] = Character.reverseBytes(
+            unsafe.getChar(unsafeObj, cumOffsetBytes + (((long) i) << CHAR_SHIFT)));
+      }
     }
   }
 
@@ -244,12 +304,16 @@ final class CompareAndCopy {
 
   private static void getDoubleArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final double[] dstArray, final int dstOffsetDoubles, final int lengthDoubles) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthDoubles; i++) {
-      dstArray[dstOffsetDoubles + i] = Double.longBitsToDouble(Long.reverseBytes(
-          unsafe.getLong(unsafeObj, cumOffsetBytes + (((long) i) << DOUBLE_SHIFT))));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_DOUBLE_BASE_OFFSET + (((long) dstOffsetDoubles) << DOUBLE_SHIFT),
+          ((long) lengthDoubles) << DOUBLE_SHIFT, Double.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthDoubles; i++) {
+        dstArray[dstOffsetDoubles + i] = Double.longBitsToDouble(Long.reverseBytes(
+            unsafe.getLong(unsafeObj, cumOffsetBytes + (((long) i) << DOUBLE_SHIFT))));
+      }
     }
   }
 
@@ -271,12 +335,16 @@ final class CompareAndCopy {
 
   private static void getFloatArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final float[] dstArray, final int dstOffsetFloats, final int lengthFloats) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthFloats; i++) {
-      dstArray[dstOffsetFloats + i] = Float.intBitsToFloat(Integer.reverseBytes(
-          unsafe.getInt(unsafeObj, cumOffsetBytes + (((long) i) << FLOAT_SHIFT))));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_FLOAT_BASE_OFFSET + (((long) dstOffsetFloats) << FLOAT_SHIFT),
+          ((long) lengthFloats) << FLOAT_SHIFT, Float.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthFloats; i++) {
+        dstArray[dstOffsetFloats + i] = Float.intBitsToFloat(Integer.reverseBytes(
+            unsafe.getInt(unsafeObj, cumOffsetBytes + (((long) i) << FLOAT_SHIFT))));
+      }
     }
   }
 
@@ -298,12 +366,16 @@ final class CompareAndCopy {
 
   private static void getIntArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final int[] dstArray, final int dstOffsetInts, final int lengthInts) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthInts; i++) {
-      dstArray[dstOffsetInts + i] = Integer.reverseBytes(
-          unsafe.getInt(unsafeObj, cumOffsetBytes + (((long) i) << INT_SHIFT)));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_INT_BASE_OFFSET + (((long) dstOffsetInts) << INT_SHIFT),
+          ((long) lengthInts) << INT_SHIFT, Integer.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthInts; i++) {
+        dstArray[dstOffsetInts + i] = Integer.reverseBytes(
+            unsafe.getInt(unsafeObj, cumOffsetBytes + (((long) i) << INT_SHIFT)));
+      }
     }
   }
 
@@ -325,12 +397,16 @@ final class CompareAndCopy {
 
   private static void getLongArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final long[] dstArray, final int dstOffsetLongs, final int lengthLongs) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthLongs; i++) {
-      dstArray[dstOffsetLongs + i] = Long.reverseBytes(
-          unsafe.getLong(unsafeObj, cumOffsetBytes + (((long) i) << LONG_SHIFT)));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_LONG_BASE_OFFSET + (((long) dstOffsetLongs) << LONG_SHIFT),
+          ((long) lengthLongs) << LONG_SHIFT, Long.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthLongs; i++) {
+        dstArray[dstOffsetLongs + i] = Long.reverseBytes(
+            unsafe.getLong(unsafeObj, cumOffsetBytes + (((long) i) << LONG_SHIFT)));
+      }
     }
   }
 
@@ -352,12 +428,16 @@ final class CompareAndCopy {
 
   private static void getShortArrayChunk(final Object unsafeObj, final long cumOffsetBytes,
       final short[] dstArray, final int dstOffsetShorts, final int lengthShorts) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthShorts; i++) {
-      dstArray[dstOffsetShorts + i] = Short.reverseBytes(
-          unsafe.getShort(unsafeObj, cumOffsetBytes + (((long) i) << SHORT_SHIFT)));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(unsafeObj, cumOffsetBytes,
+          dstArray, ARRAY_SHORT_BASE_OFFSET + (((long) dstOffsetShorts) << SHORT_SHIFT),
+          ((long) lengthShorts) << SHORT_SHIFT, Short.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthShorts; i++) {
+        dstArray[dstOffsetShorts + i] = Short.reverseBytes(
+            unsafe.getShort(unsafeObj, cumOffsetBytes + (((long) i) << SHORT_SHIFT)));
+      }
     }
   }
 
@@ -378,12 +458,16 @@ final class CompareAndCopy {
 
   private static void putCharArrayChunk(final char[] srcArray, final int srcOffsetChars,
       final int lengthChars, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthChars; i++) {
-      unsafe.putChar(unsafeObj, cumOffsetBytes + (((long) i) << CHAR_SHIFT),
-          Character.reverseBytes(srcArray[srcOffsetChars + i]));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_CHAR_BASE_OFFSET + (((long) srcOffsetChars) << CHAR_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthChars) << CHAR_SHIFT, Character.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthChars; i++) {
+        unsafe.putChar(unsafeObj, cumOffsetBytes + (((long) i) << CHAR_SHIFT),
+            Character.reverseBytes(srcArray[srcOffsetChars + i]));
+      }
     }
   }
 
@@ -406,12 +490,16 @@ final class CompareAndCopy {
 
   private static void putDoubleArrayChunk(final double[] srcArray, final int srcOffsetDoubles,
       final int lengthDoubles, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthDoubles; i++) {
-      unsafe.putLong(unsafeObj, cumOffsetBytes + (((long) i) << DOUBLE_SHIFT),
-          Long.reverseBytes(Double.doubleToRawLongBits(srcArray[srcOffsetDoubles + i])));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_DOUBLE_BASE_OFFSET + (((long) srcOffsetDoubles) << DOUBLE_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthDoubles) << DOUBLE_SHIFT, Double.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthDoubles; i++) {
+        unsafe.putLong(unsafeObj, cumOffsetBytes + (((long) i) << DOUBLE_SHIFT),
+            Long.reverseBytes(Double.doubleToRawLongBits(srcArray[srcOffsetDoubles + i])));
+      }
     }
   }
 
@@ -432,12 +520,16 @@ final class CompareAndCopy {
 
   private static void putFloatArrayChunk(final float[] srcArray, final int srcOffsetFloats,
       final int lengthFloats, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthFloats; i++) {
-      unsafe.putInt(unsafeObj, cumOffsetBytes + (((long) i) << FLOAT_SHIFT),
-          Integer.reverseBytes(Float.floatToRawIntBits(srcArray[srcOffsetFloats + i])));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_FLOAT_BASE_OFFSET + (((long) srcOffsetFloats) << FLOAT_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthFloats) << FLOAT_SHIFT, Float.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthFloats; i++) {
+        unsafe.putInt(unsafeObj, cumOffsetBytes + (((long) i) << FLOAT_SHIFT),
+            Integer.reverseBytes(Float.floatToRawIntBits(srcArray[srcOffsetFloats + i])));
+      }
     }
   }
 
@@ -458,12 +550,16 @@ final class CompareAndCopy {
 
   private static void putIntArrayChunk(final int[] srcArray, final int srcOffsetInts,
       final int lengthInts, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthInts; i++) {
-      unsafe.putInt(unsafeObj, cumOffsetBytes + (((long) i) << INT_SHIFT),
-          Integer.reverseBytes(srcArray[srcOffsetInts + i]));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_INT_BASE_OFFSET + (((long) srcOffsetInts) << INT_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthInts) << INT_SHIFT, Integer.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthInts; i++) {
+        unsafe.putInt(unsafeObj, cumOffsetBytes + (((long) i) << INT_SHIFT),
+            Integer.reverseBytes(srcArray[srcOffsetInts + i]));
+      }
     }
   }
 
@@ -484,12 +580,16 @@ final class CompareAndCopy {
 
   private static void putLongArrayChunk(final long[] srcArray, final int srcOffsetLongs,
       final int lengthLongs, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthLongs; i++) {
-      unsafe.putLong(unsafeObj, cumOffsetBytes + (((long) i) << LONG_SHIFT),
-          Long.reverseBytes(srcArray[srcOffsetLongs + i]));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_LONG_BASE_OFFSET + (((long) srcOffsetLongs) << LONG_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthLongs) << LONG_SHIFT, Long.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthLongs; i++) {
+        unsafe.putLong(unsafeObj, cumOffsetBytes + (((long) i) << LONG_SHIFT),
+            Long.reverseBytes(srcArray[srcOffsetLongs + i]));
+      }
     }
   }
 
@@ -510,12 +610,16 @@ final class CompareAndCopy {
 
   private static void putShortArrayChunk(final short[] srcArray, final int srcOffsetShorts,
       final int lengthShorts, final Object unsafeObj, final long cumOffsetBytes) {
-    // JDK 9 adds native intrinsics for such bulk non-native ordered primitive memory copy.
-    // TODO-JDK9 use them when the library adds support for JDK 9
-    // int-counted loop to avoid safepoint polls
-    for (int i = 0; i < lengthShorts; i++) {
-      unsafe.putShort(unsafeObj, cumOffsetBytes + (((long) i) << SHORT_SHIFT),
-          Short.reverseBytes(srcArray[srcOffsetShorts + i]));
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.copySwapMemory(srcArray,
+          ARRAY_SHORT_BASE_OFFSET + (((long) srcOffsetShorts) << SHORT_SHIFT),
+          unsafeObj, cumOffsetBytes, ((long) lengthShorts) << SHORT_SHIFT, Short.BYTES);
+    } else {
+      // int-counted loop to avoid safepoint polls
+      for (int i = 0; i < lengthShorts; i++) {
+        unsafe.putShort(unsafeObj, cumOffsetBytes + (((long) i) << SHORT_SHIFT),
+            Short.reverseBytes(srcArray[srcOffsetShorts + i]));
+      }
     }
   }
 }
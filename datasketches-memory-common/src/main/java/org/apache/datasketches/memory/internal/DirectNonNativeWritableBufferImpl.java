@@ -21,6 +21,7 @@ package org.apache.datasketches.memory.internal;
 
 import java.nio.ByteOrder;
 
+import org.apache.datasketches.memory.AccessScope;
 import org.apache.datasketches.memory.MemoryRequestServer;
 import org.apache.datasketches.memory.WritableBuffer;
 
@@ -47,10 +48,6 @@ final class DirectNonNativeWritableBufferImpl extends NonNativeWritableBufferImp
     this.typeId = removeNnBuf(typeId) | DIRECT | BUFFER | NONNATIVE_BO; //initially cannot be ReadOnly
     this.cumOffsetBytes = cumOffsetBytes;
     this.memReqSvr = memReqSvr; //in ResourceImpl
-    if ((this.owner != null) && (this.owner != Thread.currentThread())) {
-      throw new IllegalStateException(THREAD_EXCEPTION_TEXT);
-    }
-    this.owner = Thread.currentThread();
   }
 
   @Override
@@ -107,10 +104,38 @@ final class DirectNonNativeWritableBufferImpl extends NonNativeWritableBufferImp
   @Override
   public void close() {
     checkValid();
-    checkThread(owner);
+    checkOwnerThread();
     direct.close();
   }
 
+  @Override
+  public boolean isShared() {
+    return direct.isShared();
+  }
+
+  @Override
+  Thread getOwner() {
+    return direct.getOwner();
+  }
+
+  @Override
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    return direct.compareAndSetOwner(expectedOwner, newOwner);
+  }
+
+  @Override
+  public void share() {
+    checkValid();
+    checkThread(getOwner());
+    direct.share();
+  }
+
+  @Override
+  public AccessScope openScope() {
+    checkValid();
+    return direct.openScope();
+  }
+
   @Override
   Object getUnsafeObject() {
     return null;
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+/**
+ * Holds jdk.internal.misc.Unsafe, which provides the bulk byte-swapping copy and the acquire and release
+ * accesses that sun.misc.Unsafe lacks.
+ *
+ * <p>jdk.internal.misc is only accessible when the JVM is started with
+ * --add-exports=java.base/jdk.internal.misc=ALL-UNNAMED, see the README. Without it {@link #AVAILABLE} is false
+ * and the callers fall back to sun.misc.Unsafe. This class is initialized only on first use, so the classes that
+ * do not need it, such as {@link UnsafeUtil}, never touch jdk.internal.</p>
+ */
+final class JdkUnsafe {
+
+  /** The jdk.internal.misc.Unsafe, or null if jdk.internal.misc is not exported to this code. */
+  static final jdk.internal.misc.Unsafe UNSAFE = load();
+
+  /** True if {@link #UNSAFE} can be used. */
+  static final boolean AVAILABLE = UNSAFE != null;
+
+  private JdkUnsafe() { }
+
+  private static jdk.internal.misc.Unsafe load() {
+    try {
+      return jdk.internal.misc.Unsafe.getUnsafe();
+    } catch (final IllegalAccessError e) { //jdk.internal.misc is not exported
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.datasketches.memory.LeakDetector;
+
+/**
+ * Captures the allocation sites of sampled resources and reports those that reach the Cleaner unclosed.
+ * The configuration is held by {@link LeakDetector}.
+ */
+public final class LeakDetection {
+  static final Logger LOG = Logger.getLogger(LeakDetection.class.getCanonicalName());
+  private static final LongAdder reportedLeaks = new LongAdder();
+
+  private LeakDetection() { }
+
+  /**
+   * Returns the allocation site of a new resource if it is selected for tracking, otherwise null.
+   * Must be called by the allocating thread.
+   * @param kind the kind of resource, e.g., "Direct memory".
+   * @param bytes the size of the resource in bytes.
+   * @return the allocation site or null.
+   */
+  static AllocationSite sample(final String kind, final long bytes) {
+    switch (LeakDetector.getLevel()) {
+      case PARANOID: return new AllocationSite(kind, bytes);
+      case SIMPLE: {
+        final int interval = LeakDetector.getSamplingInterval();
+        return (ThreadLocalRandom.current().nextInt(interval) == 0) ? new AllocationSite(kind, bytes) : null;
+      }
+      default: return null;
+    }
+  }
+
+  /**
+   * Called by a Deallocator that was run by the Cleaner rather than by an explicit close.
+   * @param site the allocation site returned by {@link #sample(String, long)}, may be null.
+   */
+  static void reportLeak(final AllocationSite site) {
+    if (site == null) { return; }
+    reportedLeaks.increment();
+    LOG.log(Level.WARNING, "LEAK: " + site.getMessage()
+        + " was reclaimed by the Cleaner without close(). Allocated at:", site);
+  }
+
+  /**
+   * Returns the number of tracked resources that have been reported as leaked.
+   * @return the number of tracked resources that have been reported as leaked.
+   */
+  public static long getReportedLeakCount() {
+    return reportedLeaks.sum();
+  }
+
+  /**
+   * The stack of the thread at the time a tracked resource was allocated.
+   * It must not hold a reference to the resource, so that the resource can become unreachable.
+   */
+  static final class AllocationSite extends Throwable {
+    private static final long serialVersionUID = 1L;
+
+    AllocationSite(final String kind, final long bytes) {
+      super(kind + " of " + bytes + " bytes", null, false, true);
+    }
+  }
+
+}
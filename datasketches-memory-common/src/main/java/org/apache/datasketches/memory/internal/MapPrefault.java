@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.datasketches.memory.PrefaultFuture;
+
+/**
+ * Loads a memory-mapped Resource into physical memory from a thread other than its owner.
+ *
+ * <p>The hot ranges, if any, are loaded first in the given order, then the rest of the Resource sequentially.
+ * Each byte is loaded and counted once, so the progress reaches exactly the capacity. The work is done in chunks of
+ * {@link Util#UNSAFE_COPY_THRESHOLD_BYTES}. Each chunk is guarded against a concurrent close of the mapping,
+ * and cancellation is checked between chunks.</p>
+ */
+final class MapPrefault implements PrefaultFuture, Runnable {
+  private static final long CHUNK_BYTES = Util.UNSAFE_COPY_THRESHOLD_BYTES;
+  private final ResourceImpl resource;
+  private final long[] offsets;
+  private final long[] lengths;
+  private final long totalBytes;
+  private final CompletableFuture<Void> future = new CompletableFuture<>();
+  private final AtomicLong loadedBytes = new AtomicLong();
+
+  MapPrefault(final ResourceImpl resource, final long[] hotOffsets, final long[] hotLengths) {
+    Objects.requireNonNull(hotOffsets, "hotOffsets must be non-null.");
+    Objects.requireNonNull(hotLengths, "hotLengths must be non-null.");
+    if (hotOffsets.length != hotLengths.length) {
+      throw new IllegalArgumentException("hotOffsets and hotLengths must have the same length.");
+    }
+    final long capacity = resource.getCapacity();
+    final TreeMap<Long, Long> scheduled = new TreeMap<>(); //start to end of the disjoint ranges so far
+    final List<long[]> ranges = new ArrayList<>();
+    for (int i = 0; i < hotOffsets.length; i++) {
+      ResourceImpl.checkBounds(hotOffsets[i], hotLengths[i], capacity);
+      schedule(hotOffsets[i], hotOffsets[i] + hotLengths[i], scheduled, ranges);
+    }
+    schedule(0, capacity, scheduled, ranges);
+    final int n = ranges.size();
+    offsets = new long[n];
+    lengths = new long[n];
+    for (int i = 0; i < n; i++) {
+      offsets[i] = ranges.get(i)[0];
+      lengths[i] = ranges.get(i)[1] - ranges.get(i)[0];
+    }
+    this.totalBytes = capacity;
+    this.resource = resource;
+  }
+
+  //Appends the parts of [start, end) that are not yet scheduled, in ascending order.
+  private static void schedule(final long start, final long end, final TreeMap<Long, Long> scheduled,
+      final List<long[]> ranges) {
+    final List<long[]> parts = new ArrayList<>();
+    long pos = start;
+    final Map.Entry<Long, Long> floor = scheduled.floorEntry(pos);
+    if (floor != null) { pos = Math.max(pos, floor.getValue()); }
+    if (pos >= end) { return; } //already scheduled
+    for (final Map.Entry<Long, Long> e : scheduled.subMap(pos, true, end, false).entrySet()) {
+      if (e.getKey() > pos) { parts.add(new long[] {pos, e.getKey()}); }
+      pos = Math.max(pos, e.getValue());
+    }
+    if (pos < end) { parts.add(new long[] {pos, end}); }
+    for (final long[] part : parts) {
+      scheduled.put(part[0], part[1]);
+      ranges.add(part);
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      for (int i = 0; i < offsets.length; i++) {
+        long off = offsets[i];
+        final long end = off + lengths[i];
+        while (off < end) {
+          if (future.isDone()) { return; } //cancelled
+          final long len = Math.min(CHUNK_BYTES, end - off);
+          if (!resource.prefault(off, len)) {
+            future.completeExceptionally(new IllegalStateException("Memory not alive."));
+            return;
+          }
+          off += len;
+          loadedBytes.addAndGet(len);
+        }
+      }
+      future.complete(null);
+    } catch (final RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public long getLoadedBytes() {
+    return loadedBytes.get();
+  }
+
+  @Override
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  @Override
+  public CompletionStage<Void> asCompletionStage() {
+    return future.minimalCompletionStage();
+  }
+
+  @Override
+  public boolean cancel(final boolean mayInterruptIfRunning) {
+    return future.cancel(mayInterruptIfRunning);
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return future.isCancelled();
+  }
+
+  @Override
+  public boolean isDone() {
+    return future.isDone();
+  }
+
+  @Override
+  public Void get() throws InterruptedException, ExecutionException {
+    return future.get();
+  }
+
+  @Override
+  public Void get(final long timeout, final TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return future.get(timeout, unit);
+  }
+
+}
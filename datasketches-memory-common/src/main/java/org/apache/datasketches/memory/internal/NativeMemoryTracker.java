@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide accounting of the native memory held by off-heap allocations and memory-mapped files.
+ * This is the engine behind {@link org.apache.datasketches.memory.NativeMemoryStats NativeMemoryStats}.
+ *
+ * <p>The counters are striped ({@link LongAdder}) so that concurrent allocations and frees from many threads do
+ * not contend on a single atomic. Reads sum the stripes and are therefore not an atomic snapshot while updates
+ * are in flight. The current bytes are the sum of the direct and the map bytes.</p>
+ *
+ * <p>The peak is an approximation. Each allocation, map or growing reallocation samples the current bytes and
+ * raises the peak with a plain volatile write if the sample is higher, and so does every query of the peak.
+ * There is no compare-and-set, so when two threads raise the peak at the same time the lower sample may win,
+ * and a short-lived high between two samples is not seen.</p>
+ */
+public final class NativeMemoryTracker {
+  private static final LongAdder directBytes = new LongAdder();
+  private static final LongAdder mapBytes = new LongAdder();
+  private static final LongAdder liveDirect = new LongAdder();
+  private static final LongAdder liveMap = new LongAdder();
+  private static final LongAdder cleanerFreedBytes = new LongAdder();
+  private static final LongAdder cleanerFreedCount = new LongAdder();
+  private static volatile long peakBytes;
+
+  private NativeMemoryTracker() { }
+
+  //Called by AllocateDirect
+
+  static void onAllocateDirect(final long bytes) {
+    directBytes.add(bytes);
+    liveDirect.increment();
+    samplePeak();
+  }
+
+  static void onFreeDirect(final long bytes, final boolean byCleaner) {
+    directBytes.add(-bytes);
+    liveDirect.decrement();
+    if (byCleaner) { onCleaner(bytes); }
+  }
+
+  static void onReallocateDirect(final long oldBytes, final long newBytes) {
+    directBytes.add(newBytes - oldBytes);
+    if (newBytes > oldBytes) { samplePeak(); }
+  }
+
+  //Called by AllocateDirectWritableMap
+
+  static void onMap(final long bytes) {
+    mapBytes.add(bytes);
+    liveMap.increment();
+    samplePeak();
+  }
+
+  static void onUnmap(final long bytes, final boolean byCleaner) {
+    mapBytes.add(-bytes);
+    liveMap.decrement();
+    if (byCleaner) { onCleaner(bytes); }
+  }
+
+  private static void onCleaner(final long bytes) {
+    cleanerFreedBytes.add(bytes);
+    cleanerFreedCount.increment();
+  }
+
+  //not a compare-and-set, see the class doc
+  private static long samplePeak() {
+    final long current = getCurrentBytes();
+    final long peak = peakBytes;
+    if (current > peak) {
+      peakBytes = current;
+      return current;
+    }
+    return peak;
+  }
+
+  //Queries
+
+  /**
+   * Returns the number of bytes currently held by off-heap allocations and memory-mapped files.
+   * @return the number of bytes currently held by off-heap allocations and memory-mapped files.
+   */
+  public static long getCurrentBytes() {
+    return directBytes.sum() + mapBytes.sum();
+  }
+
+  /**
+   * Returns the number of bytes currently held by off-heap allocations, including alignment padding.
+   * @return the number of bytes currently held by off-heap allocations.
+   */
+  public static long getDirectBytes() {
+    return directBytes.sum();
+  }
+
+  /**
+   * Returns the number of bytes currently held by memory-mapped files.
+   * @return the number of bytes currently held by memory-mapped files.
+   */
+  public static long getMapBytes() {
+    return mapBytes.sum();
+  }
+
+  /**
+   * Returns the approximate high-water mark of {@link #getCurrentBytes()} since startup or the last
+   * {@link #resetPeakBytes()}. This samples the current bytes first, see the class doc.
+   * @return the approximate high-water mark of the current bytes.
+   */
+  public static long getPeakBytes() {
+    return samplePeak();
+  }
+
+  /**
+   * Resets the peak to the current number of bytes.
+   */
+  public static void resetPeakBytes() {
+    peakBytes = getCurrentBytes();
+  }
+
+  /**
+   * Returns the number of off-heap allocations that have not yet been freed.
+   * @return the number of off-heap allocations that have not yet been freed.
+   */
+  public static long getLiveDirectCount() {
+    return liveDirect.sum();
+  }
+
+  /**
+   * Returns the number of memory-mapped files that have not yet been unmapped.
+   * @return the number of memory-mapped files that have not yet been unmapped.
+   */
+  public static long getLiveMapCount() {
+    return liveMap.sum();
+  }
+
+  /**
+   * Returns the number of bytes freed by the Cleaner because the owning resource was never closed.
+   * @return the number of bytes freed by the Cleaner.
+   */
+  public static long getCleanerFreedBytes() {
+    return cleanerFreedBytes.sum();
+  }
+
+  /**
+   * Returns the number of resources freed by the Cleaner because they were never closed.
+   * @return the number of resources freed by the Cleaner.
+   */
+  public static long getCleanerFreedCount() {
+    return cleanerFreedCount.sum();
+  }
+
+}
@@ -282,4 +282,61 @@ abstract class NativeWritableMemoryImpl extends BaseWritableMemoryImpl {
     );
   }
 
+  //ATOMIC AND VOLATILE METHODS
+  @Override
+  public long getLongVolatile(final long offsetBytes) {
+    return unsafe.getLongVolatile(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, false));
+  }
+
+  @Override
+  public long getLongAcquire(final long offsetBytes) {
+    final long add = atomicOffset(offsetBytes, Long.BYTES, false);
+    //sun.misc.Unsafe has no acquire-only load; a volatile load is at least as strong
+    return JdkUnsafe.AVAILABLE
+        ? JdkUnsafe.UNSAFE.getLongAcquire(getUnsafeObject(), add)
+        : unsafe.getLongVolatile(getUnsafeObject(), add);
+  }
+
+  @Override
+  public void putLongVolatile(final long offsetBytes, final long value) {
+    unsafe.putLongVolatile(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true), value);
+  }
+
+  @Override
+  public void putLongRelease(final long offsetBytes, final long value) {
+    final long add = atomicOffset(offsetBytes, Long.BYTES, true);
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.putLongRelease(getUnsafeObject(), add, value);
+    } else {
+      unsafe.putOrderedLong(getUnsafeObject(), add, value);
+    }
+  }
+
+  @Override
+  public int getAndAddInt(final long offsetBytes, final int delta) {
+    return unsafe.getAndAddInt(getUnsafeObject(), atomicOffset(offsetBytes, Integer.BYTES, true), delta);
+  }
+
+  @Override
+  public long getAndAddLong(final long offsetBytes, final long delta) {
+    return unsafe.getAndAddLong(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true), delta);
+  }
+
+  @Override
+  public long getAndSetLong(final long offsetBytes, final long newValue) {
+    return unsafe.getAndSetLong(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true), newValue);
+  }
+
+  @Override
+  public boolean compareAndSetInt(final long offsetBytes, final int expect, final int update) {
+    return unsafe.compareAndSwapInt(getUnsafeObject(), atomicOffset(offsetBytes, Integer.BYTES, true),
+        expect, update);
+  }
+
+  @Override
+  public boolean compareAndSetLong(final long offsetBytes, final long expect, final long update) {
+    return unsafe.compareAndSwapLong(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true),
+        expect, update);
+  }
+
 }
@@ -214,4 +214,77 @@ abstract class NonNativeWritableMemoryImpl extends BaseWritableMemoryImpl {
         getUnsafeObject(), getCumulativeOffset(offsetBytes));
   }
 
+  //ATOMIC AND VOLATILE METHODS
+  @Override
+  public long getLongVolatile(final long offsetBytes) {
+    return Long.reverseBytes(
+        unsafe.getLongVolatile(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, false)));
+  }
+
+  @Override
+  public long getLongAcquire(final long offsetBytes) {
+    final long add = atomicOffset(offsetBytes, Long.BYTES, false);
+    //sun.misc.Unsafe has no acquire-only load; a volatile load is at least as strong
+    return Long.reverseBytes(JdkUnsafe.AVAILABLE
+        ? JdkUnsafe.UNSAFE.getLongAcquire(getUnsafeObject(), add)
+        : unsafe.getLongVolatile(getUnsafeObject(), add));
+  }
+
+  @Override
+  public void putLongVolatile(final long offsetBytes, final long value) {
+    unsafe.putLongVolatile(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true), Long.reverseBytes(value));
+  }
+
+  @Override
+  public void putLongRelease(final long offsetBytes, final long value) {
+    final long add = atomicOffset(offsetBytes, Long.BYTES, true);
+    if (JdkUnsafe.AVAILABLE) {
+      JdkUnsafe.UNSAFE.putLongRelease(getUnsafeObject(), add, Long.reverseBytes(value));
+    } else {
+      unsafe.putOrderedLong(getUnsafeObject(), add, Long.reverseBytes(value));
+    }
+  }
+
+  @Override
+  public int getAndAddInt(final long offsetBytes, final int delta) {
+    final Object unsafeObj = getUnsafeObject();
+    final long cumOffset = atomicOffset(offsetBytes, Integer.BYTES, true);
+    int oldValue;
+    do { //the addition must be done in the non-native order, so use a CAS loop
+      oldValue = unsafe.getIntVolatile(unsafeObj, cumOffset);
+    } while (!unsafe.compareAndSwapInt(unsafeObj, cumOffset, oldValue,
+        Integer.reverseBytes(Integer.reverseBytes(oldValue) + delta)));
+    return Integer.reverseBytes(oldValue);
+  }
+
+  @Override
+  public long getAndAddLong(final long offsetBytes, final long delta) {
+    final Object unsafeObj = getUnsafeObject();
+    final long cumOffset = atomicOffset(offsetBytes, Long.BYTES, true);
+    long oldValue;
+    do { //the addition must be done in the non-native order, so use a CAS loop
+      oldValue = unsafe.getLongVolatile(unsafeObj, cumOffset);
+    } while (!unsafe.compareAndSwapLong(unsafeObj, cumOffset, oldValue,
+        Long.reverseBytes(Long.reverseBytes(oldValue) + delta)));
+    return Long.reverseBytes(oldValue);
+  }
+
+  @Override
+  public long getAndSetLong(final long offsetBytes, final long newValue) {
+    return Long.reverseBytes(unsafe.getAndSetLong(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true),
+        Long.reverseBytes(newValue)));
+  }
+
+  @Override
+  public boolean compareAndSetInt(final long offsetBytes, final int expect, final int update) {
+    return unsafe.compareAndSwapInt(getUnsafeObject(), atomicOffset(offsetBytes, Integer.BYTES, true),
+        Integer.reverseBytes(expect), Integer.reverseBytes(update));
+  }
+
+  @Override
+  public boolean compareAndSetLong(final long offsetBytes, final long expect, final long update) {
+    return unsafe.compareAndSwapLong(getUnsafeObject(), atomicOffset(offsetBytes, Long.BYTES, true),
+        Long.reverseBytes(expect), Long.reverseBytes(update));
+  }
+
 }
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
+import static org.apache.datasketches.memory.internal.Util.UNSAFE_COPY_THRESHOLD_BYTES;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.datasketches.memory.AccessScope;
+import org.apache.datasketches.memory.BulkOps;
+
+/**
+ * Splits copy, fill and equals over large ranges into ForkJoin tasks.
+ *
+ * <p>All checks are performed by the calling thread before any task is submitted. The tasks only touch
+ * memory through Unsafe, so they are not subject to the thread confinement of off-heap resources. The calling
+ * thread holds a scope on each resource until all tasks are done.</p>
+ */
+final class ParallelBulk {
+
+  private ParallelBulk() { }
+
+  static void copy(final ResourceImpl srcState, final long srcOffsetBytes,
+      final ResourceImpl dstState, final long dstOffsetBytes, final long lengthBytes) {
+    srcState.checkValid();
+    ResourceImpl.checkBounds(srcOffsetBytes, lengthBytes, srcState.getCapacity());
+    dstState.checkValid();
+    ResourceImpl.checkBounds(dstOffsetBytes, lengthBytes, dstState.getCapacity());
+    final Object srcObj = srcState.getUnsafeObject();
+    final Object dstObj = dstState.getUnsafeObject();
+    final long srcAdd = srcState.getCumulativeOffset(srcOffsetBytes);
+    final long dstAdd = dstState.getCumulativeOffset(dstOffsetBytes);
+    final boolean overlap = (srcObj == dstObj)
+        && (srcAdd + lengthBytes > dstAdd) && (dstAdd + lengthBytes > srcAdd);
+    if (overlap || (lengthBytes < BulkOps.getParallelThresholdBytes())) {
+      CompareAndCopy.copy(srcState, srcOffsetBytes, dstState, dstOffsetBytes, lengthBytes);
+      return;
+    }
+    try (AccessScope srcScope = srcState.openScope(); AccessScope dstScope = dstState.openScope()) {
+      BulkOps.getPool().invoke(new CopyTask(srcObj, srcAdd, dstObj, dstAdd, lengthBytes, BulkOps.getTaskBytes()));
+    }
+  }
+
+  static void fill(final ResourceImpl state, final long offsetBytes, final long lengthBytes,
+      final byte value) {
+    state.checkValidAndBoundsForWrite(offsetBytes, lengthBytes);
+    final Object obj = state.getUnsafeObject();
+    final long add = state.getCumulativeOffset(offsetBytes);
+    if (lengthBytes < BulkOps.getParallelThresholdBytes()) {
+      fillWithChunking(obj, add, lengthBytes, value);
+      return;
+    }
+    try (AccessScope scope = state.openScope()) {
+      BulkOps.getPool().invoke(new FillTask(obj, add, lengthBytes, value, BulkOps.getTaskBytes()));
+    }
+  }
+
+  static boolean equals(final ResourceImpl state1, final long offsetBytes1,
+      final ResourceImpl state2, final long offsetBytes2, final long lengthBytes) {
+    if (lengthBytes < BulkOps.getParallelThresholdBytes()) {
+      return CompareAndCopy.equals(state1, offsetBytes1, state2, offsetBytes2, lengthBytes);
+    }
+    state1.checkValid();
+    ResourceImpl.checkBounds(offsetBytes1, lengthBytes, state1.getCapacity());
+    state2.checkValid();
+    ResourceImpl.checkBounds(offsetBytes2, lengthBytes, state2.getCapacity());
+    final Object arr1 = state1.getUnsafeObject();
+    final Object arr2 = state2.getUnsafeObject();
+    final long cumOff1 = state1.getCumulativeOffset(offsetBytes1);
+    final long cumOff2 = state2.getCumulativeOffset(offsetBytes2);
+    if ((arr1 == arr2) && (cumOff1 == cumOff2)) { return true; }
+    try (AccessScope scope1 = state1.openScope(); AccessScope scope2 = state2.openScope()) {
+      return BulkOps.getPool().invoke(new EqualsTask(arr1, cumOff1, arr2, cumOff2, lengthBytes,
+          BulkOps.getTaskBytes(), new AtomicBoolean()));
+    }
+  }
+
+  private static void fillWithChunking(final Object obj, long add, long lengthBytes, final byte value) {
+    while (lengthBytes > 0) {
+      final long chunk = Math.min(lengthBytes, UNSAFE_COPY_THRESHOLD_BYTES);
+      unsafe.setMemory(obj, add, chunk, value);
+      add += chunk;
+      lengthBytes -= chunk;
+    }
+  }
+
+  //the left half of a range, rounded down to a multiple of 8 so that long-wide loops stay aligned
+  private static long leftHalf(final long lengthBytes) {
+    return (lengthBytes >>> 1) & ~7L;
+  }
+
+  private static final class CopyTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient Object srcObj;
+    private final long srcAdd;
+    private final transient Object dstObj;
+    private final long dstAdd;
+    private final long lengthBytes;
+    private final long taskBytes;
+
+    CopyTask(final Object srcObj, final long srcAdd, final Object dstObj, final long dstAdd,
+        final long lengthBytes, final long taskBytes) {
+      this.srcObj = srcObj;
+      this.srcAdd = srcAdd;
+      this.dstObj = dstObj;
+      this.dstAdd = dstAdd;
+      this.lengthBytes = lengthBytes;
+      this.taskBytes = taskBytes;
+    }
+
+    @Override
+    protected void compute() {
+      if (lengthBytes <= taskBytes) {
+        CompareAndCopy.copyNonOverlappingMemoryWithChunking(srcObj, srcAdd, dstObj, dstAdd, lengthBytes);
+        return;
+      }
+      final long left = leftHalf(lengthBytes);
+      invokeAll(new CopyTask(srcObj, srcAdd, dstObj, dstAdd, left, taskBytes),
+          new CopyTask(srcObj, srcAdd + left, dstObj, dstAdd + left, lengthBytes - left, taskBytes));
+    }
+  }
+
+  private static final class FillTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient Object obj;
+    private final long add;
+    private final long lengthBytes;
+    private final byte value;
+    private final long taskBytes;
+
+    FillTask(final Object obj, final long add, final long lengthBytes, final byte value, final long taskBytes) {
+      this.obj = obj;
+      this.add = add;
+      this.lengthBytes = lengthBytes;
+      this.value = value;
+      this.taskBytes = taskBytes;
+    }
+
+    @Override
+    protected void compute() {
+      if (lengthBytes <= taskBytes) {
+        fillWithChunking(obj, add, lengthBytes, value);
+        return;
+      }
+      final long left = leftHalf(lengthBytes);
+      invokeAll(new FillTask(obj, add, left, value, taskBytes),
+          new FillTask(obj, add + left, lengthBytes - left, value, taskBytes));
+    }
+  }
+
+  private static final class EqualsTask extends RecursiveTask<Boolean> {
+    private static final long serialVersionUID = 1L;
+    private final transient Object arr1;
+    private final long cumOff1;
+    private final transient Object arr2;
+    private final long cumOff2;
+    private final long lengthBytes;
+    private final long taskBytes;
+    private final AtomicBoolean differs; //shared by all tasks, lets the others skip their work
+
+    EqualsTask(final Object arr1, final long cumOff1, final Object arr2, final long cumOff2,
+        final long lengthBytes, final long taskBytes, final AtomicBoolean differs) {
+      this.arr1 = arr1;
+      this.cumOff1 = cumOff1;
+      this.arr2 = arr2;
+      this.cumOff2 = cumOff2;
+      this.lengthBytes = lengthBytes;
+      this.taskBytes = taskBytes;
+      this.differs = differs;
+    }
+
+    @Override
+    protected Boolean compute() {
+      if (differs.get()) { return false; }
+      if (lengthBytes <= taskBytes) {
+        if (CompareAndCopy.mismatch(arr1, cumOff1, arr2, cumOff2, lengthBytes) < 0) { return true; }
+        differs.set(true);
+        return false;
+      }
+      final long left = leftHalf(lengthBytes);
+      final EqualsTask leftTask = new EqualsTask(arr1, cumOff1, arr2, cumOff2, left, taskBytes, differs);
+      final EqualsTask rightTask = new EqualsTask(arr1, cumOff1 + left, arr2, cumOff2 + left,
+          lengthBytes - left, taskBytes, differs);
+      leftTask.fork();
+      final boolean rightEqual = rightTask.compute();
+      return leftTask.join() && rightEqual;
+    }
+  }
+
+}
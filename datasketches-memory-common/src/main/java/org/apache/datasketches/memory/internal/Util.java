@@ -122,4 +122,24 @@ public final class Util {
       throw new IllegalArgumentException("The argument '" + arg + "' may not be negative.");
     }
   }
+
+  /**
+   * Checks the arguments of a batch of fixed-width keys.
+   * @param keyWidthBytes the width in bytes of every key
+   * @param count the number of keys
+   * @param outLength the length of the output array
+   * @param outPerKey the number of output elements per key
+   * @throws IllegalArgumentException if keyWidthBytes is &le; 0, count is &lt; 0,
+   * or the output array is too small.
+   */
+  public static final void checkBatch(final int keyWidthBytes, final int count, final int outLength,
+      final int outPerKey) {
+    if (keyWidthBytes <= 0) {
+      throw new IllegalArgumentException("The argument 'keyWidthBytes' must be > 0: " + keyWidthBytes);
+    }
+    negativeCheck(count, "count");
+    if (outLength < ((long) count * outPerKey)) {
+      throw new IllegalArgumentException("The output array is too small for " + count + " keys: " + outLength);
+    }
+  }
 }
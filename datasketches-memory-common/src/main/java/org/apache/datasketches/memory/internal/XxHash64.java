@@ -34,6 +34,8 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.LONG_SHIFT;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.SHORT_SHIFT;
 import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 
+import org.apache.datasketches.memory.Memory;
+
 /**
  * The XxHash is a fast, non-cryptographic, 64-bit hash function that has
  * excellent avalanche and 2-way bit independence properties.
@@ -55,11 +57,14 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 //@SuppressWarnings("restriction")
 public class XxHash64 {
   // Unsigned, 64-bit primes
-  private static final long P1 = -7046029288634856825L;
-  private static final long P2 = -4417276706812531889L;
-  private static final long P3 =  1609587929392839161L;
-  private static final long P4 = -8796714831421723037L;
-  private static final long P5 =  2870177450012600261L;
+  static final long P1 = -7046029288634856825L;
+  static final long P2 = -4417276706812531889L;
+  static final long P3 =  1609587929392839161L;
+  static final long P4 = -8796714831421723037L;
+  static final long P5 =  2870177450012600261L;
+
+  //per-thread accumulators of hashSeeds(), grown to the largest number of seeds seen
+  private static final ThreadLocal<long[]> ACCUMULATORS = ThreadLocal.withInitial(() -> new long[16]);
 
   /**
    * Returns the 64-bit hash of the sequence of bytes in the unsafeObject specified by
@@ -87,67 +92,52 @@ public class XxHash64 {
       long v4 = seed - P1;
 
       do {
-        v1 += unsafe.getLong(unsafeObj, cumOffsetBytes) * P2;
-        v1 = Long.rotateLeft(v1, 31);
-        v1 *= P1;
-
-        v2 += unsafe.getLong(unsafeObj, cumOffsetBytes + 8L) * P2;
-        v2 = Long.rotateLeft(v2, 31);
-        v2 *= P1;
-
-        v3 += unsafe.getLong(unsafeObj, cumOffsetBytes + 16L) * P2;
-        v3 = Long.rotateLeft(v3, 31);
-        v3 *= P1;
-
-        v4 += unsafe.getLong(unsafeObj, cumOffsetBytes + 24L) * P2;
-        v4 = Long.rotateLeft(v4, 31);
-        v4 *= P1;
-
+        v1 = round(v1, unsafe.getLong(unsafeObj, cumOffsetBytes));
+        v2 = round(v2, unsafe.getLong(unsafeObj, cumOffsetBytes + 8L));
+        v3 = round(v3, unsafe.getLong(unsafeObj, cumOffsetBytes + 16L));
+        v4 = round(v4, unsafe.getLong(unsafeObj, cumOffsetBytes + 24L));
         cumOffsetBytes += 32;
         remaining -= 32;
       } while (remaining >= 32);
 
-      hash = Long.rotateLeft(v1, 1)
-          + Long.rotateLeft(v2, 7)
-          + Long.rotateLeft(v3, 12)
-          + Long.rotateLeft(v4, 18);
-
-      v1 *= P2;
-      v1 = Long.rotateLeft(v1, 31);
-      v1 *= P1;
-      hash ^= v1;
-      hash = (hash * P1) + P4;
-
-      v2 *= P2;
-      v2 = Long.rotateLeft(v2, 31);
-      v2 *= P1;
-      hash ^= v2;
-      hash = (hash * P1) + P4;
-
-      v3 *= P2;
-      v3 = Long.rotateLeft(v3, 31);
-      v3 *= P1;
-      hash ^= v3;
-      hash = (hash * P1) + P4;
-
-      v4 *= P2;
-      v4 = Long.rotateLeft(v4, 31);
-      v4 *= P1;
-      hash ^= v4;
-      hash = (hash * P1) + P4;
+      hash = converge(v1, v2, v3, v4);
     } //end remaining >= 32
     else {
       hash = seed + P5;
     }
 
     hash += lengthBytes;
+    return finalize(remainder(hash, unsafeObj, cumOffsetBytes, remaining));
+  }
 
+  //Mixes one 8-byte lane of a 32-byte stripe into its accumulator
+  static long round(long acc, final long input) {
+    acc += input * P2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * P1;
+  }
+
+  //Merges the four accumulators of the stripes into the hash
+  static long converge(final long v1, final long v2, final long v3, final long v4) {
+    long hash = Long.rotateLeft(v1, 1)
+        + Long.rotateLeft(v2, 7)
+        + Long.rotateLeft(v3, 12)
+        + Long.rotateLeft(v4, 18);
+    hash = mergeRound(hash, v1);
+    hash = mergeRound(hash, v2);
+    hash = mergeRound(hash, v3);
+    return mergeRound(hash, v4);
+  }
+
+  private static long mergeRound(long hash, final long acc) {
+    hash ^= round(0, acc);
+    return (hash * P1) + P4;
+  }
+
+  //Mixes the fewer than 32 bytes that follow the last stripe into the hash
+  static long remainder(long hash, final Object unsafeObj, long cumOffsetBytes, long remaining) {
     while (remaining >= 8) {
-      long k1 = unsafe.getLong(unsafeObj, cumOffsetBytes);
-      k1 *= P2;
-      k1 = Long.rotateLeft(k1, 31);
-      k1 *= P1;
-      hash ^= k1;
+      hash ^= round(0, unsafe.getLong(unsafeObj, cumOffsetBytes));
       hash = (Long.rotateLeft(hash, 27) * P1) + P4;
       cumOffsetBytes += 8;
       remaining -= 8;
@@ -166,8 +156,7 @@ public class XxHash64 {
       --remaining;
       ++cumOffsetBytes;
     }
-
-    return finalize(hash);
+    return hash;
   }
 
   /**
@@ -189,7 +178,144 @@ public class XxHash64 {
     return finalize(hash);
   }
 
-  private static long finalize(long hash) {
+  /**
+   * Hashes each of <i>count</i> consecutive keys of <i>keyWidthBytes</i> bytes, starting at the given offset
+   * of the given Memory, into the corresponding element of <i>hashOut</i>. Each hash is the same as that of
+   * hashing the key alone, but validity and bounds are checked once for the whole batch and keys of 8 and 16
+   * bytes take a specialized loop.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped
+   * @param offsetBytes the offset in bytes of the first key
+   * @param keyWidthBytes the width in bytes of every key. It must be &gt; 0.
+   * @param count the number of keys. It must be &ge; 0.
+   * @param seed the given seed
+   * @param hashOut receives the hash of key <i>i</i> at index <i>i</i>. Its length must be &ge; <i>count</i>.
+   */
+  public static void hashBatch(final Memory mem, final long offsetBytes, final int keyWidthBytes,
+      final int count, final long seed, final long[] hashOut) {
+    Util.checkBatch(keyWidthBytes, count, hashOut.length, 1);
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValidAndBounds(offsetBytes, (long) keyWidthBytes * count);
+    hashBatch(state.getUnsafeObject(), state.getCumulativeOffset(offsetBytes), keyWidthBytes, count, seed, hashOut);
+  }
+
+  static void hashBatch(final Object unsafeObj, long cumOffsetBytes, final int keyWidthBytes,
+      final int count, final long seed, final long[] hashOut) {
+    switch (keyWidthBytes) {
+      case 8: {
+        final long hash0 = seed + P5 + 8;
+        for (int i = 0; i < count; i++) {
+          long hash = hash0 ^ round(0, unsafe.getLong(unsafeObj, cumOffsetBytes));
+          hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+          hashOut[i] = finalize(hash);
+          cumOffsetBytes += 8;
+        }
+        break;
+      }
+      case 16: {
+        final long hash0 = seed + P5 + 16;
+        for (int i = 0; i < count; i++) {
+          long hash = hash0 ^ round(0, unsafe.getLong(unsafeObj, cumOffsetBytes));
+          hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+          hash ^= round(0, unsafe.getLong(unsafeObj, cumOffsetBytes + 8L));
+          hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+          hashOut[i] = finalize(hash);
+          cumOffsetBytes += 16;
+        }
+        break;
+      }
+      default: {
+        for (int i = 0; i < count; i++) {
+          hashOut[i] = hash(unsafeObj, cumOffsetBytes, keyWidthBytes, seed);
+          cumOffsetBytes += keyWidthBytes;
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the hash of the given range of the given Memory for each of the given seeds in a single pass
+   * over the bytes. The hash for <i>seeds[j]</i> is placed at index <i>j</i> of <i>hashOut</i> and is the
+   * same as that of hashing the range with that seed alone.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped
+   * @param offsetBytes the offset in bytes of the range
+   * @param lengthBytes the length in bytes of the range
+   * @param seeds the given seeds
+   * @param hashOut receives the hashes. Its length must be &ge; the number of seeds.
+   */
+  public static void hashSeeds(final Memory mem, final long offsetBytes, final long lengthBytes,
+      final long[] seeds, final long[] hashOut) {
+    if (hashOut.length < seeds.length) {
+      throw new IllegalArgumentException("hashOut is too small for " + seeds.length + " seeds: " + hashOut.length);
+    }
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValidAndBounds(offsetBytes, lengthBytes);
+    hashSeeds(state.getUnsafeObject(), state.getCumulativeOffset(offsetBytes), lengthBytes, seeds, hashOut);
+  }
+
+  static void hashSeeds(final Object unsafeObj, long cumOffsetBytes, final long lengthBytes,
+      final long[] seeds, final long[] hashOut) {
+    final int k = seeds.length;
+    long remaining = lengthBytes;
+
+    if (remaining >= 32) {
+      long[] acc = ACCUMULATORS.get(); //four accumulators per seed
+      if (acc.length < (k << 2)) {
+        acc = new long[k << 2];
+        ACCUMULATORS.set(acc);
+      }
+      for (int j = 0, a = 0; j < k; j++, a += 4) {
+        acc[a] = seeds[j] + P1 + P2;
+        acc[a + 1] = seeds[j] + P2;
+        acc[a + 2] = seeds[j];
+        acc[a + 3] = seeds[j] - P1;
+      }
+      do { //each lane is read and multiplied once for all seeds
+        final long in1 = unsafe.getLong(unsafeObj, cumOffsetBytes) * P2;
+        final long in2 = unsafe.getLong(unsafeObj, cumOffsetBytes + 8L) * P2;
+        final long in3 = unsafe.getLong(unsafeObj, cumOffsetBytes + 16L) * P2;
+        final long in4 = unsafe.getLong(unsafeObj, cumOffsetBytes + 24L) * P2;
+        for (int a = 0; a < (k << 2); a += 4) {
+          acc[a] = Long.rotateLeft(acc[a] + in1, 31) * P1;
+          acc[a + 1] = Long.rotateLeft(acc[a + 1] + in2, 31) * P1;
+          acc[a + 2] = Long.rotateLeft(acc[a + 2] + in3, 31) * P1;
+          acc[a + 3] = Long.rotateLeft(acc[a + 3] + in4, 31) * P1;
+        }
+        cumOffsetBytes += 32;
+        remaining -= 32;
+      } while (remaining >= 32);
+
+      for (int j = 0, a = 0; j < k; j++, a += 4) {
+        hashOut[j] = converge(acc[a], acc[a + 1], acc[a + 2], acc[a + 3]) + lengthBytes;
+      }
+    } else {
+      for (int j = 0; j < k; j++) { hashOut[j] = seeds[j] + P5 + lengthBytes; }
+    }
+
+    while (remaining >= 8) {
+      final long lane = round(0, unsafe.getLong(unsafeObj, cumOffsetBytes));
+      for (int j = 0; j < k; j++) { hashOut[j] = (Long.rotateLeft(hashOut[j] ^ lane, 27) * P1) + P4; }
+      cumOffsetBytes += 8;
+      remaining -= 8;
+    }
+
+    if (remaining >= 4) { //treat as unsigned ints
+      final long lane = (unsafe.getInt(unsafeObj, cumOffsetBytes) & 0XFFFF_FFFFL) * P1;
+      for (int j = 0; j < k; j++) { hashOut[j] = (Long.rotateLeft(hashOut[j] ^ lane, 23) * P2) + P3; }
+      cumOffsetBytes += 4;
+      remaining -= 4;
+    }
+
+    while (remaining != 0) { //treat as unsigned bytes
+      final long lane = (unsafe.getByte(unsafeObj, cumOffsetBytes) & 0XFFL) * P5;
+      for (int j = 0; j < k; j++) { hashOut[j] = Long.rotateLeft(hashOut[j] ^ lane, 11) * P1; }
+      --remaining;
+      ++cumOffsetBytes;
+    }
+
+    for (int j = 0; j < k; j++) { hashOut[j] = finalize(hashOut[j]); }
+  }
+
+  static long finalize(long hash) {
     hash ^= hash >>> 33;
     hash *= P2;
     hash ^= hash >>> 29;
@@ -313,7 +439,53 @@ public class XxHash64 {
    */
   public static long hashString(final String str, final long offsetChars,
       final long lengthChars, final long seed) {
-    return hashChars(str.toCharArray(), offsetChars, lengthChars, seed);
+    return hashCharSequence(str, offsetChars, lengthChars, seed);
+  }
+
+  /**
+   * Hash the chars of the given CharSequence starting at the given offset and continuing for the given
+   * length using the given seed. The result is the same as that of {@link #hashChars} for the
+   * equivalent char array. No objects are allocated.
+   * @param chars the given CharSequence
+   * @param offsetChars starting at this offset
+   * @param lengthChars continuing for this length
+   * @param seed the given seed
+   * @return the hash
+   */
+  public static long hashCharSequence(final CharSequence chars, final long offsetChars,
+      final long lengthChars, final long seed) {
+    ResourceImpl.checkBounds(offsetChars, lengthChars, chars.length());
+    try (CharSequenceChunker chunker =
+        CharSequenceChunker.open(chars, (int) offsetChars, (int) lengthChars, false)) {
+      return hash(chunker, seed);
+    }
+  }
+
+  /**
+   * Hash the UTF-8 encoding of the given CharSequence using the given seed. The result is the same as that
+   * of {@link #hashBytes} for the array returned by {@code chars.toString().getBytes(UTF_8)}.
+   * The chars are encoded on the fly into a small scratch array, so no objects are allocated.
+   * @param chars the given CharSequence
+   * @param seed the given seed
+   * @return the hash
+   */
+  public static long hashUtf8(final CharSequence chars, final long seed) {
+    try (CharSequenceChunker chunker = CharSequenceChunker.open(chars, 0, chars.length(), true)) {
+      return hash(chunker, seed);
+    }
+  }
+
+  private static long hash(final CharSequenceChunker chunker, final long seed) {
+    final byte[] bytes = chunker.getBytes();
+    int n = chunker.next(0);
+    if (!chunker.hasMoreChars()) { return hash(bytes, ARRAY_BYTE_BASE_OFFSET, n, seed); }
+    final XxHash64Streaming hasher = chunker.getHasher().reset(seed);
+    hasher.update(bytes, 0, n);
+    while (chunker.hasMoreChars()) {
+      n = chunker.next(n);
+      hasher.update(bytes, 0, n);
+    }
+    return hasher.digest();
   }
 
 }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.datasketches.memory.AccessScope;
+import org.apache.datasketches.memory.BulkOps;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * A checksum of a large Memory built as a hash tree over fixed-size blocks.
+ *
+ * <p>Each block is hashed with {@link XxHash64}, so the hash of a block is the same as
+ * {@code mem.xxHash64(blockOffset, blockLength, seed)}. Pairs of sibling hashes are combined level by level
+ * into a single root. When the bytes to hash reach {@link BulkOps#getParallelThresholdBytes()}, the blocks are
+ * hashed by tasks in the {@link BulkOps#getPool()}, so a full checksum scales with the number of cores.</p>
+ *
+ * <p>After writes to the Memory, the writer marks the changed ranges with {@link #markDirty(long, long)} and
+ * {@link #update()} rehashes only the dirty blocks and their ancestors, so the cost of keeping the root
+ * current scales with the size of the change rather than with the size of the Memory.
+ * {@link #verify()} rehashes every block to find a change that was not marked.</p>
+ *
+ * <p>The block hashes can be persisted alongside the data with {@link #writeTo(WritableMemory, long)} and
+ * restored with {@link #readFrom(Memory, Memory, long)} without reading the data.</p>
+ *
+ * <p>A tree is not safe for use by multiple threads.</p>
+ */
+public final class XxHash64MerkleTree {
+
+  /** The default block size in bytes: 1MB. */
+  public static final int DEFAULT_BLOCK_BYTES = 1 << 20;
+
+  private static final int SER_VER = 1;
+  private static final int PREAMBLE_BYTES = 40;
+
+  private final Memory mem;
+  private final int blockBytes;
+  private final long seed;
+  private final int blockCount;
+  private final long[][] levels; //levels[0] holds the block hashes, the last level holds the root
+  private final long[] dirty; //one bit per block
+
+  /**
+   * Creates the tree of the given Memory with blocks of {@link #DEFAULT_BLOCK_BYTES}, and hashes every block.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped. Its capacity must be &gt; 0.
+   * @param seed the seed of every block hash
+   */
+  public XxHash64MerkleTree(final Memory mem, final long seed) {
+    this(mem, DEFAULT_BLOCK_BYTES, seed);
+  }
+
+  /**
+   * Creates the tree of the given Memory with the given block size, and hashes every block.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped. Its capacity must be &gt; 0.
+   * @param blockBytes the size of every block in bytes, except the last, which may be shorter. It must be &gt; 0.
+   * @param seed the seed of every block hash
+   */
+  public XxHash64MerkleTree(final Memory mem, final int blockBytes, final long seed) {
+    this(mem, blockBytes, seed, true);
+  }
+
+  private XxHash64MerkleTree(final Memory mem, final int blockBytes, final long seed, final boolean hashAll) {
+    final long capacity = mem.getCapacity();
+    if (capacity == 0) { throw new IllegalArgumentException("The capacity of mem must be > 0."); }
+    if (blockBytes <= 0) { throw new IllegalArgumentException("blockBytes must be > 0: " + blockBytes); }
+    final long blocks = ((capacity - 1) / blockBytes) + 1;
+    if (blocks > (Integer.MAX_VALUE - 63)) {
+      throw new IllegalArgumentException("blockBytes is too small for a capacity of " + capacity + ": " + blockBytes);
+    }
+    this.mem = mem;
+    this.blockBytes = blockBytes;
+    this.seed = seed;
+    this.blockCount = (int) blocks;
+    int levelCount = 1;
+    for (int n = blockCount; n > 1; n = (n + 1) >>> 1) { levelCount++; }
+    this.levels = new long[levelCount][];
+    for (int level = 0, n = blockCount; level < levelCount; level++, n = (n + 1) >>> 1) {
+      levels[level] = new long[n];
+    }
+    this.dirty = new long[(blockCount + 63) >>> 6];
+    if (hashAll) {
+      hashBlocks(allBlocks(), levels[0]);
+      combineAll();
+    }
+  }
+
+  /**
+   * Restores a tree persisted by {@link #writeTo(WritableMemory, long)} for the given Memory, without reading
+   * the Memory. Use {@link #verify()} to check that the Memory still matches the tree.
+   * @param mem the Memory the tree was created for. Its capacity must equal the persisted capacity.
+   * @param treeMem the Memory holding the persisted tree
+   * @param offsetBytes the offset of the persisted tree in treeMem
+   * @return the restored tree
+   * @throws IllegalArgumentException if the persisted tree is not valid for the given Memory
+   */
+  public static XxHash64MerkleTree readFrom(final Memory mem, final Memory treeMem, final long offsetBytes) {
+    final int serVer = treeMem.getInt(offsetBytes);
+    if (serVer != SER_VER) { throw new IllegalArgumentException("Unknown serialization version: " + serVer); }
+    final int blockBytes = treeMem.getInt(offsetBytes + 4);
+    final long seed = treeMem.getLong(offsetBytes + 8);
+    final long capacity = treeMem.getLong(offsetBytes + 16);
+    if (capacity != mem.getCapacity()) {
+      throw new IllegalArgumentException("The tree is for a capacity of " + capacity + ", not " + mem.getCapacity());
+    }
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(mem, blockBytes, seed, false);
+    if (treeMem.getInt(offsetBytes + 24) != tree.blockCount) {
+      throw new IllegalArgumentException("The block count does not match the capacity and block size.");
+    }
+    treeMem.getLongArray(offsetBytes + PREAMBLE_BYTES, tree.levels[0], 0, tree.blockCount);
+    tree.combineAll();
+    if (tree.getRoot() != treeMem.getLong(offsetBytes + 32)) {
+      throw new IllegalArgumentException("The persisted root does not match the persisted block hashes.");
+    }
+    return tree;
+  }
+
+  /**
+   * Returns the number of bytes written by {@link #writeTo(WritableMemory, long)}.
+   * @return the number of bytes written by {@link #writeTo(WritableMemory, long)}.
+   */
+  public long getSerializedSizeBytes() {
+    return PREAMBLE_BYTES + ((long) blockCount << 3);
+  }
+
+  /**
+   * Persists this tree: its parameters, its root and its block hashes. Pending dirty marks are not persisted,
+   * so {@link #update()} should be called first.
+   * @param treeMem the destination
+   * @param offsetBytes the offset in the destination
+   */
+  public void writeTo(final WritableMemory treeMem, final long offsetBytes) {
+    ResourceImpl.checkBounds(offsetBytes, getSerializedSizeBytes(), treeMem.getCapacity());
+    treeMem.putInt(offsetBytes, SER_VER);
+    treeMem.putInt(offsetBytes + 4, blockBytes);
+    treeMem.putLong(offsetBytes + 8, seed);
+    treeMem.putLong(offsetBytes + 16, mem.getCapacity());
+    treeMem.putInt(offsetBytes + 24, blockCount);
+    treeMem.putInt(offsetBytes + 28, 0); //unused
+    treeMem.putLong(offsetBytes + 32, getRoot());
+    treeMem.putLongArray(offsetBytes + PREAMBLE_BYTES, levels[0], 0, blockCount);
+  }
+
+  /**
+   * Returns the root of this tree, as of the last {@link #update()}.
+   * @return the root of this tree
+   */
+  public long getRoot() {
+    return levels[levels.length - 1][0];
+  }
+
+  /**
+   * Returns the hash of the given block, as of the last {@link #update()}.
+   * @param block the index of the block
+   * @return the hash of the given block
+   */
+  public long getBlockHash(final int block) {
+    return levels[0][block];
+  }
+
+  /**
+   * Returns the number of blocks.
+   * @return the number of blocks.
+   */
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  /**
+   * Returns the size of the blocks in bytes.
+   * @return the size of the blocks in bytes.
+   */
+  public int getBlockBytes() {
+    return blockBytes;
+  }
+
+  /**
+   * Returns the seed of the block hashes.
+   * @return the seed of the block hashes.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Marks every block that overlaps the given range of the Memory to be rehashed by the next {@link #update()}.
+   * @param offsetBytes the offset of the changed range
+   * @param lengthBytes the length of the changed range
+   */
+  public void markDirty(final long offsetBytes, final long lengthBytes) {
+    ResourceImpl.checkBounds(offsetBytes, lengthBytes, mem.getCapacity());
+    if (lengthBytes == 0) { return; }
+    final int first = (int) (offsetBytes / blockBytes);
+    final int last = (int) ((offsetBytes + lengthBytes - 1) / blockBytes);
+    for (int b = first; b <= last; b++) { dirty[b >>> 6] |= 1L << b; }
+  }
+
+  /**
+   * Returns the number of blocks marked to be rehashed by the next {@link #update()}.
+   * @return the number of blocks marked to be rehashed.
+   */
+  public int getDirtyBlockCount() {
+    int count = 0;
+    for (final long word : dirty) { count += Long.bitCount(word); }
+    return count;
+  }
+
+  /**
+   * Rehashes the blocks marked dirty and recombines only their ancestors.
+   * @return the new root
+   */
+  public long update() {
+    final int[] blocks = new int[getDirtyBlockCount()];
+    if (blocks.length == 0) { return getRoot(); }
+    int n = 0;
+    for (int w = 0; w < dirty.length; w++) {
+      for (long word = dirty[w]; word != 0; word &= word - 1) {
+        blocks[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+      }
+    }
+    hashBlocks(blocks, levels[0]);
+    //the indexes stay sorted, so the parents of consecutive dirty nodes are adjacent duplicates
+    int count = blocks.length;
+    for (int level = 1; level < levels.length; level++) {
+      int parents = 0;
+      for (int i = 0; i < count; i++) {
+        final int parent = blocks[i] >>> 1;
+        if ((parents == 0) || (blocks[parents - 1] != parent)) { blocks[parents++] = parent; }
+      }
+      count = parents;
+      for (int i = 0; i < count; i++) { combine(level, blocks[i]); }
+    }
+    Arrays.fill(dirty, 0L);
+    return getRoot();
+  }
+
+  /**
+   * Rehashes every block, without changing this tree, and returns the index of the first block whose bytes no
+   * longer match its hash. Pending dirty marks are ignored.
+   * @return the index of the first mismatched block, or -1 if every block matches.
+   */
+  public int verify() {
+    final long[] current = new long[blockCount];
+    hashBlocks(allBlocks(), current);
+    for (int b = 0; b < blockCount; b++) {
+      if (current[b] != levels[0][b]) { return b; }
+    }
+    return -1;
+  }
+
+  private int[] allBlocks() {
+    final int[] blocks = new int[blockCount];
+    for (int b = 0; b < blockCount; b++) { blocks[b] = b; }
+    return blocks;
+  }
+
+  //hashes the given blocks into the given array of block hashes, in parallel if there are enough bytes
+  private void hashBlocks(final int[] blocks, final long[] hashes) {
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValid();
+    final long capacity = mem.getCapacity();
+    final HashTask task = new HashTask(state.getUnsafeObject(), state.getCumulativeOffset(0), capacity,
+        blockBytes, seed, blocks, 0, blocks.length, hashes,
+        Math.max(1L, BulkOps.getTaskBytes() / blockBytes));
+    if (((long) blocks.length * blockBytes) < BulkOps.getParallelThresholdBytes()) {
+      task.compute();
+      return;
+    }
+    try (AccessScope scope = state.openScope()) {
+      BulkOps.getPool().invoke(task);
+    }
+  }
+
+  private void combineAll() {
+    for (int level = 1; level < levels.length; level++) {
+      for (int i = 0; i < levels[level].length; i++) { combine(level, i); }
+    }
+  }
+
+  //combines the children of the given node
+  private void combine(final int level, final int index) {
+    final long[] children = levels[level - 1];
+    final int left = index << 1;
+    final long hash = XxHash64.hash(children[left], seed);
+    levels[level][index] = (left + 1 < children.length) ? XxHash64.hash(children[left + 1], hash) : hash;
+  }
+
+  private static final class HashTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient Object obj;
+    private final long cumOffset;
+    private final long capacity;
+    private final int blockBytes;
+    private final long seed;
+    private final int[] blocks;
+    private final int from;
+    private final int to;
+    private final long[] hashes;
+    private final long blocksPerTask;
+
+    HashTask(final Object obj, final long cumOffset, final long capacity, final int blockBytes, final long seed,
+        final int[] blocks, final int from, final int to, final long[] hashes, final long blocksPerTask) {
+      this.obj = obj;
+      this.cumOffset = cumOffset;
+      this.capacity = capacity;
+      this.blockBytes = blockBytes;
+      this.seed = seed;
+      this.blocks = blocks;
+      this.from = from;
+      this.to = to;
+      this.hashes = hashes;
+      this.blocksPerTask = blocksPerTask;
+    }
+
+    @Override
+    protected void compute() {
+      if ((to - from) <= blocksPerTask) {
+        for (int i = from; i < to; i++) {
+          final int b = blocks[i];
+          final long offset = (long) b * blockBytes;
+          hashes[b] = XxHash64.hash(obj, cumOffset + offset, Math.min(blockBytes, capacity - offset), seed);
+        }
+        return;
+      }
+      final int mid = (from + to) >>> 1;
+      invokeAll(new HashTask(obj, cumOffset, capacity, blockBytes, seed, blocks, from, mid, hashes, blocksPerTask),
+          new HashTask(obj, cumOffset, capacity, blockBytes, seed, blocks, mid, to, hashes, blocksPerTask));
+    }
+  }
+
+}
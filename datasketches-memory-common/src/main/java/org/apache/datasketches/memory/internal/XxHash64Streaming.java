@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_BYTE_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
+import static org.apache.datasketches.memory.internal.XxHash64.P1;
+import static org.apache.datasketches.memory.internal.XxHash64.P2;
+import static org.apache.datasketches.memory.internal.XxHash64.P5;
+
+import org.apache.datasketches.memory.Buffer;
+import org.apache.datasketches.memory.Memory;
+
+/**
+ * The incremental form of {@link XxHash64}. The input may be given in any number of pieces, and
+ * {@link #digest()} returns the same hash that the one-shot {@link XxHash64} methods return for the
+ * concatenation of all of the pieces with the same seed.
+ *
+ * <p>Each piece is hashed in place, whether it is on-heap, off-heap or memory-mapped. Only the fewer than 32
+ * bytes at the end of a piece that do not complete a stripe are copied, into a small buffer owned by this
+ * object. No objects are allocated after construction, so an instance may be {@link #reset()} and reused.</p>
+ *
+ * <p>As with the one-shot methods, multi-byte lanes are read in the native byte order.
+ * An instance is not safe for use by multiple threads.</p>
+ */
+public final class XxHash64Streaming {
+  private static final int STRIPE_BYTES = 32;
+
+  private long seed;
+  private final byte[] stripe = new byte[STRIPE_BYTES]; //the partial stripe carried to the next update
+  private int stripeBytes;
+  private long totalBytes;
+  private long v1;
+  private long v2;
+  private long v3;
+  private long v4;
+
+  /**
+   * Creates a hasher with a seed of zero.
+   */
+  public XxHash64Streaming() {
+    this(0);
+  }
+
+  /**
+   * Creates a hasher with the given seed.
+   * @param seed the given seed
+   */
+  public XxHash64Streaming(final long seed) {
+    this.seed = seed;
+    reset();
+  }
+
+  /**
+   * Discards all input given so far, so that this hasher may be reused with the same seed.
+   * @return this hasher
+   */
+  public XxHash64Streaming reset() {
+    v1 = seed + P1 + P2;
+    v2 = seed + P2;
+    v3 = seed;
+    v4 = seed - P1;
+    stripeBytes = 0;
+    totalBytes = 0;
+    return this;
+  }
+
+  /**
+   * Discards all input given so far, so that this hasher may be reused with the given seed.
+   * @param seed the given seed
+   * @return this hasher
+   */
+  public XxHash64Streaming reset(final long seed) {
+    this.seed = seed;
+    return reset();
+  }
+
+  /**
+   * Adds the given range of the given Memory to the input.
+   * @param mem the given Memory
+   * @param offsetBytes the offset of the range in the given Memory
+   * @param lengthBytes the length of the range in bytes
+   * @return this hasher
+   */
+  public XxHash64Streaming update(final Memory mem, final long offsetBytes, final long lengthBytes) {
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValidAndBounds(offsetBytes, lengthBytes);
+    update(state.getUnsafeObject(), state.getCumulativeOffset(offsetBytes), lengthBytes);
+    return this;
+  }
+
+  /**
+   * Adds the bytes of the given Buffer between its position and its end to the input,
+   * and then sets its position to its end.
+   * @param buf the given Buffer
+   * @return this hasher
+   */
+  public XxHash64Streaming update(final Buffer buf) {
+    final ResourceImpl state = (ResourceImpl) buf;
+    final long pos = buf.getPosition();
+    final long lengthBytes = buf.getEnd() - pos;
+    state.checkValidAndBounds(pos, lengthBytes);
+    update(state.getUnsafeObject(), state.getCumulativeOffset(pos), lengthBytes);
+    buf.setPosition(buf.getEnd());
+    return this;
+  }
+
+  /**
+   * Adds all of the bytes of the given array to the input.
+   * @param arr the given array
+   * @return this hasher
+   */
+  public XxHash64Streaming update(final byte[] arr) {
+    return update(arr, 0, arr.length);
+  }
+
+  /**
+   * Adds the given range of the given array to the input.
+   * @param arr the given array
+   * @param offsetBytes the offset of the range in the given array
+   * @param lengthBytes the length of the range in bytes
+   * @return this hasher
+   */
+  public XxHash64Streaming update(final byte[] arr, final int offsetBytes, final int lengthBytes) {
+    ResourceImpl.checkBounds(offsetBytes, lengthBytes, arr.length);
+    update(arr, ARRAY_BYTE_BASE_OFFSET + offsetBytes, lengthBytes);
+    return this;
+  }
+
+  /**
+   * Returns the hash of all of the input given since construction or the last {@link #reset()}.
+   * This does not change the state of this hasher, so more input may follow.
+   * @return the 64-bit hash of the input
+   */
+  public long digest() {
+    long hash;
+    if (totalBytes >= STRIPE_BYTES) {
+      hash = XxHash64.converge(v1, v2, v3, v4);
+    } else {
+      hash = seed + P5;
+    }
+    hash += totalBytes;
+    return XxHash64.finalize(XxHash64.remainder(hash, stripe, ARRAY_BYTE_BASE_OFFSET, stripeBytes));
+  }
+
+  private void update(final Object unsafeObj, long cumOffsetBytes, long lengthBytes) {
+    totalBytes += lengthBytes;
+    if (stripeBytes > 0) { //complete the partial stripe first
+      final int fill = (int) Math.min(STRIPE_BYTES - stripeBytes, lengthBytes);
+      unsafe.copyMemory(unsafeObj, cumOffsetBytes, stripe, ARRAY_BYTE_BASE_OFFSET + stripeBytes, fill);
+      stripeBytes += fill;
+      cumOffsetBytes += fill;
+      lengthBytes -= fill;
+      if (stripeBytes < STRIPE_BYTES) { return; }
+      stripe(stripe, ARRAY_BYTE_BASE_OFFSET);
+      stripeBytes = 0;
+    }
+    while (lengthBytes >= STRIPE_BYTES) {
+      stripe(unsafeObj, cumOffsetBytes);
+      cumOffsetBytes += STRIPE_BYTES;
+      lengthBytes -= STRIPE_BYTES;
+    }
+    if (lengthBytes > 0) {
+      unsafe.copyMemory(unsafeObj, cumOffsetBytes, stripe, ARRAY_BYTE_BASE_OFFSET, lengthBytes);
+      stripeBytes = (int) lengthBytes;
+    }
+  }
+
+  private void stripe(final Object unsafeObj, final long cumOffsetBytes) {
+    v1 = XxHash64.round(v1, unsafe.getLong(unsafeObj, cumOffsetBytes));
+    v2 = XxHash64.round(v2, unsafe.getLong(unsafeObj, cumOffsetBytes + 8L));
+    v3 = XxHash64.round(v3, unsafe.getLong(unsafeObj, cumOffsetBytes + 16L));
+    v4 = XxHash64.round(v4, unsafe.getLong(unsafeObj, cumOffsetBytes + 24L));
+  }
+
+}
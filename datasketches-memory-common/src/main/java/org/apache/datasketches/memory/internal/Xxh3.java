@@ -0,0 +1,654 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_BYTE_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_CHAR_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_DOUBLE_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_FLOAT_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_INT_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_LONG_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_SHORT_BASE_OFFSET;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.CHAR_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.DOUBLE_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.FLOAT_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.INT_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.LONG_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.SHORT_SHIFT;
+import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
+
+import java.nio.ByteOrder;
+
+import org.apache.datasketches.memory.Memory;
+
+/**
+ * The XXH3 64-bit and 128-bit hash functions, version 0.8, with the default secret.
+ *
+ * <p>XXH3 reads its input as little-endian words regardless of the platform, so its results match the
+ * reference implementation on every platform. Inputs of up to 240 bytes are hashed with short, branch-selected
+ * mixing paths; longer inputs are hashed in 64-byte stripes by eight independent accumulators.
+ * The accumulators, and the secret derived from a non-zero seed, are kept per thread and reused, so hashing does
+ * not allocate once a thread has hashed its first long input.</p>
+ *
+ * <p>The C reference implementation:
+ * <a href="https://github.com/Cyan4973/xxHash">https://github.com/Cyan4973/xxHash</a>.
+ * It has a BSD 2-Clause License:
+ * <a href="http://www.opensource.org/licenses/bsd-license.php">
+ * http://www.opensource.org/licenses/bsd-license.php</a>.  See LICENSE.</p>
+ */
+public final class Xxh3 {
+  private static final boolean LITTLE_ENDIAN = Util.NATIVE_BYTE_ORDER == ByteOrder.LITTLE_ENDIAN;
+
+  private static final long PRIME32_1 = 0x9E3779B1L;
+  private static final long PRIME32_2 = 0x85EBCA77L;
+  private static final long PRIME32_3 = 0xC2B2AE3DL;
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+  private static final long PRIME_MX1 = 0x165667919E3779F9L;
+  private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+  private static final int SECRET_SIZE = 192;
+  private static final int SECRET_SIZE_MIN = 136;
+  private static final int STRIPE_LEN = 64;
+  private static final int SECRET_CONSUME_RATE = 8;
+  private static final int STRIPES_PER_BLOCK = (SECRET_SIZE - STRIPE_LEN) / SECRET_CONSUME_RATE;
+  private static final int BLOCK_LEN = STRIPE_LEN * STRIPES_PER_BLOCK;
+  private static final int MIDSIZE_MAX = 240;
+  private static final int MIDSIZE_STARTOFFSET = 3;
+  private static final int MIDSIZE_LASTOFFSET = 17;
+  private static final int SECRET_LASTACC_START = 7;
+  private static final int SECRET_MERGEACCS_START = 11;
+
+  //The default secret of the reference implementation
+  private static final byte[] SECRET = {
+    (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4, (byte) 0x4b, (byte) 0xbe,
+    (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c, (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c,
+    (byte) 0xde, (byte) 0xd4, (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb,
+    (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3, (byte) 0x67, (byte) 0x1f,
+    (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e, (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78,
+    (byte) 0x82, (byte) 0x5a, (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+    (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43, (byte) 0x24, (byte) 0x8e,
+    (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6, (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c,
+    (byte) 0x3c, (byte) 0x28, (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb,
+    (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53, (byte) 0x2e, (byte) 0xa3,
+    (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97, (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e,
+    (byte) 0x38, (byte) 0x19, (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+    (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c, (byte) 0x34, (byte) 0x3f,
+    (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7, (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d,
+    (byte) 0x8a, (byte) 0x51, (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31,
+    (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78, (byte) 0x73, (byte) 0x64,
+    (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83, (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3,
+    (byte) 0xc5, (byte) 0x81, (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+    (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0, (byte) 0xda, (byte) 0x49,
+    (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26, (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e,
+    (byte) 0x2b, (byte) 0x16, (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc,
+    (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0, (byte) 0x31, (byte) 0xce,
+    (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f, (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28,
+    (byte) 0xaf, (byte) 0xd7, (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e,
+  };
+
+  //The accumulators and the seeded secret of the inputs longer than MIDSIZE_MAX, reused by each thread
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private static final class Scratch {
+    final long[] acc = new long[8];
+    final byte[] secret = new byte[SECRET_SIZE];
+    long secretSeed = 0; //the seed of the secret; zero means the secret has not been derived yet
+  }
+
+  private Xxh3() { }
+
+  //MEMORY
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given Memory.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped.
+   * @param offsetBytes the offset of the range in the given Memory
+   * @param lengthBytes the length of the range in bytes
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashMemory64(final Memory mem, final long offsetBytes, final long lengthBytes,
+      final long seed) {
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValidAndBounds(offsetBytes, lengthBytes);
+    return hash64(state.getUnsafeObject(), state.getCumulativeOffset(offsetBytes), lengthBytes, seed);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given Memory into the given array.
+   * @param mem the given Memory, which may be on-heap, off-heap or memory-mapped.
+   * @param offsetBytes the offset of the range in the given Memory
+   * @param lengthBytes the length of the range in bytes
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hashMemory128(final Memory mem, final long offsetBytes, final long lengthBytes,
+      final long seed, final long[] hashOut) {
+    final ResourceImpl state = (ResourceImpl) mem;
+    state.checkValidAndBounds(offsetBytes, lengthBytes);
+    return hash128(state.getUnsafeObject(), state.getCumulativeOffset(offsetBytes), lengthBytes, seed, hashOut);
+  }
+
+  //ARRAYS
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array.
+   * @param arr the given array
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashBytes64(final byte[] arr, final long offsetBytes, final long lengthBytes,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetBytes, lengthBytes, arr.length);
+    return hash64(arr, ARRAY_BYTE_BASE_OFFSET + offsetBytes, lengthBytes, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetShorts starting at this offset
+   * @param lengthShorts continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashShorts64(final short[] arr, final long offsetShorts, final long lengthShorts,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetShorts, lengthShorts, arr.length);
+    return hash64(arr, ARRAY_SHORT_BASE_OFFSET + (offsetShorts << SHORT_SHIFT), lengthShorts << SHORT_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetChars starting at this offset
+   * @param lengthChars continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashChars64(final char[] arr, final long offsetChars, final long lengthChars,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetChars, lengthChars, arr.length);
+    return hash64(arr, ARRAY_CHAR_BASE_OFFSET + (offsetChars << CHAR_SHIFT), lengthChars << CHAR_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetInts starting at this offset
+   * @param lengthInts continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashInts64(final int[] arr, final long offsetInts, final long lengthInts,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetInts, lengthInts, arr.length);
+    return hash64(arr, ARRAY_INT_BASE_OFFSET + (offsetInts << INT_SHIFT), lengthInts << INT_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetLongs starting at this offset
+   * @param lengthLongs continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashLongs64(final long[] arr, final long offsetLongs, final long lengthLongs,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetLongs, lengthLongs, arr.length);
+    return hash64(arr, ARRAY_LONG_BASE_OFFSET + (offsetLongs << LONG_SHIFT), lengthLongs << LONG_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetFloats starting at this offset
+   * @param lengthFloats continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashFloats64(final float[] arr, final long offsetFloats, final long lengthFloats,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetFloats, lengthFloats, arr.length);
+    return hash64(arr, ARRAY_FLOAT_BASE_OFFSET + (offsetFloats << FLOAT_SHIFT), lengthFloats << FLOAT_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the given range of the given array, read in the native byte order.
+   * @param arr the given array
+   * @param offsetDoubles starting at this offset
+   * @param lengthDoubles continuing for this length
+   * @param seed the given seed
+   * @return the 64-bit hash
+   */
+  public static long hashDoubles64(final double[] arr, final long offsetDoubles, final long lengthDoubles,
+      final long seed) {
+    ResourceImpl.checkBounds(offsetDoubles, lengthDoubles, arr.length);
+    return hash64(arr, ARRAY_DOUBLE_BASE_OFFSET + (offsetDoubles << DOUBLE_SHIFT),
+        lengthDoubles << DOUBLE_SHIFT, seed);
+  }
+
+  /**
+   * Returns the XXH3 64-bit hash of the 8 bytes of the given long in little-endian order.
+   * This method has been optimized for speed when only a single hash of a long is required.
+   * @param in A long.
+   * @param seed A long valued seed.
+   * @return the 64-bit hash
+   */
+  public static long hashLong64(final long in, final long seed) {
+    final long s = seed ^ ((Integer.reverseBytes((int) seed) & 0xFFFF_FFFFL) << 32);
+    final long bitflip = (secret64(8) ^ secret64(16)) - s;
+    return rrmxmx(Long.rotateLeft(in, 32) ^ bitflip, Long.BYTES);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given array into the given array.
+   * @param arr the given array
+   * @param offsetBytes starting at this offset
+   * @param lengthBytes continuing for this length
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hashBytes128(final byte[] arr, final long offsetBytes, final long lengthBytes,
+      final long seed, final long[] hashOut) {
+    ResourceImpl.checkBounds(offsetBytes, lengthBytes, arr.length);
+    return hash128(arr, ARRAY_BYTE_BASE_OFFSET + offsetBytes, lengthBytes, seed, hashOut);
+  }
+
+  /**
+   * Writes the XXH3 128-bit hash of the given range of the given array, read in the native byte order,
+   * into the given array.
+   * @param arr the given array
+   * @param offsetLongs starting at this offset
+   * @param lengthLongs continuing for this length
+   * @param seed the given seed
+   * @param hashOut the array of at least 2 longs that receives the low 64 bits at index 0
+   * and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  public static long[] hashLongs128(final long[] arr, final long offsetLongs, final long lengthLongs,
+      final long seed, final long[] hashOut) {
+    ResourceImpl.checkBounds(offsetLongs, lengthLongs, arr.length);
+    return hash128(arr, ARRAY_LONG_BASE_OFFSET + (offsetLongs << LONG_SHIFT), lengthLongs << LONG_SHIFT,
+        seed, hashOut);
+  }
+
+  //64-BIT
+
+  /**
+   * Returns the XXH3 64-bit hash of the sequence of bytes in the unsafeObject specified by
+   * <i>cumOffsetBytes</i>, <i>lengthBytes</i> and a <i>seed</i>.
+   *
+   * @param unsafeObj A reference to the object parameter required by unsafe. It may be null.
+   * @param cumOffsetBytes cumulative offset in bytes of the sequence, including any array base offset or
+   * native address.
+   * @param lengthBytes the length in bytes of the sequence to be hashed
+   * @param seed a given seed
+   * @return the 64-bit hash
+   */
+  static long hash64(final Object unsafeObj, final long cumOffsetBytes, final long lengthBytes,
+      final long seed) {
+    if (lengthBytes <= 16) { return hash64Len0To16(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed); }
+    if (lengthBytes <= 128) { return hash64Len17To128(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed); }
+    if (lengthBytes <= MIDSIZE_MAX) { return hash64Len129To240(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed); }
+    final Scratch scratch = SCRATCH.get();
+    final byte[] secret = secretFor(seed, scratch);
+    final long[] acc = accumulateLong(unsafeObj, cumOffsetBytes, lengthBytes, secret, scratch.acc);
+    return mergeAccs(acc, secret, SECRET_MERGEACCS_START, lengthBytes * PRIME64_1);
+  }
+
+  private static long hash64Len0To16(final Object unsafeObj, final long cumOff, final int len, final long seed) {
+    if (len > 8) {
+      final long bitflip1 = (secret64(24) ^ secret64(32)) + seed;
+      final long bitflip2 = (secret64(40) ^ secret64(48)) - seed;
+      final long inputLo = getLE64(unsafeObj, cumOff) ^ bitflip1;
+      final long inputHi = getLE64(unsafeObj, cumOff + len - 8) ^ bitflip2;
+      final long acc = len + Long.reverseBytes(inputLo) + inputHi + mul128Fold64(inputLo, inputHi);
+      return avalanche(acc);
+    }
+    if (len >= 4) {
+      final long s = seed ^ ((Integer.reverseBytes((int) seed) & 0xFFFF_FFFFL) << 32);
+      final long input1 = getLE32(unsafeObj, cumOff);
+      final long input2 = getLE32(unsafeObj, cumOff + len - 4);
+      final long bitflip = (secret64(8) ^ secret64(16)) - s;
+      return rrmxmx((input2 + (input1 << 32)) ^ bitflip, len);
+    }
+    if (len > 0) {
+      final long bitflip = (secret32(0) ^ secret32(4)) + seed;
+      return xxh64Avalanche(combine1To3(unsafeObj, cumOff, len) ^ bitflip);
+    }
+    return xxh64Avalanche(seed ^ (secret64(56) ^ secret64(64)));
+  }
+
+  private static long hash64Len17To128(final Object unsafeObj, final long cumOff, final int len, final long seed) {
+    long acc = len * PRIME64_1;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          acc += mix16B(unsafeObj, cumOff + 48, 96, seed);
+          acc += mix16B(unsafeObj, cumOff + len - 64, 112, seed);
+        }
+        acc += mix16B(unsafeObj, cumOff + 32, 64, seed);
+        acc += mix16B(unsafeObj, cumOff + len - 48, 80, seed);
+      }
+      acc += mix16B(unsafeObj, cumOff + 16, 32, seed);
+      acc += mix16B(unsafeObj, cumOff + len - 32, 48, seed);
+    }
+    acc += mix16B(unsafeObj, cumOff, 0, seed);
+    acc += mix16B(unsafeObj, cumOff + len - 16, 16, seed);
+    return avalanche(acc);
+  }
+
+  private static long hash64Len129To240(final Object unsafeObj, final long cumOff, final int len, final long seed) {
+    long acc = len * PRIME64_1;
+    final int nbRounds = len / 16;
+    for (int i = 0; i < 8; i++) {
+      acc += mix16B(unsafeObj, cumOff + (16 * i), 16 * i, seed);
+    }
+    acc = avalanche(acc);
+    for (int i = 8; i < nbRounds; i++) {
+      acc += mix16B(unsafeObj, cumOff + (16 * i), (16 * (i - 8)) + MIDSIZE_STARTOFFSET, seed);
+    }
+    acc += mix16B(unsafeObj, cumOff + len - 16, SECRET_SIZE_MIN - MIDSIZE_LASTOFFSET, seed);
+    return avalanche(acc);
+  }
+
+  //128-BIT
+
+  /**
+   * Writes the XXH3 128-bit hash of the sequence of bytes in the unsafeObject specified by
+   * <i>cumOffsetBytes</i>, <i>lengthBytes</i> and a <i>seed</i> into the given array.
+   *
+   * @param unsafeObj A reference to the object parameter required by unsafe. It may be null.
+   * @param cumOffsetBytes cumulative offset in bytes of the sequence, including any array base offset or
+   * native address.
+   * @param lengthBytes the length in bytes of the sequence to be hashed
+   * @param seed a given seed
+   * @param hashOut receives the low 64 bits at index 0 and the high 64 bits at index 1.
+   * @return the given hashOut array
+   */
+  static long[] hash128(final Object unsafeObj, final long cumOffsetBytes, final long lengthBytes,
+      final long seed, final long[] hashOut) {
+    if (lengthBytes <= 16) {
+      hash128Len0To16(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed, hashOut);
+    } else if (lengthBytes <= 128) {
+      hash128Len17To128(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed, hashOut);
+    } else if (lengthBytes <= MIDSIZE_MAX) {
+      hash128Len129To240(unsafeObj, cumOffsetBytes, (int) lengthBytes, seed, hashOut);
+    } else {
+      final Scratch scratch = SCRATCH.get();
+      final byte[] secret = secretFor(seed, scratch);
+      final long[] acc = accumulateLong(unsafeObj, cumOffsetBytes, lengthBytes, secret, scratch.acc);
+      hashOut[0] = mergeAccs(acc, secret, SECRET_MERGEACCS_START, lengthBytes * PRIME64_1);
+      hashOut[1] = mergeAccs(acc, secret, SECRET_SIZE - STRIPE_LEN - SECRET_MERGEACCS_START,
+          ~(lengthBytes * PRIME64_2));
+    }
+    return hashOut;
+  }
+
+  private static void hash128Len0To16(final Object unsafeObj, final long cumOff, final int len, final long seed,
+      final long[] hashOut) {
+    if (len > 8) {
+      final long bitflipl = (secret64(32) ^ secret64(40)) - seed;
+      final long bitfliph = (secret64(48) ^ secret64(56)) + seed;
+      final long inputLo = getLE64(unsafeObj, cumOff);
+      long inputHi = getLE64(unsafeObj, cumOff + len - 8);
+      final long m = inputLo ^ inputHi ^ bitflipl;
+      long mLow = m * PRIME64_1;
+      long mHigh = unsignedMultiplyHigh(m, PRIME64_1);
+      mLow += (long) (len - 1) << 54;
+      inputHi ^= bitfliph;
+      mHigh += inputHi + ((inputHi & 0xFFFF_FFFFL) * (PRIME32_2 - 1));
+      mLow ^= Long.reverseBytes(mHigh);
+      hashOut[0] = avalanche(mLow * PRIME64_2);
+      hashOut[1] = avalanche(unsignedMultiplyHigh(mLow, PRIME64_2) + (mHigh * PRIME64_2));
+    } else if (len >= 4) {
+      final long s = seed ^ ((Integer.reverseBytes((int) seed) & 0xFFFF_FFFFL) << 32);
+      final long inputLo = getLE32(unsafeObj, cumOff);
+      final long inputHi = getLE32(unsafeObj, cumOff + len - 4);
+      final long bitflip = (secret64(16) ^ secret64(24)) + s;
+      final long keyed = (inputLo + (inputHi << 32)) ^ bitflip;
+      final long mul = PRIME64_1 + ((long) len << 2);
+      long mLow = keyed * mul;
+      long mHigh = unsignedMultiplyHigh(keyed, mul);
+      mHigh += mLow << 1;
+      mLow ^= mHigh >>> 3;
+      mLow ^= mLow >>> 35;
+      mLow *= PRIME_MX2;
+      mLow ^= mLow >>> 28;
+      hashOut[0] = mLow;
+      hashOut[1] = avalanche(mHigh);
+    } else if (len > 0) {
+      final long combinedl = combine1To3(unsafeObj, cumOff, len);
+      final long combinedh = Integer.rotateLeft(Integer.reverseBytes((int) combinedl), 13) & 0xFFFF_FFFFL;
+      final long bitflipl = (secret32(0) ^ secret32(4)) + seed;
+      final long bitfliph = (secret32(8) ^ secret32(12)) - seed;
+      hashOut[0] = xxh64Avalanche(combinedl ^ bitflipl);
+      hashOut[1] = xxh64Avalanche(combinedh ^ bitfliph);
+    } else {
+      hashOut[0] = xxh64Avalanche(seed ^ (secret64(64) ^ secret64(72)));
+      hashOut[1] = xxh64Avalanche(seed ^ (secret64(80) ^ secret64(88)));
+    }
+  }
+
+  //hashOut serves as the two accumulators
+  private static void hash128Len17To128(final Object unsafeObj, final long cumOff, final int len, final long seed,
+      final long[] hashOut) {
+    hashOut[0] = len * PRIME64_1;
+    hashOut[1] = 0;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          mix32B(hashOut, unsafeObj, cumOff + 48, cumOff + len - 64, 96, seed);
+        }
+        mix32B(hashOut, unsafeObj, cumOff + 32, cumOff + len - 48, 64, seed);
+      }
+      mix32B(hashOut, unsafeObj, cumOff + 16, cumOff + len - 32, 32, seed);
+    }
+    mix32B(hashOut, unsafeObj, cumOff, cumOff + len - 16, 0, seed);
+    finish128(hashOut, len, seed);
+  }
+
+  private static void hash128Len129To240(final Object unsafeObj, final long cumOff, final int len, final long seed,
+      final long[] hashOut) {
+    hashOut[0] = len * PRIME64_1;
+    hashOut[1] = 0;
+    final int nbRounds = len / 32;
+    for (int i = 0; i < 4; i++) {
+      mix32B(hashOut, unsafeObj, cumOff + (32 * i), cumOff + (32 * i) + 16, 32 * i, seed);
+    }
+    hashOut[0] = avalanche(hashOut[0]);
+    hashOut[1] = avalanche(hashOut[1]);
+    for (int i = 4; i < nbRounds; i++) {
+      mix32B(hashOut, unsafeObj, cumOff + (32 * i), cumOff + (32 * i) + 16,
+          MIDSIZE_STARTOFFSET + (32 * (i - 4)), seed);
+    }
+    mix32B(hashOut, unsafeObj, cumOff + len - 16, cumOff + len - 32,
+        SECRET_SIZE_MIN - MIDSIZE_LASTOFFSET - 16, -seed);
+    finish128(hashOut, len, seed);
+  }
+
+  private static void mix32B(final long[] acc, final Object unsafeObj, final long cumOff1, final long cumOff2,
+      final int secretOff, final long seed) {
+    acc[0] += mix16B(unsafeObj, cumOff1, secretOff, seed);
+    acc[0] ^= getLE64(unsafeObj, cumOff2) + getLE64(unsafeObj, cumOff2 + 8);
+    acc[1] += mix16B(unsafeObj, cumOff2, secretOff + 16, seed);
+    acc[1] ^= getLE64(unsafeObj, cumOff1) + getLE64(unsafeObj, cumOff1 + 8);
+  }
+
+  private static void finish128(final long[] acc, final int len, final long seed) {
+    final long low = acc[0];
+    final long high = acc[1];
+    acc[0] = avalanche(low + high);
+    acc[1] = -avalanche((low * PRIME64_1) + (high * PRIME64_4) + ((len - seed) * PRIME64_2));
+  }
+
+  //LONG INPUTS, > 240 BYTES
+
+  private static long[] accumulateLong(final Object unsafeObj, final long cumOff, final long len,
+      final byte[] secret, final long[] acc) {
+    acc[0] = PRIME32_3;
+    acc[1] = PRIME64_1;
+    acc[2] = PRIME64_2;
+    acc[3] = PRIME64_3;
+    acc[4] = PRIME64_4;
+    acc[5] = PRIME32_2;
+    acc[6] = PRIME64_5;
+    acc[7] = PRIME32_1;
+    final long nbBlocks = (len - 1) / BLOCK_LEN;
+    for (long n = 0; n < nbBlocks; n++) {
+      final long blockOff = cumOff + (n * BLOCK_LEN);
+      for (int s = 0; s < STRIPES_PER_BLOCK; s++) {
+        accumulate512(acc, unsafeObj, blockOff + (s * STRIPE_LEN), secret, s * SECRET_CONSUME_RATE);
+      }
+      scramble(acc, secret, SECRET_SIZE - STRIPE_LEN);
+    }
+    final long lastBlockOff = cumOff + (nbBlocks * BLOCK_LEN);
+    final int nbStripes = (int) (((len - 1) - (nbBlocks * BLOCK_LEN)) / STRIPE_LEN);
+    for (int s = 0; s < nbStripes; s++) {
+      accumulate512(acc, unsafeObj, lastBlockOff + (s * STRIPE_LEN), secret, s * SECRET_CONSUME_RATE);
+    }
+    accumulate512(acc, unsafeObj, cumOff + len - STRIPE_LEN, secret,
+        SECRET_SIZE - STRIPE_LEN - SECRET_LASTACC_START);
+    return acc;
+  }
+
+  private static void accumulate512(final long[] acc, final Object unsafeObj, final long cumOff,
+      final byte[] secret, final int secretOff) {
+    for (int i = 0; i < 8; i++) {
+      final long dataVal = getLE64(unsafeObj, cumOff + (8 * i));
+      final long dataKey = dataVal ^ getLE64(secret, ARRAY_BYTE_BASE_OFFSET + secretOff + (8 * i));
+      acc[i ^ 1] += dataVal;
+      acc[i] += (dataKey & 0xFFFF_FFFFL) * (dataKey >>> 32);
+    }
+  }
+
+  private static void scramble(final long[] acc, final byte[] secret, final int secretOff) {
+    for (int i = 0; i < 8; i++) {
+      long a = acc[i];
+      a ^= a >>> 47;
+      a ^= getLE64(secret, ARRAY_BYTE_BASE_OFFSET + secretOff + (8 * i));
+      acc[i] = a * PRIME32_1;
+    }
+  }
+
+  private static long mergeAccs(final long[] acc, final byte[] secret, final int secretOff, final long start) {
+    long result = start;
+    for (int i = 0; i < 4; i++) {
+      final long s = ARRAY_BYTE_BASE_OFFSET + secretOff + (16 * i);
+      result += mul128Fold64(acc[2 * i] ^ getLE64(secret, s), acc[(2 * i) + 1] ^ getLE64(secret, s + 8));
+    }
+    return avalanche(result);
+  }
+
+  //Returns the default secret for a zero seed, otherwise the secret derived from the seed into the scratch,
+  //which is derived again only when the seed differs from the previous call of this thread
+  private static byte[] secretFor(final long seed, final Scratch scratch) {
+    if (seed == 0) { return SECRET; }
+    final byte[] custom = scratch.secret;
+    if (scratch.secretSeed != seed) {
+      for (int i = 0; i < SECRET_SIZE; i += 16) {
+        putLE64(custom, ARRAY_BYTE_BASE_OFFSET + i, secret64(i) + seed);
+        putLE64(custom, ARRAY_BYTE_BASE_OFFSET + i + 8, secret64(i + 8) - seed);
+      }
+      scratch.secretSeed = seed;
+    }
+    return custom;
+  }
+
+  //PRIMITIVES
+
+  private static long mix16B(final Object unsafeObj, final long cumOff, final int secretOff, final long seed) {
+    final long inputLo = getLE64(unsafeObj, cumOff);
+    final long inputHi = getLE64(unsafeObj, cumOff + 8);
+    return mul128Fold64(inputLo ^ (secret64(secretOff) + seed), inputHi ^ (secret64(secretOff + 8) - seed));
+  }
+
+  private static long combine1To3(final Object unsafeObj, final long cumOff, final int len) {
+    final int c1 = unsafe.getByte(unsafeObj, cumOff) & 0xFF;
+    final int c2 = unsafe.getByte(unsafeObj, cumOff + (len >>> 1)) & 0xFF;
+    final int c3 = unsafe.getByte(unsafeObj, cumOff + len - 1) & 0xFF;
+    return ((c1 << 16) | (c2 << 24) | c3 | (len << 8)) & 0xFFFF_FFFFL;
+  }
+
+  private static long mul128Fold64(final long a, final long b) {
+    return (a * b) ^ unsignedMultiplyHigh(a, b);
+  }
+
+  private static long unsignedMultiplyHigh(final long a, final long b) {
+    return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+  }
+
+  private static long avalanche(long h) {
+    h ^= h >>> 37;
+    h *= PRIME_MX1;
+    return h ^ (h >>> 32);
+  }
+
+  private static long xxh64Avalanche(long h) {
+    h ^= h >>> 33;
+    h *= PRIME64_2;
+    h ^= h >>> 29;
+    h *= PRIME64_3;
+    return h ^ (h >>> 32);
+  }
+
+  private static long rrmxmx(long h, final long len) {
+    h ^= Long.rotateLeft(h, 49) ^ Long.rotateLeft(h, 24);
+    h *= PRIME_MX2;
+    h ^= (h >>> 35) + len;
+    h *= PRIME_MX2;
+    return h ^ (h >>> 28);
+  }
+
+  private static long secret64(final int offset) {
+    return getLE64(SECRET, ARRAY_BYTE_BASE_OFFSET + offset);
+  }
+
+  private static long secret32(final int offset) {
+    return getLE32(SECRET, ARRAY_BYTE_BASE_OFFSET + offset);
+  }
+
+  private static long getLE64(final Object unsafeObj, final long cumOff) {
+    final long v = unsafe.getLong(unsafeObj, cumOff);
+    return LITTLE_ENDIAN ? v : Long.reverseBytes(v);
+  }
+
+  //returns the unsigned int
+  private static long getLE32(final Object unsafeObj, final long cumOff) {
+    final int v = unsafe.getInt(unsafeObj, cumOff);
+    return (LITTLE_ENDIAN ? v : Integer.reverseBytes(v)) & 0xFFFF_FFFFL;
+  }
+
+  private static void putLE64(final byte[] arr, final long cumOff, final long v) {
+    unsafe.putLong(arr, cumOff, LITTLE_ENDIAN ? v : Long.reverseBytes(v));
+  }
+
+}
@@ -22,8 +22,18 @@ package org.apache.datasketches.memory.internal;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.nio.ByteOrder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.datasketches.memory.AccessScope;
+import org.apache.datasketches.memory.DefaultMemoryRequestServer;
 import org.apache.datasketches.memory.MemoryRequestServer;
+import org.apache.datasketches.memory.NativeMemoryStats;
 import org.apache.datasketches.memory.Resource;
 import org.apache.datasketches.memory.WritableMemory;
 import org.testng.annotations.Test;
@@ -88,6 +98,236 @@ public class AllocateDirectMemoryTest {
     assertFalse(wMem.isAlive());
   }
 
+  @Test
+  public void checkDefaultAlignment() {
+    for (int i = 1; i <= 64; i++) {
+      try (WritableMemory wmem = WritableMemory.allocateDirect(i)) {
+        assertEquals(wmem.getCumulativeOffset() % Long.BYTES, 0);
+      }
+    }
+  }
+
+  @Test
+  public void checkAlignment() {
+    final int[] alignments = {2, 8, 64, 4096};
+    for (int alignment : alignments) {
+      for (int i = 0; i < 16; i++) {
+        try (WritableMemory wmem = WritableMemory.allocateDirect(i + 1, alignment, ByteOrder.nativeOrder(), null)) {
+          assertEquals(wmem.getCumulativeOffset() % alignment, 0);
+          wmem.fill((byte) 1); //the full capacity is usable after rounding up
+          assertEquals(wmem.getByte(i), 1);
+        }
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkBadAlignment() {
+    WritableMemory.allocateDirect(8, 3, ByteOrder.nativeOrder(), null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkAlignmentOfOne() {
+    WritableMemory.allocateDirect(8, 1, ByteOrder.nativeOrder(), null);
+  }
+
+  @Test
+  public void checkReallocateDirect() {
+    final long bytes0 = NativeMemoryStats.getDirectBytes();
+    final long count0 = NativeMemoryStats.getLiveDirectCount();
+    WritableMemory wmem = WritableMemory.allocateDirect(64);
+    for (int i = 0; i < 8; i++) { wmem.putLong(i << 3, i); }
+    WritableMemory region = wmem.writableRegion(8, 8);
+    WritableMemory wmem2 = WritableMemory.reallocateDirect(wmem, 1 << 20);
+    assertFalse(wmem.isAlive());
+    assertFalse(region.isAlive());
+    assertTrue(wmem2.isAlive());
+    assertEquals(wmem2.getCapacity(), 1 << 20);
+    for (int i = 0; i < 8; i++) { assertEquals(wmem2.getLong(i << 3), i); }
+    wmem2.putLong((1 << 20) - 8, -1L);
+    assertEquals(NativeMemoryStats.getDirectBytes() - bytes0, (1 << 20) + 7);
+    assertEquals(NativeMemoryStats.getLiveDirectCount() - count0, 1);
+
+    WritableMemory wmem3 = WritableMemory.reallocateDirect(wmem2, 16); //shrink
+    assertEquals(wmem3.getLong(8), 1);
+    wmem3.close();
+    assertFalse(wmem3.isAlive());
+    assertEquals(NativeMemoryStats.getDirectBytes(), bytes0);
+    assertEquals(NativeMemoryStats.getLiveDirectCount(), count0);
+  }
+
+  @Test
+  public void checkReallocateDirectAlignmentAndOrder() {
+    WritableMemory wmem = WritableMemory.allocateDirect(100, 4096, Util.NON_NATIVE_BYTE_ORDER, null);
+    for (int i = 0; i < 100; i++) { wmem.putByte(i, (byte) i); }
+    wmem.putInt(0, 12345);
+    for (int i = 0; i < 10; i++) {
+      wmem = WritableMemory.reallocateDirect(wmem, wmem.getCapacity() * 3);
+      assertEquals(wmem.getCumulativeOffset() % 4096, 0);
+      assertEquals(wmem.getTypeByteOrder(), Util.NON_NATIVE_BYTE_ORDER);
+      assertEquals(wmem.getInt(0), 12345);
+      for (int j = 4; j < 100; j++) { assertEquals(wmem.getByte(j), (byte) j); }
+    }
+    wmem.close();
+  }
+
+  @Test
+  public void checkReallocateDirectRejects() {
+    try (WritableMemory wmem = WritableMemory.allocateDirect(64)) {
+      try { WritableMemory.reallocateDirect(wmem.writableRegion(0, 64), 128); fail(); }
+      catch (IllegalArgumentException e) { /* expected */ }
+      try { WritableMemory.reallocateDirect(WritableMemory.allocate(64), 128); fail(); }
+      catch (IllegalArgumentException e) { /* expected */ }
+      try { WritableMemory.reallocateDirect(wmem, -1); fail(); }
+      catch (IllegalArgumentException e) { /* expected */ }
+      assertTrue(wmem.isAlive());
+    }
+    WritableMemory closed = WritableMemory.allocateDirect(64);
+    closed.close();
+    try { WritableMemory.reallocateDirect(closed, 128); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkDefaultMemoryRequestServerCopies() {
+    MemoryRequestServer svr = new DefaultMemoryRequestServer(true, true);
+    WritableMemory wmem = WritableMemory.allocateDirect(64, ByteOrder.nativeOrder(), svr);
+    wmem.putLong(56, 7L);
+    WritableMemory wmem2 = svr.request(wmem, 128);
+    assertTrue(wmem.isAlive()); //the old memory is readable until requestClose
+    assertEquals(wmem.getLong(56), 7L);
+    assertEquals(wmem2.getLong(56), 7L);
+    assertTrue(wmem2.getMemoryRequestServer() == svr);
+    svr.requestClose(wmem, wmem2);
+    assertFalse(wmem.isAlive());
+    wmem2.close();
+  }
+
+  @Test
+  public void checkDefaultMemoryRequestServerReallocates() {
+    MemoryRequestServer svr = new DefaultMemoryRequestServer(true, true, true);
+    WritableMemory wmem = WritableMemory.allocateDirect(64, ByteOrder.nativeOrder(), new DefaultMemoryRequestServer());
+    wmem.putLong(56, 7L);
+    WritableMemory wmem2 = svr.request(wmem, 128);
+    assertFalse(wmem.isAlive()); //reallocated
+    assertEquals(wmem2.getLong(56), 7L);
+    assertTrue(wmem2.getMemoryRequestServer() == svr);
+    svr.requestClose(wmem, wmem2); //nothing to close
+    wmem2.close();
+  }
+
+  @Test
+  public void checkSharedDirect() throws Exception {
+    final WritableMemory wmem = WritableMemory.allocateDirect(1 << 10);
+    final WritableMemory region = wmem.writableRegion(0, 64);
+    assertFalse(wmem.isShared());
+    final AtomicReference<Throwable> thrown = new AtomicReference<>();
+    final Thread other = new Thread(() -> {
+      try { wmem.close(); } catch (Throwable e) { thrown.set(e); }
+    });
+    other.start();
+    other.join();
+    assertTrue(thrown.get() instanceof IllegalStateException); //confined
+    assertTrue(wmem.isAlive());
+    region.share(); //shares the whole allocation
+    assertTrue(wmem.isShared());
+    final WritableMemory wmem2 = WritableMemory.reallocateDirect(wmem, 1 << 11);
+    assertTrue(wmem2.isShared());
+    final Thread closer = new Thread(wmem2::close);
+    closer.start();
+    closer.join();
+    assertFalse(wmem2.isAlive());
+  }
+
+  @Test
+  public void checkSharedDirectCloseWaitsForScopes() throws Exception {
+    final WritableMemory wmem = WritableMemory.allocateDirect(1 << 10);
+    wmem.share();
+    final CountDownLatch inScope = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Thread reader = new Thread(() -> {
+      try (AccessScope scope = wmem.openScope()) {
+        inScope.countDown();
+        release.await();
+        wmem.putLong(0, wmem.getLong(8)); //still alive
+      } catch (InterruptedException e) { /* ignore */ }
+    });
+    reader.start();
+    inScope.await();
+    final Thread closer = new Thread(wmem::close);
+    closer.start();
+    closer.join(100);
+    assertTrue(closer.isAlive()); //waits for the reader
+    assertTrue(wmem.isAlive());
+    release.countDown();
+    reader.join();
+    closer.join();
+    assertFalse(wmem.isAlive());
+    try { wmem.openScope(); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkCloseInsideOwnScope() {
+    final WritableMemory wmem = WritableMemory.allocateDirect(64);
+    try (AccessScope scope = wmem.openScope()) {
+      try { wmem.close(); fail(); } catch (IllegalStateException e) { /* expected */ }
+      try { WritableMemory.reallocateDirect(wmem, 128); fail(); } catch (IllegalStateException e) { /* expected */ }
+    }
+    wmem.close();
+  }
+
+  @Test
+  public void checkHeapNotShareable() {
+    final WritableMemory wmem = WritableMemory.allocate(64);
+    assertFalse(wmem.isShared());
+    try (AccessScope scope = wmem.openScope()) { wmem.putLong(0, 1L); }
+    try { wmem.share(); fail(); } catch (UnsupportedOperationException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkTransferOwnership() throws Exception {
+    final WritableMemory wmem = WritableMemory.allocateDirect(64);
+    final WritableMemory region = wmem.writableRegion(8, 8);
+    final ExecutorService exec = Executors.newSingleThreadExecutor();
+    try {
+      final Thread worker = exec.submit(Thread::currentThread).get();
+      try { wmem.transferOwnership(null); fail(); } catch (NullPointerException e) { /* expected */ }
+      region.transferOwnership(worker); //covers the whole allocation
+      try { wmem.close(); fail(); } catch (IllegalStateException e) { /* no longer the owner */ }
+      try { wmem.transferOwnership(Thread.currentThread()); fail(); } catch (IllegalStateException e) { /* ok */ }
+      exec.submit(() -> wmem.close()).get();
+      assertFalse(region.isAlive());
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void checkReleaseAndAcquire() throws Exception {
+    final WritableMemory wmem = WritableMemory.allocateDirect(64);
+    try { wmem.acquire(); fail(); } catch (IllegalStateException e) { /* still owned */ }
+    wmem.putLong(0, 42L);
+    wmem.release();
+    try { wmem.close(); fail(); } catch (IllegalStateException e) { /* no owner */ }
+    try { wmem.release(); fail(); } catch (IllegalStateException e) { /* no owner */ }
+    final ExecutorService exec = Executors.newSingleThreadExecutor();
+    try {
+      final long v = exec.submit(() -> {
+        wmem.acquire();
+        final long x = wmem.getLong(0);
+        wmem.release();
+        return x;
+      }).get();
+      assertEquals(v, 42L);
+    } finally {
+      exec.shutdown();
+    }
+    wmem.acquire();
+    wmem.share();
+    try { wmem.release(); fail(); } catch (IllegalStateException e) { /* shared */ }
+    wmem.close();
+    try { WritableMemory.allocate(8).release(); fail(); } catch (UnsupportedOperationException e) { /* heap */ }
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: " + this.getClass().getName());
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.datasketches.memory.BulkOps;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BulkOpsTest {
+  private static final int TASK_BYTES = (int) BulkOps.MIN_TASK_BYTES;
+  private static final int LEN = (17 * TASK_BYTES) + 5; //uneven split
+
+  @BeforeMethod
+  public void setSmallThresholds() {
+    BulkOps.setParallelThresholdBytes(TASK_BYTES);
+    BulkOps.setTaskBytes(TASK_BYTES);
+  }
+
+  @AfterMethod
+  public void resetThresholds() {
+    BulkOps.reset();
+  }
+
+  @Test
+  public void checkCopyHeapToDirect() {
+    byte[] arr = new byte[LEN + 3];
+    for (int i = 0; i < arr.length; i++) { arr[i] = (byte) (i * 31); }
+    Memory src = Memory.wrap(arr);
+    try (WritableMemory dst = WritableMemory.allocateDirect(LEN + 1)) {
+      src.copyToParallel(3, dst, 1, LEN);
+      for (int i = 0; i < LEN; i++) { assertEquals(dst.getByte(i + 1), arr[i + 3]); }
+      assertTrue(dst.equalToParallel(1, src, 3, LEN));
+    }
+  }
+
+  @Test
+  public void checkOverlappingCopy() {
+    byte[] arr = new byte[LEN + 100];
+    for (int i = 0; i < arr.length; i++) { arr[i] = (byte) i; }
+    byte[] expected = arr.clone();
+    System.arraycopy(expected, 0, expected, 100, LEN);
+    WritableMemory wmem = WritableMemory.writableWrap(arr);
+    wmem.copyToParallel(0, wmem, 100, LEN);
+    assertEquals(arr, expected);
+  }
+
+  @Test
+  public void checkFillAndClear() {
+    try (WritableMemory wmem = WritableMemory.allocateDirect(LEN + 2)) {
+      wmem.fill((byte) 7);
+      wmem.fillParallel(1, LEN, (byte) -1);
+      assertEquals(wmem.getByte(0), 7);
+      assertEquals(wmem.getByte(LEN + 1), 7);
+      for (int i = 1; i <= LEN; i++) { assertEquals(wmem.getByte(i), -1); }
+      wmem.clearParallel(1, LEN);
+      for (int i = 1; i <= LEN; i++) { assertEquals(wmem.getByte(i), 0); }
+      assertEquals(wmem.getByte(LEN + 1), 7);
+    }
+  }
+
+  @Test
+  public void checkEqualToFindsAnyDifference() {
+    byte[] arr1 = new byte[LEN];
+    for (int i = 0; i < LEN; i++) { arr1[i] = (byte) (i ^ 0x5A); }
+    for (int pos : new int[] {0, TASK_BYTES - 1, TASK_BYTES, LEN / 2, LEN - 1}) {
+      byte[] arr2 = arr1.clone();
+      arr2[pos]++;
+      assertFalse(Memory.wrap(arr1).equalToParallel(0, Memory.wrap(arr2), 0, LEN));
+      arr2[pos]--;
+      assertTrue(Memory.wrap(arr1).equalToParallel(0, Memory.wrap(arr2), 0, LEN));
+    }
+    assertFalse(Memory.wrap(arr1).equalToParallel(0, null, 0, LEN));
+  }
+
+  @Test
+  public void checkNonNativeAndSmallRanges() {
+    WritableMemory wmem = WritableMemory.allocate(64, ByteOrder.BIG_ENDIAN);
+    wmem.fillParallel(0, 64, (byte) 3); //below the threshold
+    assertEquals(wmem.getByte(63), 3);
+    assertTrue(wmem.equalToParallel(0, wmem, 0, 64));
+    WritableMemory wmem2 = WritableMemory.allocate(64);
+    wmem.copyToParallel(0, wmem2, 0, 64);
+    assertTrue(wmem2.equalToParallel(0, wmem, 0, 64));
+  }
+
+  @Test
+  public void checkSharedDirectInOtherPool() {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(LEN)) {
+      BulkOps.setPool(pool);
+      wmem.share();
+      wmem.fillParallel(0, LEN, (byte) 9);
+      assertEquals(wmem.getByte(LEN - 1), 9);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void checkReadOnlyAndBounds() {
+    Memory mem = Memory.wrap(new byte[LEN]);
+    try { ((WritableMemory) mem).fillParallel(0, LEN, (byte) 1); fail(); } catch (RuntimeException e) { /* ok */ }
+    WritableMemory wmem = WritableMemory.allocate(LEN);
+    try { wmem.fillParallel(1, LEN, (byte) 1); fail(); } catch (RuntimeException e) { /* ok */ }
+    try { mem.copyToParallel(0, wmem, 1, LEN); fail(); } catch (RuntimeException e) { /* ok */ }
+  }
+
+  @Test
+  public void checkConfiguration() {
+    try { BulkOps.setParallelThresholdBytes(0); fail(); } catch (IllegalArgumentException e) { /* expected */ }
+    try { BulkOps.setTaskBytes(BulkOps.MIN_TASK_BYTES - 1); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { BulkOps.setPool(null); fail(); } catch (NullPointerException e) { /* expected */ }
+    BulkOps.reset();
+    assertEquals(BulkOps.getParallelThresholdBytes(), BulkOps.DEFAULT_PARALLEL_THRESHOLD_BYTES);
+    assertEquals(BulkOps.getTaskBytes(), BulkOps.DEFAULT_TASK_BYTES);
+    assertEquals(BulkOps.getPool(), ForkJoinPool.commonPool());
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.MurmurHash3v2;
+import org.apache.datasketches.memory.XxHash;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class CharSequenceHashTest {
+  private static final long SEED = 9001L;
+
+  @Test
+  public void checkMurmurMatchesUtf8Bytes() {
+    final long[] out1 = new long[2];
+    final long[] out2 = new long[2];
+    for (String s : samples()) {
+      if (s.isEmpty()) { continue; }
+      final byte[] bytes = s.getBytes(UTF_8);
+      MurmurHash3v2.hash(Memory.wrap(bytes), 0, bytes.length, SEED, out1);
+      MurmurHash3v2.hash(s, SEED, out2);
+      assertEquals(out2, out1, "length " + s.length());
+      MurmurHash3v2.hash(new StringBuilder(s), SEED, out2);
+      assertEquals(out2, out1, "length " + s.length());
+    }
+  }
+
+  @Test
+  public void checkXxHashUtf8MatchesUtf8Bytes() {
+    for (String s : samples()) {
+      final byte[] bytes = s.getBytes(UTF_8);
+      final long expected = XxHash.hashByteArr(bytes, 0, bytes.length, SEED);
+      assertEquals(XxHash.hashUtf8(s, SEED), expected, "length " + s.length());
+      assertEquals(XxHash.hashUtf8(new StringBuilder(s), SEED), expected, "length " + s.length());
+    }
+  }
+
+  @Test
+  public void checkXxHashCharSequenceMatchesChars() {
+    for (String s : samples()) {
+      final char[] chars = s.toCharArray();
+      final int off = chars.length / 3;
+      final int len = chars.length - off;
+      final long expected = XxHash.hashCharArr(chars, off, len, SEED);
+      assertEquals(XxHash.hashCharSequence(new StringBuilder(s), off, len, SEED), expected);
+      assertEquals(XxHash.hashString(s, off, len, SEED), expected);
+    }
+    try {
+      XxHash.hashCharSequence("abc", 2, 2, SEED);
+      fail();
+    } catch (final MemoryBoundsException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void checkUnpairedSurrogates() {
+    final String[] odd = {"\uD800", "\uDC00", "a\uD800b", "\uDC00\uD800", "😀\uD83D", "x\uDE00😀"};
+    final long[] out1 = new long[2];
+    final long[] out2 = new long[2];
+    for (String s : odd) {
+      final byte[] bytes = s.getBytes(UTF_8);
+      assertEquals(XxHash.hashUtf8(s, SEED), XxHash.hashByteArr(bytes, 0, bytes.length, SEED));
+      MurmurHash3v2.hash(Memory.wrap(bytes), 0, bytes.length, SEED, out1);
+      MurmurHash3v2.hash(s, SEED, out2);
+      assertEquals(out2, out1);
+    }
+  }
+
+  @Test
+  public void checkReentrantCharSequence() {
+    final String s = "outer";
+    final CharSequence reentrant = new CharSequence() {
+      @Override public int length() { return s.length(); }
+      @Override public char charAt(final int index) {
+        XxHash.hashUtf8("inner", SEED); //uses the chunker of this thread while it is open
+        return s.charAt(index);
+      }
+      @Override public CharSequence subSequence(final int start, final int end) { return s.subSequence(start, end); }
+      @Override public String toString() { return s; }
+    };
+    assertEquals(XxHash.hashUtf8(reentrant, SEED), XxHash.hashUtf8(s, SEED));
+  }
+
+  @Test
+  public void checkEmptyOrNullMurmur() {
+    try {
+      MurmurHash3v2.hash((CharSequence) new StringBuilder(), SEED, new long[2]);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      MurmurHash3v2.hash((String) null, SEED, new long[2]);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void checkNoAllocation() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      throw new SkipException("Per-thread allocation counting is not available.");
+    }
+    final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+      throw new SkipException("Per-thread allocation counting is not enabled.");
+    }
+    final long threadId = Thread.currentThread().getId();
+    final String shortStr = "dimension-value-é中😀";
+    final StringBuilder longStr = new StringBuilder();
+    for (int i = 0; i < 300; i++) { longStr.append("中").append(i); }
+    final long[] hashOut = new long[2];
+    final int calls = 10_000;
+    long sink = 0;
+    for (int i = 0; i < calls; i++) { //warm up, which creates the scratch of this thread
+      sink += hashAll(shortStr, longStr, hashOut);
+    }
+    final long before = bean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < calls; i++) {
+      sink += hashAll(shortStr, longStr, hashOut);
+    }
+    final long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+    println("allocated bytes: " + allocated + ", sink: " + sink);
+    //each call to the String.getBytes() paths would allocate at least a byte array, so this tolerates only
+    //the bookkeeping of the allocation counter itself
+    assertTrue(allocated < calls, "allocated " + allocated + " bytes over " + calls + " calls");
+  }
+
+  private static long hashAll(final String shortStr, final CharSequence longStr, final long[] hashOut) {
+    long h = MurmurHash3v2.hash(shortStr, SEED, hashOut)[0];
+    h ^= MurmurHash3v2.hash(longStr, SEED, hashOut)[1];
+    h ^= XxHash.hashUtf8(shortStr, SEED);
+    h ^= XxHash.hashUtf8(longStr, SEED);
+    h ^= XxHash.hashCharSequence(longStr, 0, longStr.length(), SEED);
+    return h;
+  }
+
+  //strings of many lengths that mix 1, 2, 3 and 4-byte UTF-8 sequences and cross chunk boundaries
+  private static String[] samples() {
+    final Random rand = new Random(42);
+    final String[] samples = new String[600];
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = sb.toString();
+      final int kind = rand.nextInt(4);
+      if (kind == 0) { sb.append((char) ('a' + rand.nextInt(26))); }
+      else if (kind == 1) { sb.append((char) (0x80 + rand.nextInt(0x780))); }
+      else if (kind == 2) { sb.append((char) (0x4e00 + rand.nextInt(0x1000))); }
+      else { sb.appendCodePoint(0x1F600 + rand.nextInt(64)); }
+    }
+    return samples;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
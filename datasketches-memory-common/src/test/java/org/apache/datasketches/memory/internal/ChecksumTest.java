@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.RandomBytesForTest.randomBytes;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import org.apache.datasketches.memory.Buffer;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class ChecksumTest {
+
+  @Test
+  public void checkHeap() {
+    final byte[] arr = randomBytes(10_000, 1);
+    final Memory mem = Memory.wrap(arr);
+    checkAll(mem, 0, arr, 0, arr.length);
+    checkAll(mem, 17, arr, 17, 5000);
+    checkAll(mem.region(100, 200), 10, arr, 110, 50);
+    checkAll(mem, 0, arr, 0, 0);
+  }
+
+  @Test
+  public void checkDirectAcrossChunks() {
+    final int len = (int) (2.5 * Util.UNSAFE_COPY_THRESHOLD_BYTES);
+    final byte[] arr = randomBytes(len, 2);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(len)) {
+      wmem.putByteArray(0, arr, 0, len);
+      checkAll(wmem, 0, arr, 0, len);
+      checkAll(wmem, 3, arr, 3, len - 10);
+    }
+  }
+
+  @Test
+  public void checkMapped() throws IOException {
+    final byte[] arr = randomBytes(70_000, 3);
+    final File file = File.createTempFile("checksum", ".bin");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) { out.write(arr); }
+    try (Memory mem = Memory.map(file)) {
+      checkAll(mem, 0, arr, 0, arr.length);
+      checkAll(mem, 999, arr, 999, 60_000);
+    }
+  }
+
+  @Test
+  public void checkNonByteArrayAndByteBuffer() {
+    final long[] longs = new long[3000];
+    final Random rand = new Random(4);
+    for (int i = 0; i < longs.length; i++) { longs[i] = rand.nextLong(); }
+    final Memory mem = Memory.wrap(longs);
+    final byte[] arr = new byte[longs.length * 8];
+    mem.getByteArray(0, arr, 0, arr.length);
+    checkAll(mem, 5, arr, 5, arr.length - 5);
+
+    final ByteBuffer bb = ByteBuffer.allocateDirect(5000).order(ByteOrder.BIG_ENDIAN);
+    bb.put(arr, 0, 5000);
+    checkAll(Memory.wrap(bb), 1, arr, 1, 4999);
+
+    final Buffer buf = Memory.wrap(arr).asBuffer();
+    assertEquals(buf.crc32c(8, 100), expected(new CRC32C(), arr, 8, 100));
+  }
+
+  @Test
+  public void checkUpdateAcrossRanges() {
+    final byte[] arr = randomBytes(1000, 5);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(1000)) {
+      wmem.putByteArray(0, arr, 0, 1000);
+      final CRC32C crc = new CRC32C();
+      Memory.wrap(arr).updateChecksum(0, 400, crc);
+      wmem.updateChecksum(400, 600, crc);
+      assertEquals(crc.getValue(), expected(new CRC32C(), arr, 0, 1000));
+    }
+  }
+
+  @Test
+  public void checkBoundsAndValidity() {
+    final Memory mem = Memory.wrap(new byte[16]);
+    try { mem.crc32c(8, 9); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    final WritableMemory wmem = WritableMemory.allocateDirect(16);
+    wmem.close();
+    try { wmem.crc32(0, 8); fail(); } catch (IllegalStateException e) { /* ok */ }
+  }
+
+  private static void checkAll(final Memory mem, final long offset, final byte[] arr, final int arrOffset,
+      final int len) {
+    assertEquals(mem.crc32c(offset, len), expected(new CRC32C(), arr, arrOffset, len));
+    assertEquals(mem.crc32(offset, len), expected(new CRC32(), arr, arrOffset, len));
+    assertEquals(mem.adler32(offset, len), expected(new Adler32(), arr, arrOffset, len));
+  }
+
+  private static long expected(final Checksum checksum, final byte[] arr, final int offset, final int len) {
+    checksum.update(arr, offset, len);
+    return checksum.getValue();
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
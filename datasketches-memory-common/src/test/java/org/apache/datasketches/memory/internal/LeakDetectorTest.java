@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import org.apache.datasketches.memory.LeakDetector;
+import org.apache.datasketches.memory.LeakDetector.Level;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class LeakDetectorTest {
+
+  @Test
+  public void checkLeakReported() throws InterruptedException {
+    final List<LogRecord> records = new CopyOnWriteArrayList<>();
+    final Handler handler = new Handler() {
+      @Override public void publish(final LogRecord record) { records.add(record); }
+      @Override public void flush() { }
+      @Override public void close() { }
+    };
+    final boolean useParent = LeakDetection.LOG.getUseParentHandlers();
+    LeakDetection.LOG.setUseParentHandlers(false); //keep the test output clean
+    LeakDetection.LOG.addHandler(handler);
+    LeakDetector.setLevel(Level.PARANOID);
+    try {
+      final long leaks0 = LeakDetector.getReportedLeakCount();
+      allocateAndForget();
+      for (int i = 0; (i < 100) && (LeakDetector.getReportedLeakCount() == leaks0); i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      assertTrue(LeakDetector.getReportedLeakCount() > leaks0);
+      boolean found = false;
+      for (final LogRecord rec : records) {
+        for (final StackTraceElement ste : rec.getThrown().getStackTrace()) {
+          if (ste.getMethodName().equals("allocateAndForget")) { found = true; }
+        }
+      }
+      assertTrue(found);
+    } finally {
+      LeakDetector.setLevel(Level.DISABLED);
+      LeakDetection.LOG.removeHandler(handler);
+      LeakDetection.LOG.setUseParentHandlers(useParent);
+    }
+  }
+
+  private static void allocateAndForget() {
+    WritableMemory wmem = WritableMemory.allocateDirect(64);
+    wmem.putLong(0, 1L);
+  }
+
+  @Test
+  public void checkSampling() {
+    try {
+      LeakDetector.setLevel(Level.DISABLED);
+      assertNull(LeakDetection.sample("Direct memory", 8));
+      LeakDetector.setLevel(Level.PARANOID);
+      assertNotNull(LeakDetection.sample("Direct memory", 8));
+      assertEquals(LeakDetection.sample("Direct memory", 8).getMessage(), "Direct memory of 8 bytes");
+      LeakDetector.setLevel(Level.SIMPLE);
+      LeakDetector.setSamplingInterval(1);
+      assertNotNull(LeakDetection.sample("Direct memory", 8));
+      LeakDetector.setSamplingInterval(1 << 30);
+      int sampled = 0;
+      for (int i = 0; i < 100; i++) {
+        if (LeakDetection.sample("Direct memory", 8) != null) { sampled++; }
+      }
+      assertTrue(sampled < 100);
+    } finally {
+      LeakDetector.setLevel(Level.DISABLED);
+      LeakDetector.setSamplingInterval(LeakDetector.DEFAULT_SAMPLING_INTERVAL);
+    }
+  }
+
+  @Test
+  public void checkClosedNotReported() {
+    LeakDetector.setLevel(Level.PARANOID);
+    try {
+      final long leaks0 = LeakDetector.getReportedLeakCount();
+      WritableMemory.allocateDirect(64).close();
+      assertEquals(LeakDetector.getReportedLeakCount(), leaks0);
+    } finally {
+      LeakDetector.setLevel(Level.DISABLED);
+    }
+  }
+
+  @Test
+  public void checkConfig() {
+    assertEquals(LeakDetector.getLevel(), Level.DISABLED);
+    assertEquals(LeakDetector.getSamplingInterval(), LeakDetector.DEFAULT_SAMPLING_INTERVAL);
+    try { LeakDetector.setSamplingInterval(0); fail(); } catch (IllegalArgumentException e) { /* expected */ }
+    try { LeakDetector.setLevel(null); fail(); } catch (NullPointerException e) { /* expected */ }
+    assertEquals(LeakDetector.getSamplingInterval(), LeakDetector.DEFAULT_SAMPLING_INTERVAL);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteOrder;
+
+import org.apache.datasketches.memory.MemoryArena;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class MemoryArenaTest {
+
+  @Test
+  public void checkBumpAllocation() {
+    final WritableMemory a;
+    final WritableMemory b;
+    try (MemoryArena arena = new MemoryArena(1024)) {
+      a = arena.allocate(100);
+      b = arena.allocate(100);
+      assertEquals(arena.getChunkCount(), 1);
+      assertEquals(arena.getAllocatedBytes(), 200);
+      assertEquals(arena.getReservedBytes(), 1024);
+      assertEquals(a.getCumulativeOffset() % 8, 0);
+      assertEquals(b.getCumulativeOffset() % 8, 0);
+      assertTrue(b.getCumulativeOffset() >= a.getCumulativeOffset() + 100);
+      a.fill((byte) 1);
+      b.fill((byte) 2);
+      assertEquals(a.getByte(99), 1);
+      assertEquals(b.getByte(0), 2);
+    }
+    assertFalse(a.isAlive());
+    assertFalse(b.isAlive());
+  }
+
+  @Test
+  public void checkAlignment() {
+    try (MemoryArena arena = new MemoryArena(1 << 16)) {
+      arena.allocate(3, 1, ByteOrder.nativeOrder());
+      for (int align : new int[] {2, 8, 64, 4096}) {
+        WritableMemory wmem = arena.allocate(5, align, ByteOrder.nativeOrder());
+        assertEquals(wmem.getCumulativeOffset() % align, 0);
+      }
+    }
+  }
+
+  @Test
+  public void checkNewChunks() {
+    try (MemoryArena arena = new MemoryArena(256)) {
+      arena.allocate(200);
+      arena.allocate(200); //does not fit in the first chunk
+      assertEquals(arena.getChunkCount(), 2);
+      WritableMemory big = arena.allocate(10_000); //dedicated chunk
+      assertEquals(big.getCapacity(), 10_000);
+      assertEquals(arena.getChunkCount(), 3);
+      arena.allocate(8); //still fits in the second chunk
+      assertEquals(arena.getChunkCount(), 3);
+    }
+  }
+
+  @Test
+  public void checkByteOrder() {
+    try (MemoryArena arena = new MemoryArena()) {
+      WritableMemory wmem = arena.allocate(8, 8, Util.NON_NATIVE_BYTE_ORDER);
+      assertEquals(wmem.getTypeByteOrder(), Util.NON_NATIVE_BYTE_ORDER);
+      wmem.putChar(0, (char) 1);
+      assertEquals(wmem.getChar(0), (char) 1);
+    }
+  }
+
+  @Test
+  public void checkClosed() {
+    MemoryArena arena = new MemoryArena();
+    arena.allocate(8);
+    arena.close();
+    assertFalse(arena.isAlive());
+    try { arena.allocate(8); fail(); } catch (IllegalStateException e) { /* expected */ }
+    try { arena.close(); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkBadArgs() {
+    try { new MemoryArena(0); fail(); } catch (IllegalArgumentException e) { /* expected */ }
+    try (MemoryArena arena = new MemoryArena()) {
+      try { arena.allocate(-1); fail(); } catch (IllegalArgumentException e) { /* expected */ }
+      try { arena.allocate(8, 3, ByteOrder.nativeOrder()); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
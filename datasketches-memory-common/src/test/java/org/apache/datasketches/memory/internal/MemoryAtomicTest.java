@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.ReadOnlyException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class MemoryAtomicTest {
+
+  @Test
+  public void checkHeap() {
+    checkAtomics(WritableMemory.allocate(64));
+    checkAtomics(WritableMemory.allocate(64, Util.NON_NATIVE_BYTE_ORDER));
+    checkAtomics(WritableMemory.writableWrap(new long[8]));
+    checkAtomics(WritableMemory.writableWrap(ByteBuffer.allocate(64)));
+  }
+
+  @Test
+  public void checkDirect() {
+    try (WritableMemory wmem = WritableMemory.allocateDirect(64)) {
+      checkAtomics(wmem);
+      checkAtomics(wmem.writableRegion(8, 32, Util.NON_NATIVE_BYTE_ORDER));
+    }
+  }
+
+  @Test
+  public void checkNonNativeByteOrder() {
+    WritableMemory wmem = WritableMemory.allocate(16, Util.NON_NATIVE_BYTE_ORDER);
+    wmem.putLong(0, 0x0102030405060708L);
+    assertEquals(wmem.getAndAddLong(0, 0x10L), 0x0102030405060708L);
+    assertEquals(wmem.getLong(0), 0x0102030405060718L);
+    assertEquals(wmem.getLongVolatile(0), 0x0102030405060718L);
+    wmem.putInt(8, 0x7FFF_FFFF);
+    assertEquals(wmem.getAndAddInt(8, 1), 0x7FFF_FFFF);
+    assertEquals(wmem.getInt(8), Integer.MIN_VALUE); //carries across bytes in the right order
+    WritableMemory nat = wmem.writableRegion(0, 16, ByteOrder.nativeOrder());
+    assertEquals(nat.getLong(0), Long.reverseBytes(0x0102030405060718L));
+  }
+
+  @Test
+  public void checkConcurrentAdd() throws Exception {
+    final int threads = 4;
+    final int adds = 10_000;
+    final ExecutorService exec = Executors.newFixedThreadPool(threads);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(16)) {
+      wmem.clear();
+      final Future<?>[] futures = new Future<?>[threads];
+      for (int t = 0; t < threads; t++) {
+        futures[t] = exec.submit(() -> {
+          for (int i = 0; i < adds; i++) {
+            wmem.getAndAddLong(0, 1);
+            long v;
+            do { v = wmem.getLongVolatile(8); } while (!wmem.compareAndSetLong(8, v, v + 2));
+          }
+        });
+      }
+      for (Future<?> f : futures) { f.get(); }
+      assertEquals(wmem.getLong(0), (long) threads * adds);
+      assertEquals(wmem.getLong(8), 2L * threads * adds);
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void checkChecks() {
+    WritableMemory wmem = WritableMemory.allocate(16);
+    try { wmem.getAndAddLong(12, 1); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+    try { wmem.getLongVolatile(4); fail(); } catch (IllegalArgumentException e) { /* unaligned */ }
+    try { wmem.compareAndSetInt(2, 0, 1); fail(); } catch (IllegalArgumentException e) { /* unaligned */ }
+    assertTrue(wmem.compareAndSetInt(4, 0, 1)); //ints need only 4 byte alignment
+    try { wmem.writableRegion(1, 8).getAndSetLong(0, 1); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    wmem.putLongRelease(8, 3);
+    try { ((WritableMemory) wmem.region(0, 16)).putLongVolatile(8, 1); fail(); } //read-only view
+    catch (ReadOnlyException e) { /* expected */ }
+    assertEquals(wmem.region(0, 16).getLongVolatile(8), 3); //reads are allowed
+    assertEquals(wmem.getLongAcquire(8), 3);
+    WritableMemory closed = WritableMemory.allocateDirect(8);
+    closed.close();
+    try { closed.getAndAddLong(0, 1); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkWithoutJdkInternalExport() throws Exception {
+    final List<String> cmd = new ArrayList<>();
+    cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      //keep the other exports and opens, drop jdk.internal.misc
+      if (arg.startsWith("--add-") && !arg.contains("jdk.internal.misc")) { cmd.add(arg); }
+    }
+    cmd.add("-cp");
+    cmd.add(System.getProperty("java.class.path"));
+    cmd.add(MemoryAtomicTest.class.getName());
+    final Process proc = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+    final String out = new String(proc.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+    assertEquals(proc.waitFor(), 0, out);
+    assertEquals(out, "OK");
+  }
+
+  /**
+   * Run by {@link #checkWithoutJdkInternalExport()} in a JVM where jdk.internal.misc is not exported.
+   * @param args not used
+   */
+  public static void main(final String[] args) {
+    assertFalse(JdkUnsafe.AVAILABLE);
+    new MemoryAtomicTest().checkHeap();
+    new MemoryAtomicTest().checkDirect();
+    final long[] arr = {1, -2, 0x0102030405060708L};
+    final WritableMemory wmem = WritableMemory.allocate(24, Util.NON_NATIVE_BYTE_ORDER);
+    wmem.putLongArray(0, arr, 0, 3);
+    assertEquals(wmem.getLong(16), 0x0102030405060708L);
+    final long[] back = new long[3];
+    wmem.getLongArray(0, back, 0, 3);
+    assertEquals(back, arr);
+    System.out.println("OK");
+  }
+
+  private static void checkAtomics(final WritableMemory wmem) {
+    wmem.clear();
+    assertEquals(wmem.getAndAddLong(0, 5), 0);
+    assertEquals(wmem.getAndAddLong(0, -2), 5);
+    assertEquals(wmem.getLong(0), 3);
+    assertEquals(wmem.getAndAddInt(8, 7), 0);
+    assertEquals(wmem.getInt(8), 7);
+    assertTrue(wmem.compareAndSetLong(16, 0, 42));
+    assertFalse(wmem.compareAndSetLong(16, 0, 43));
+    assertEquals(wmem.getLong(16), 42);
+    assertTrue(wmem.compareAndSetInt(12, 0, -1));
+    assertFalse(wmem.compareAndSetInt(12, 0, 1));
+    assertEquals(wmem.getInt(12), -1);
+    assertEquals(wmem.getAndSetLong(16, 9), 42);
+    assertEquals(wmem.getLongVolatile(16), 9);
+    wmem.putLongVolatile(24, -7);
+    assertEquals(wmem.getLong(24), -7);
+    wmem.putLongRelease(24, 11);
+    assertEquals(wmem.getLongAcquire(24), 11);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
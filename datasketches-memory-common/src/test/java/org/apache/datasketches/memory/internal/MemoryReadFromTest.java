@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.RandomBytesForTest.randomBytes;
+import static org.apache.datasketches.memory.internal.Util.UNSAFE_COPY_THRESHOLD_BYTES;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.ReadOnlyException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MemoryReadFromTest {
+
+  @Test
+  public void testOnHeap() throws IOException {
+    for (int size : sizes()) {
+      testReadFrom(WritableMemory.allocate(size + 3), size);
+    }
+  }
+
+  @Test
+  public void testOnHeapInts() throws IOException {
+    for (int size : sizes()) {
+      testReadFrom(WritableMemory.writableWrap(new int[(size / 4) + 2]), size);
+    }
+  }
+
+  @Test
+  public void testOffHeap() throws IOException {
+    try (WritableMemory mem = WritableMemory.allocateDirect((UNSAFE_COPY_THRESHOLD_BYTES * 5) + 13)) {
+      for (int size : sizes()) {
+        testReadFrom(mem, size);
+      }
+    }
+  }
+
+  @Test
+  public void testEndOfStream() throws IOException {
+    byte[] bytes = randomBytes((UNSAFE_COPY_THRESHOLD_BYTES * 2) + 5, 1);
+    for (WritableMemory mem : new WritableMemory[] {WritableMemory.allocate(bytes.length + 100),
+        WritableMemory.writableWrap(new long[(bytes.length / 8) + 100]),
+        WritableMemory.allocateDirect(bytes.length + 100)}) {
+      try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes))) {
+        Assert.assertEquals(mem.readFrom(0, bytes.length + 100, in), bytes.length);
+      }
+      Assert.assertTrue(mem.equalTo(0, Memory.wrap(bytes), 0, bytes.length));
+      if (mem.isDirect()) { mem.close(); }
+    }
+  }
+
+  @Test
+  public void testFileChannel() throws IOException {
+    byte[] bytes = randomBytes((UNSAFE_COPY_THRESHOLD_BYTES * 3) + 7, 2);
+    File file = File.createTempFile("readFrom", ".bin");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) { out.write(bytes); }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel in = raf.getChannel();
+        WritableMemory mem = WritableMemory.allocateDirect(bytes.length)) {
+      long len = bytes.length - 1000;
+      Assert.assertEquals(mem.readFrom(10, len, in, 1000), len);
+      Assert.assertTrue(mem.equalTo(10, Memory.wrap(bytes), 1000, len));
+      Assert.assertEquals(in.position(), 0);
+      //past the end of the file
+      Assert.assertEquals(mem.readFrom(0, 100, in, bytes.length - 40), 40);
+      Assert.assertEquals(mem.readFrom(0, 100, in, bytes.length + 1), 0);
+
+      WritableMemory heap = WritableMemory.allocate(5000);
+      Assert.assertEquals(heap.readFrom(0, 5000, in, 77), 5000);
+      Assert.assertTrue(heap.equalTo(0, Memory.wrap(bytes), 77, 5000));
+      try { mem.readFrom(0, 8, in, -1); Assert.fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    }
+  }
+
+  @Test
+  public void testChecks() throws IOException {
+    ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(new byte[16]));
+    try { WritableMemory.allocate(8).readFrom(1, 8, in); Assert.fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    WritableMemory ro = (WritableMemory) Memory.wrap(new byte[8]);
+    try { ro.readFrom(0, 8, in); Assert.fail(); } catch (ReadOnlyException e) { /* ok */ }
+  }
+
+  private static int[] sizes() {
+    return new int[] {0, 7, 1023, 10_000, UNSAFE_COPY_THRESHOLD_BYTES * 5, (UNSAFE_COPY_THRESHOLD_BYTES * 5) + 10};
+  }
+
+  private static void testReadFrom(WritableMemory mem, int size) throws IOException {
+    byte[] bytes = randomBytes(size, size);
+    try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes))) {
+      Assert.assertEquals(mem.readFrom(3, size, in), size);
+    }
+    Assert.assertTrue(mem.equalTo(3, Memory.wrap(bytes), 0, size));
+  }
+}
@@ -24,10 +24,12 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.datasketches.memory.DefaultMemoryRequestServer;
 import org.apache.datasketches.memory.Memory;
@@ -377,6 +379,66 @@ public class MemoryTest {
     assertTrue(wmem.compareTo(0, 0, wmem, len / 2, len / 2) < 0);
   }
 
+  @Test
+  public void checkCompareToMatchesByteLoop() {
+    final Random rand = new Random(1);
+    final int len = 100;
+    try (WritableMemory direct = WritableMemory.allocateDirect(len)) {
+      final WritableMemory heap = WritableMemory.allocate(len + 3);
+      for (int trial = 0; trial < 1000; trial++) {
+        for (int i = 0; i < len; i++) {
+          final byte b = (byte) rand.nextInt(4); //small alphabet so that long prefixes are common
+          direct.putByte(i, b);
+          heap.putByte(i + 3, b);
+        }
+        final int pos = rand.nextInt(len);
+        heap.putByte(pos + 3, (byte) (rand.nextInt(256) - 128)); //includes negative bytes
+        final int len1 = rand.nextInt(len + 1);
+        final int len2 = rand.nextInt(len + 1);
+        assertEquals(direct.compareTo(0, len1, heap, 3, len2), byteLoopCompare(direct, 0, len1, heap, 3, len2));
+        assertEquals(heap.compareTo(3, len2, direct, 0, len1), byteLoopCompare(heap, 3, len2, direct, 0, len1));
+        final long mismatch = direct.mismatch(0, heap, 3, Math.min(len1, len2));
+        final long expected = byteLoopMismatch(direct, 0, heap, 3, Math.min(len1, len2));
+        assertEquals(mismatch, expected);
+      }
+    }
+  }
+
+  @Test
+  public void checkMismatch() {
+    final int len = 3 * 8 + 5;
+    final WritableMemory wmem1 = WritableMemory.allocate(len);
+    final WritableMemory wmem2 = WritableMemory.allocate(len, Util.NON_NATIVE_BYTE_ORDER); //order is irrelevant
+    assertEquals(wmem1.mismatch(0, wmem2, 0, len), -1);
+    assertEquals(wmem1.mismatch(0, wmem1, 0, len), -1);
+    for (int i = 0; i < len; i++) {
+      wmem2.putByte(i, (byte) 1);
+      assertEquals(wmem1.mismatch(0, wmem2, 0, len), i);
+      assertEquals(wmem1.mismatch(0, wmem2, 0, i), -1);
+      assertEquals(wmem1.mismatch(1, wmem2, 1, len - 1), (i == 0) ? -1 : i - 1);
+      wmem2.putByte(i, (byte) 0);
+    }
+    assertEquals(wmem1.mismatch(0, wmem2, 0, 0), -1);
+    try { wmem1.mismatch(1, wmem2, 0, len); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+  }
+
+  private static int byteLoopCompare(final Memory mem1, final long off1, final long len1,
+      final Memory mem2, final long off2, final long len2) {
+    for (long i = 0; i < Math.min(len1, len2); i++) {
+      final int c = Byte.compare(mem1.getByte(off1 + i), mem2.getByte(off2 + i));
+      if (c != 0) { return Integer.signum(c); }
+    }
+    return Long.compare(len1, len2);
+  }
+
+  private static long byteLoopMismatch(final Memory mem1, final long off1, final Memory mem2, final long off2,
+      final long len) {
+    for (long i = 0; i < len; i++) {
+      if (mem1.getByte(off1 + i) != mem2.getByte(off2 + i)) { return i; }
+    }
+    return -1;
+  }
+
   @Test
   public void wrapBigEndianAsLittle() {
     ByteBuffer bb = ByteBuffer.allocate(64);
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.RandomBytesForTest.randomBytes;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.MurmurHash3v2;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+import net.openhft.hashing.LongTupleHashFunction;
+
+public class MurmurHash3v2Test {
+  private static final long SEED = 9001;
+
+  @Test
+  public void checkMatchesReference() {
+    byte[] arr = randomBytes(200, 1);
+    for (int len = 1; len <= arr.length; len++) {
+      long[] out = MurmurHash3v2.hash(Memory.wrap(arr), 0, len, SEED, new long[2]);
+      assertEquals(out, LongTupleHashFunction.murmur_3(SEED).hashBytes(arr, 0, len), "len " + len);
+    }
+  }
+
+  @Test
+  public void checkDirectMatchesHeap() {
+    byte[] arr = randomBytes(300, 2);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(arr.length + 3)) {
+      wmem.putByteArray(3, arr, 0, arr.length);
+      for (int len = 1; len <= arr.length; len++) {
+        assertEquals(MurmurHash3v2.hash(wmem, 3, len, SEED, new long[2]),
+            MurmurHash3v2.hash(Memory.wrap(arr), 0, len, SEED, new long[2]), "len " + len);
+      }
+    }
+  }
+
+  @Test
+  public void checkMappedMatchesHeap() throws IOException {
+    byte[] arr = randomBytes(1000, 3);
+    File file = File.createTempFile("murmur", ".bin");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) { out.write(arr); }
+    try (Memory mem = Memory.map(file)) {
+      assertEquals(MurmurHash3v2.hash(mem, 7, 777, SEED, new long[2]),
+          MurmurHash3v2.hash(Memory.wrap(arr), 7, 777, SEED, new long[2]));
+    }
+  }
+
+  @Test
+  public void checkByteOrderDoesNotChangeHash() {
+    long[] longArr = new Random(4).longs(9).toArray();
+    long[] expected = MurmurHash3v2.hash(longArr, SEED);
+    ByteBuffer bb = ByteBuffer.allocateDirect(longArr.length * Long.BYTES).order(ByteOrder.nativeOrder());
+    bb.asLongBuffer().put(longArr);
+    Memory nonNative = Memory.wrap(bb, Util.NON_NATIVE_BYTE_ORDER);
+    assertEquals(MurmurHash3v2.hash(nonNative, 0, nonNative.getCapacity(), SEED, new long[2]), expected);
+  }
+
+  @Test
+  public void checkBounds() {
+    Memory mem = Memory.wrap(new byte[16]);
+    try { MurmurHash3v2.hash(mem, 8, 9, SEED, new long[2]); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    try { MurmurHash3v2.hash(mem, -1, 4, SEED, new long[2]); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    try { MurmurHash3v2.hash(Memory.wrap(new byte[0]), 0, 0, SEED, new long[2]); fail(); }
+    catch (IllegalArgumentException e) { /* expected */ }
+  }
+
+  @Test
+  public void checkBatchMatchesScalar() {
+    final int count = 29;
+    for (int width = 1; width <= 40; width++) {
+      byte[] arr = randomBytes(3 + (width * count), width);
+      long[] out = new long[2 * count];
+      try (WritableMemory wmem = WritableMemory.allocateDirect(arr.length)) {
+        wmem.putByteArray(0, arr, 0, arr.length);
+        for (Memory mem : new Memory[] {Memory.wrap(arr), wmem}) {
+          MurmurHash3v2.hashBatch(mem, 3, width, count, SEED, out);
+          for (int i = 0; i < count; i++) {
+            long[] expected = MurmurHash3v2.hash(mem, 3 + ((long) i * width), width, SEED, new long[2]);
+            assertEquals(out[2 * i], expected[0], "width " + width + ", key " + i);
+            assertEquals(out[(2 * i) + 1], expected[1], "width " + width + ", key " + i);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void checkBatchArgs() {
+    Memory mem = Memory.wrap(new byte[64]);
+    try { MurmurHash3v2.hashBatch(mem, 8, 8, 8, SEED, new long[16]); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    try { MurmurHash3v2.hashBatch(mem, 0, 8, 8, SEED, new long[15]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { MurmurHash3v2.hashBatch(mem, 0, -1, 8, SEED, new long[16]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+  }
+
+  @Test
+  public void checkHashToIndexes() {
+    Memory mem = Memory.wrap(randomBytes(100, 4));
+    for (long numBuckets : new long[] {1, 7, 1024, Long.MAX_VALUE}) {
+      for (int k : new int[] {1, 2, 5}) {
+        long[] indexes = MurmurHash3v2.hashToIndexes(mem, 3, 50, SEED, numBuckets, new long[k]);
+        long[] hash = MurmurHash3v2.hash(mem, 3, 50, SEED, new long[2]);
+        for (int i = 0; i < k; i++) {
+          final long cubic = (((long) i * i * i) - i) / 6;
+          assertEquals(indexes[i], Long.remainderUnsigned(hash[0] + (i * hash[1]) + cubic, numBuckets));
+          assertTrue((indexes[i] >= 0) && (indexes[i] < numBuckets));
+        }
+      }
+    }
+    //h2 is a multiple of the bucket count, which collapses plain double hashing to a single index,
+    //while the cubic offsets 0, 0, 1, 4 still give three
+    int collapsing = 0;
+    for (int seed = 0; seed < 256; seed++) {
+      long[] hash = MurmurHash3v2.hash(mem, 3, 50, seed, new long[2]);
+      long numBuckets = Long.lowestOneBit(hash[1]);
+      if (numBuckets < 16) { continue; }
+      collapsing++;
+      long[] indexes = MurmurHash3v2.hashToIndexes(mem, 3, 50, seed, numBuckets, new long[4]);
+      assertEquals(Arrays.stream(indexes).distinct().count(), 3);
+    }
+    assertTrue(collapsing > 0);
+    try { MurmurHash3v2.hashToIndexes(mem, 0, 8, SEED, 0, new long[3]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { MurmurHash3v2.hashToIndexes(mem, 0, 8, SEED, 8, new long[0]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
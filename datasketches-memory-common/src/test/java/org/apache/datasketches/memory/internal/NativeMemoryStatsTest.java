@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteOrder;
+
+import org.apache.datasketches.memory.NativeMemoryStats;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class NativeMemoryStatsTest {
+
+  @Test
+  public void checkAllocateAndClose() {
+    //the Cleaner may free a leaked resource of another test at any time, which changes the process-wide counters,
+    //so retry until a measurement was not disturbed by it
+    for (int attempt = 0; attempt < 10; attempt++) {
+      final long cleaned0 = NativeMemoryStats.getCleanerFreedCount();
+      final long bytes0 = NativeMemoryStats.getDirectBytes();
+      final long count0 = NativeMemoryStats.getLiveDirectCount();
+      WritableMemory wmem = WritableMemory.allocateDirect(1000, 64, ByteOrder.nativeOrder(), null);
+      final long allocatedBytes = NativeMemoryStats.getDirectBytes() - bytes0;
+      final long allocatedCount = NativeMemoryStats.getLiveDirectCount() - count0;
+      assertTrue(NativeMemoryStats.getPeakBytes() >= NativeMemoryStats.getCurrentBytes());
+      wmem.close();
+      final long residualBytes = NativeMemoryStats.getDirectBytes() - bytes0;
+      final long residualCount = NativeMemoryStats.getLiveDirectCount() - count0;
+      if (NativeMemoryStats.getCleanerFreedCount() != cleaned0) { continue; }
+      assertEquals(allocatedBytes, 1000 + 63); //includes alignment padding
+      assertEquals(allocatedCount, 1);
+      assertEquals(residualBytes, 0);
+      assertEquals(residualCount, 0);
+      return;
+    }
+    fail("The Cleaner disturbed every measurement.");
+  }
+
+  @Test
+  public void checkPeak() {
+    NativeMemoryStats.resetPeakBytes();
+    final long peak0 = NativeMemoryStats.getPeakBytes();
+    try (WritableMemory wmem = WritableMemory.allocateDirect(1 << 20)) {
+      assertTrue(NativeMemoryStats.getPeakBytes() >= peak0 + (1 << 20));
+    }
+    assertTrue(NativeMemoryStats.getPeakBytes() >= NativeMemoryStats.getCurrentBytes() + (1 << 20));
+    NativeMemoryStats.resetPeakBytes();
+    assertTrue(NativeMemoryStats.getPeakBytes() >= NativeMemoryStats.getCurrentBytes()); //the Cleaner only lowers it
+  }
+
+  @Test
+  public void checkFreedByCleaner() throws InterruptedException {
+    final long count0 = NativeMemoryStats.getLiveDirectCount();
+    final long cleanedCount0 = NativeMemoryStats.getCleanerFreedCount();
+    final long cleanedBytes0 = NativeMemoryStats.getCleanerFreedBytes();
+    allocateAndForget(1024);
+    for (int i = 0; (i < 100) && (NativeMemoryStats.getCleanerFreedCount() == cleanedCount0); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    //other unclosed resources may be reclaimed by the same GC
+    assertTrue(NativeMemoryStats.getCleanerFreedCount() - cleanedCount0 >= 1);
+    assertTrue(NativeMemoryStats.getCleanerFreedBytes() - cleanedBytes0 >= 1024 + 7);
+    assertTrue(NativeMemoryStats.getLiveDirectCount() <= count0);
+  }
+
+  private static void allocateAndForget(final long bytes) {
+    WritableMemory wmem = WritableMemory.allocateDirect(bytes);
+    wmem.putLong(0, 1L);
+  }
+
+  @Test
+  public void checkSummary() {
+    println(NativeMemoryStats.toSummaryString());
+    assertTrue(NativeMemoryStats.toSummaryString().contains("Peak Bytes"));
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
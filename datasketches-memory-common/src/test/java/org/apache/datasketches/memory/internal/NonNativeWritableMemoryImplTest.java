@@ -165,6 +165,39 @@ public class NonNativeWritableMemoryImplTest {
     assertEquals(arr2, arr1);
   }
 
+  @Test
+  public void checkLongArraysOffHeapWithOffsets() {
+    int n = ((1 << 20) / Long.BYTES) + 3; //crosses a copy chunk
+    long[] srcArr = new long[n + 2];
+    for (int i = 0; i < srcArr.length; i++) { srcArr[i] = (i * 0x9E3779B97F4A7C15L) ^ i; }
+    try (WritableMemory wmem1 = WritableMemory.allocateDirect(n * Long.BYTES + 1, ByteOrder.BIG_ENDIAN, null)) {
+      wmem1.putLongArray(1, srcArr, 2, n); //unaligned memory offset, nonzero array offset
+      for (int i = 0; i < n; i++) {
+        assertEquals(wmem1.getLong(1 + (i * Long.BYTES)), srcArr[i + 2]);
+      }
+      long[] dstArr = new long[n + 1];
+      wmem1.getLongArray(1, dstArr, 1, n);
+      for (int i = 0; i < n; i++) { assertEquals(dstArr[i + 1], srcArr[i + 2]); }
+      assertEquals(dstArr[0], 0L);
+    }
+  }
+
+  @Test
+  public void checkDoubleArrayKeepsNaNBits() {
+    long nanBits = 0x7FF0_0000_0000_0001L; //a non-canonical NaN
+    double[] dblArr = { Double.longBitsToDouble(nanBits), -0.0, 1.5 };
+    byte[] arr = new byte[dblArr.length * Double.BYTES];
+    WritableMemory wmem1 = WritableMemory.writableWrap(arr, ByteOrder.BIG_ENDIAN);
+    wmem1.putDoubleArray(0, dblArr, 0, dblArr.length);
+    assertEquals(arr[0], (byte) 0x7F);
+    assertEquals(arr[7], (byte) 1);
+    double[] out = new double[dblArr.length];
+    wmem1.getDoubleArray(0, out, 0, out.length);
+    for (int i = 0; i < out.length; i++) {
+      assertEquals(Double.doubleToRawLongBits(out[i]), Double.doubleToRawLongBits(dblArr[i]));
+    }
+  }
+
   //check Region
   @Test
   public void checkRegion() {
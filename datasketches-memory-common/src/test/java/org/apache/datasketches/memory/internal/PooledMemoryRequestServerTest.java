@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteOrder;
+
+import org.apache.datasketches.memory.PooledMemoryRequestServer;
+import org.apache.datasketches.memory.WritableBuffer;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class PooledMemoryRequestServerTest {
+
+  @Test
+  public void checkSizeClass() {
+    assertEquals(PooledMemoryRequestServer.sizeClass(0), 8);
+    assertEquals(PooledMemoryRequestServer.sizeClass(1), 8);
+    assertEquals(PooledMemoryRequestServer.sizeClass(8), 8);
+    assertEquals(PooledMemoryRequestServer.sizeClass(9), 16);
+    assertEquals(PooledMemoryRequestServer.sizeClass(1000), 1024);
+    assertEquals(PooledMemoryRequestServer.sizeClass(1024), 1024);
+    assertEquals(PooledMemoryRequestServer.sizeClass(1025), 2048);
+  }
+
+  @Test
+  public void checkRecycling() {
+    try (PooledMemoryRequestServer svr = new PooledMemoryRequestServer(1 << 20, true)) {
+      WritableMemory wmem = WritableMemory.allocate(8, ByteOrder.nativeOrder(), svr);
+      wmem.putLong(0, 42L);
+
+      WritableMemory wmem2 = svr.request(wmem, 1000);
+      assertEquals(wmem2.getCapacity(), 1000);
+      assertTrue(wmem2.isDirect());
+      assertEquals(wmem2.getLong(0), 42L);
+      assertEquals(svr.getMissCount(), 1);
+      assertEquals(svr.getHitCount(), 0);
+      svr.requestClose(wmem, wmem2); //heap, nothing to recycle
+
+      WritableMemory wmem3 = svr.request(wmem2, 2000);
+      assertEquals(wmem3.getLong(0), 42L);
+      svr.requestClose(wmem2, wmem3);
+      assertEquals(svr.getRetainedBytes(), 1024); //recycled, not freed
+      assertEquals(svr.getRetainedBytes(1000), 1024);
+
+      WritableMemory wmem4 = svr.request(WritableMemory.allocate(8), 900); //same size class as wmem2
+      assertEquals(svr.getHitCount(), 1);
+      assertEquals(svr.getMissCount(), 2);
+      assertEquals(svr.getRetainedBytes(), 0);
+      svr.requestClose(wmem3, wmem4);
+      svr.requestClose(wmem4, null);
+      assertEquals(svr.getRetainedBytes(), 1024 + 2048);
+    }
+  }
+
+  @Test
+  public void checkUseAfterReturn() {
+    try (PooledMemoryRequestServer svr = new PooledMemoryRequestServer(1 << 20, false)) {
+      WritableMemory wmem = svr.request(WritableMemory.allocate(8), 100);
+      WritableBuffer wbuf = wmem.asWritableBuffer();
+      svr.requestClose(wmem);
+      assertFalse(wmem.isAlive());
+      assertFalse(wbuf.isAlive());
+      try { wmem.getLong(0); fail(); } catch (IllegalStateException e) { /* expected */ }
+      try { wbuf.putLong(0, 1L); fail(); } catch (IllegalStateException e) { /* expected */ }
+
+      WritableMemory wmem2 = svr.request(WritableMemory.allocate(8), 100); //the same block
+      assertEquals(svr.getHitCount(), 1);
+      wmem2.putLong(0, 7L);
+      try { wmem.putLong(0, 1L); fail(); } catch (IllegalStateException e) { /* expected */ }
+      assertEquals(wmem2.getLong(0), 7L);
+      svr.requestClose(wmem); //a second return of a stale region is ignored
+      assertTrue(wmem2.isAlive());
+      svr.requestClose(wmem2);
+    }
+  }
+
+  @Test
+  public void checkRetentionCap() {
+    PooledMemoryRequestServer svr = new PooledMemoryRequestServer(64, false);
+    WritableMemory seed = WritableMemory.allocate(8);
+    WritableMemory a = svr.request(seed, 64);
+    WritableMemory b = svr.request(seed, 64);
+    svr.requestClose(a);
+    svr.requestClose(b);
+    assertFalse(a.isAlive()); //returned to the pool
+    assertFalse(b.isAlive()); //exceeded the per-class cap and freed
+    assertEquals(svr.getRetainedBytes(), 64);
+    svr.close();
+    assertEquals(svr.getRetainedBytes(), 0);
+  }
+
+  @Test
+  public void checkReturnAfterClose() {
+    PooledMemoryRequestServer svr = new PooledMemoryRequestServer(1024, false);
+    WritableMemory wmem = svr.request(WritableMemory.allocate(8), 100);
+    svr.close();
+    svr.requestClose(wmem);
+    assertFalse(wmem.isAlive());
+    assertEquals(svr.getRetainedBytes(), 0);
+  }
+
+  @Test
+  public void checkNonNativeOrder() {
+    try (PooledMemoryRequestServer svr = new PooledMemoryRequestServer(1024, false)) {
+      WritableMemory wmem = svr.request(WritableMemory.allocate(8, Util.NON_NATIVE_BYTE_ORDER), 16);
+      assertEquals(wmem.getTypeByteOrder(), Util.NON_NATIVE_BYTE_ORDER);
+      svr.requestClose(wmem);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkNegativeRetention() {
+    new PooledMemoryRequestServer(-1, false);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkSmallerRequest() {
+    try (PooledMemoryRequestServer svr = new PooledMemoryRequestServer(1024, false)) {
+      svr.request(WritableMemory.allocate(16), 8);
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import java.util.Random;
+
+public class RandomBytesForTest {
+
+  /**
+   * Returns an array of the given length filled with pseudo-random bytes, which are the same for the same seed.
+   * This is only used in test.
+   *
+   * @param length the length of the array
+   * @param seed the seed of the pseudo-random generator
+   * @return an array of pseudo-random bytes
+   */
+  public static byte[] randomBytes(final int length, final long seed) {
+    final byte[] arr = new byte[length];
+    new Random(seed).nextBytes(arr);
+    return arr;
+  }
+
+}
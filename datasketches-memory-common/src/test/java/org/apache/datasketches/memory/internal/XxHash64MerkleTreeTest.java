@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.RandomBytesForTest.randomBytes;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.fail;
+
+
+import org.apache.datasketches.memory.BulkOps;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class XxHash64MerkleTreeTest {
+  private static final long SEED = 12345L;
+
+  @AfterMethod
+  public void resetBulkOps() {
+    BulkOps.reset();
+  }
+
+  @Test
+  public void checkBlocksAndRoot() {
+    final WritableMemory wmem = randomMemory(1000, 1);
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 64, SEED);
+    assertEquals(tree.getBlockCount(), 16);
+    for (int b = 0; b < 16; b++) {
+      final long len = Math.min(64, 1000 - (b * 64L));
+      assertEquals(tree.getBlockHash(b), wmem.xxHash64(b * 64L, len, SEED));
+    }
+    assertEquals(tree.getRoot(), expectedRoot(tree));
+    //a single block is its own root
+    assertEquals(new XxHash64MerkleTree(wmem, 4096, SEED).getRoot(), wmem.xxHash64(0, 1000, SEED));
+  }
+
+  @Test
+  public void checkParallelMatchesSequential() {
+    try (WritableMemory wmem = WritableMemory.allocateDirect(1 << 20)) {
+      wmem.putByteArray(0, randomBytes(1 << 20, 2), 0, 1 << 20);
+      final long sequential = new XxHash64MerkleTree(wmem, 1000, SEED).getRoot();
+      BulkOps.setParallelThresholdBytes(1);
+      BulkOps.setTaskBytes(BulkOps.MIN_TASK_BYTES);
+      final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 1000, SEED);
+      assertEquals(tree.getRoot(), sequential);
+      wmem.putLong(500_000, -1L);
+      tree.markDirty(0, 1 << 20);
+      assertEquals(tree.update(), new XxHash64MerkleTree(wmem, 1000, SEED).getRoot());
+    }
+  }
+
+  @Test
+  public void checkIncrementalUpdate() {
+    final WritableMemory wmem = randomMemory(5000, 3);
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 100, SEED);
+    final long root0 = tree.getRoot();
+    assertEquals(tree.update(), root0); //nothing dirty
+
+    wmem.putByte(4999, (byte) ~wmem.getByte(4999));
+    wmem.putInt(1498, 7); //spans two blocks
+    tree.markDirty(4999, 1);
+    tree.markDirty(1498, 4);
+    assertEquals(tree.getDirtyBlockCount(), 3);
+    final long root1 = tree.update();
+    assertNotEquals(root1, root0);
+    assertEquals(tree.getDirtyBlockCount(), 0);
+    assertEquals(root1, new XxHash64MerkleTree(wmem, 100, SEED).getRoot());
+    assertEquals(tree.verify(), -1);
+  }
+
+  @Test
+  public void checkVerifyFindsUnmarkedChange() {
+    final WritableMemory wmem = randomMemory(3000, 4);
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 256, SEED);
+    wmem.putByte(2100, (byte) ~wmem.getByte(2100));
+    assertEquals(tree.verify(), 8);
+  }
+
+  @Test
+  public void checkPersistence() {
+    final WritableMemory wmem = randomMemory(10_000, 5);
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 512, SEED);
+    final WritableMemory treeMem = WritableMemory.allocate((int) tree.getSerializedSizeBytes() + 8);
+    tree.writeTo(treeMem, 8);
+    final XxHash64MerkleTree restored = XxHash64MerkleTree.readFrom(wmem, treeMem, 8);
+    assertEquals(restored.getRoot(), tree.getRoot());
+    assertEquals(restored.getBlockCount(), tree.getBlockCount());
+    assertEquals(restored.getBlockBytes(), 512);
+    assertEquals(restored.getSeed(), SEED);
+    assertEquals(restored.verify(), -1);
+
+    treeMem.putLong(8 + 40 + 16, 0L); //corrupt a block hash
+    try { XxHash64MerkleTree.readFrom(wmem, treeMem, 8); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { XxHash64MerkleTree.readFrom(wmem.region(0, 9999), treeMem, 8); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+  }
+
+  @Test
+  public void checkBadArgs() {
+    final WritableMemory wmem = randomMemory(100, 6);
+    try { new XxHash64MerkleTree(wmem, 0, SEED); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { new XxHash64MerkleTree(WritableMemory.allocate(0), SEED); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    final XxHash64MerkleTree tree = new XxHash64MerkleTree(wmem, 10, SEED);
+    try { tree.markDirty(90, 11); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    tree.markDirty(50, 0);
+    assertEquals(tree.getDirtyBlockCount(), 0);
+  }
+
+  private static long expectedRoot(final XxHash64MerkleTree tree) {
+    long[] level = new long[tree.getBlockCount()];
+    for (int b = 0; b < level.length; b++) { level[b] = tree.getBlockHash(b); }
+    while (level.length > 1) {
+      final long[] next = new long[(level.length + 1) / 2];
+      for (int i = 0; i < next.length; i++) {
+        final long h = XxHash64.hash(level[2 * i], SEED);
+        next[i] = ((2 * i) + 1 < level.length) ? XxHash64.hash(level[(2 * i) + 1], h) : h;
+      }
+      level = next;
+    }
+    return level[0];
+  }
+
+  private static WritableMemory randomMemory(final int bytes, final long seed) {
+    return WritableMemory.writableWrap(randomBytes(bytes, seed));
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Random;
+
+import org.apache.datasketches.memory.Buffer;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+import net.openhft.hashing.LongHashFunction;
+
+public class XxHash64StreamingTest {
+  private static final long SEED = 0x1234_5678_9ABCL;
+
+  @Test
+  public void checkRandomSplitsMatchOneShot() {
+    Random rand = new Random(1);
+    byte[] arr = new byte[300];
+    rand.nextBytes(arr);
+    XxHash64Streaming hasher = new XxHash64Streaming(SEED);
+    for (int len = 0; len <= arr.length; len++) {
+      final long expected = XxHash64.hashBytes(arr, 0, len, SEED);
+      for (int trial = 0; trial < 5; trial++) {
+        hasher.reset();
+        int off = 0;
+        while (off < len) {
+          int piece = Math.min(len - off, rand.nextInt(70));
+          hasher.update(arr, off, piece);
+          off += piece;
+        }
+        assertEquals(hasher.digest(), expected);
+      }
+    }
+  }
+
+  @Test
+  public void checkMatchesReference() {
+    byte[] arr = new byte[1000];
+    new Random(2).nextBytes(arr);
+    XxHash64Streaming hasher = new XxHash64Streaming(SEED);
+    hasher.update(arr, 0, 333).update(arr, 333, 1).update(arr, 334, 666);
+    assertEquals(hasher.digest(), LongHashFunction.xx(SEED).hashBytes(arr));
+    assertEquals(new XxHash64Streaming().digest(), LongHashFunction.xx(0).hashBytes(new byte[0]));
+  }
+
+  @Test
+  public void checkOffHeapMemoryAndBuffer() {
+    int n = 777;
+    byte[] arr = new byte[n];
+    new Random(3).nextBytes(arr);
+    final long expected = XxHash64.hashBytes(arr, 0, n, SEED);
+    try (WritableMemory wmem = WritableMemory.allocateDirect(n + 5)) {
+      wmem.putByteArray(5, arr, 0, n);
+      XxHash64Streaming hasher = new XxHash64Streaming(SEED);
+      hasher.update(wmem, 5, 100).update(wmem, 105, n - 100);
+      assertEquals(hasher.digest(), expected);
+
+      Buffer buf = wmem.region(5, n).asBuffer();
+      buf.setStartPositionEnd(0, 10, 500);
+      hasher.reset().update(arr, 0, 10).update(buf);
+      assertEquals(buf.getPosition(), 500);
+      buf.setStartPositionEnd(0, 500, n);
+      hasher.update(buf);
+      assertEquals(hasher.digest(), expected);
+    }
+  }
+
+  @Test
+  public void checkDigestDoesNotConsumeState() {
+    byte[] arr = new byte[100];
+    new Random(4).nextBytes(arr);
+    XxHash64Streaming hasher = new XxHash64Streaming(SEED).update(arr, 0, 40);
+    assertEquals(hasher.digest(), XxHash64.hashBytes(arr, 0, 40, SEED));
+    hasher.update(arr, 40, 60);
+    assertEquals(hasher.digest(), XxHash64.hashBytes(arr, 0, 100, SEED));
+    assertEquals(hasher.digest(), hasher.digest());
+  }
+
+  @Test
+  public void checkBounds() {
+    XxHash64Streaming hasher = new XxHash64Streaming();
+    try { hasher.update(new byte[8], 4, 8); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+    try { hasher.update(Memory.wrap(new byte[8]), 1, 8); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -30,13 +30,17 @@ import static org.apache.datasketches.memory.XxHash.hashShortArr;
 import static org.apache.datasketches.memory.XxHash.hashString;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.datasketches.memory.Resource;
 import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
 import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.memory.XxHash;
 import org.testng.annotations.Test;
 
 import net.openhft.hashing.LongHashFunction;
@@ -183,4 +187,65 @@ public class XxHash64Test {
     assertEquals(hash1, hash0);
   }
 
+  @Test
+  public void checkBatchMatchesScalar() {
+    final Random rand = new Random(7);
+    final int count = 37;
+    for (int width = 1; width <= 40; width++) {
+      final byte[] arr = new byte[5 + (width * count)];
+      rand.nextBytes(arr);
+      final long[] out = new long[count];
+      try (WritableMemory wmem = WritableMemory.allocateDirect(arr.length)) {
+        wmem.putByteArray(0, arr, 0, arr.length);
+        for (Memory mem : new Memory[] {Memory.wrap(arr), wmem}) {
+          XxHash.hashBatch(mem, 5, width, count, 123, out);
+          for (int i = 0; i < count; i++) {
+            assertEquals(out[i], mem.xxHash64(5 + ((long) i * width), width, 123), "width " + width + ", key " + i);
+          }
+        }
+      }
+    }
+    final long[] out = new long[4];
+    XxHash.hashBatch(Memory.wrap(new long[] {-1L, 42L}), 0, 8, 2, 0, out);
+    assertEquals(out[0], hashLong(-1L, 0));
+    assertEquals(out[1], hashLong(42L, 0));
+  }
+
+  @Test
+  public void checkBatchArgs() {
+    final Memory mem = Memory.wrap(new byte[64]);
+    final long[] out = new long[8];
+    XxHash.hashBatch(mem, 0, 8, 0, 0, new long[0]);
+    try { XxHash.hashBatch(mem, 0, 8, 9, 0, new long[9]); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+    try { XxHash.hashBatch(mem, 0, 8, 8, 0, new long[7]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { XxHash.hashBatch(mem, 0, 0, 8, 0, out); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { XxHash.hashBatch(mem, 0, 8, -1, 0, out); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+  }
+
+  @Test
+  public void checkSeedsMatchScalar() {
+    final Random rand = new Random(11);
+    final byte[] arr = new byte[140];
+    rand.nextBytes(arr);
+    final long[] seeds = new long[9];
+    for (int j = 0; j < seeds.length; j++) { seeds[j] = rand.nextLong(); }
+    try (WritableMemory wmem = WritableMemory.allocateDirect(arr.length)) {
+      wmem.putByteArray(0, arr, 0, arr.length);
+      for (Memory mem : new Memory[] {Memory.wrap(arr), wmem}) {
+        for (int k : new int[] {1, 3, 9}) {
+          final long[] someSeeds = Arrays.copyOf(seeds, k);
+          final long[] out = new long[k];
+          for (int len = 0; len <= 130; len++) {
+            XxHash.hashSeeds(mem, 7, len, someSeeds, out);
+            for (int j = 0; j < k; j++) {
+              assertEquals(out[j], mem.xxHash64(7, len, someSeeds[j]), "len " + len + ", seed " + j);
+            }
+          }
+        }
+      }
+    }
+    try { XxHash.hashSeeds(Memory.wrap(arr), 0, 8, seeds, new long[8]); fail(); } catch (IllegalArgumentException e) { /* ok */ }
+    try { XxHash.hashSeeds(Memory.wrap(arr), 1, 140, seeds, new long[9]); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+  }
+
 }
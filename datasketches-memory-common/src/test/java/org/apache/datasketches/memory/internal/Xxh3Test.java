@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.datasketches.memory.internal.RandomBytesForTest.randomBytes;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.memory.XxHash;
+import org.apache.datasketches.memory.XxHash3;
+import org.testng.annotations.Test;
+
+import net.openhft.hashing.LongHashFunction;
+import net.openhft.hashing.LongTupleHashFunction;
+
+public class Xxh3Test {
+  private static final int MAX_LEN = 2 * 1024 + 100; //covers every length class and several long blocks
+
+  @Test
+  public void checkReferenceVectors() {
+    //from the reference implementation
+    assertEquals(Xxh3.hashBytes64(new byte[0], 0, 0, 0), 0x2D06800538D394C2L);
+    long[] out = Xxh3.hashBytes128(new byte[0], 0, 0, 0, new long[2]);
+    assertEquals(out[0], 0x6001C324468D497FL);
+    assertEquals(out[1], 0x99AA06D3014798D8L);
+  }
+
+  @Test
+  public void checkSanityVectors() {
+    //XXH3_64bits of the xxHash sanity test buffer, unseeded and seeded with PRIME64,
+    //one or more lengths from each of the 1-3, 4-8, 9-16, 17-128, 129-240 and over 240 byte paths
+    final long prime64 = 0x9E3779B185EBCA8DL;
+    final byte[] buf = sanityBuffer(2367);
+    final long[][] vectors = {
+      {1, 0xC44BDFF4074EECDBL, 0x032BE332DD766EF8L},
+      {6, 0x27B56A84CD2D7325L, 0x84589C116AB59AB9L},
+      {12, 0xA713DAF0DFBB77E7L, 0xE7303E1B2336DE0EL},
+      {24, 0xA3FE70BF9D3510EBL, 0x850E80FC35BDD690L},
+      {48, 0x397DA259ECBA1F11L, 0xADC2CBAA44ACC616L},
+      {80, 0xBCDEFBBB2C47C90AL, 0xC6DD0CB699532E73L},
+      {195, 0xCD94217EE362EC3AL, 0xBA68003D370CB3D9L},
+      {403, 0xCDEB804D65C6DEA4L, 0x6259F6ECFD6443FDL},
+      {512, 0x617E49599013CB6BL, 0x3CE457DE14C27708L},
+      {2048, 0xDD59E2C3A5F038E0L, 0x66F81670669ABABCL},
+      {2367, 0xCB37AEB9E5D361EDL, 0xD2DB3415B942B42AL}
+    };
+    for (long[] v : vectors) {
+      final int len = (int) v[0];
+      assertEquals(Xxh3.hashBytes64(buf, 0, len, 0), v[1], "len " + len);
+      assertEquals(Xxh3.hashBytes64(buf, 0, len, prime64), v[2], "len " + len);
+      assertEquals(Xxh3.hashMemory64(Memory.wrap(buf), 0, len, prime64), v[2], "len " + len);
+    }
+  }
+
+  //the byte generator of the xxHash sanity tests
+  private static byte[] sanityBuffer(final int len) {
+    final byte[] buf = new byte[len];
+    long gen = 2654435761L; //PRIME32_1
+    for (int i = 0; i < len; i++) {
+      buf[i] = (byte) (gen >>> 56);
+      gen *= 0x9E3779B185EBCA8DL; //PRIME64_1
+    }
+    return buf;
+  }
+
+  @Test
+  public void check64MatchesOpenHft() {
+    byte[] arr = randomBytes(MAX_LEN, 1);
+    for (long seed : new long[] {0, 1, 0x9E3779B97F4A7C15L, -1L}) {
+      LongHashFunction ref = LongHashFunction.xx3(seed);
+      for (int len = 0; len <= MAX_LEN; len++) {
+        assertEquals(Xxh3.hashBytes64(arr, 0, len, seed), ref.hashBytes(arr, 0, len), "len " + len);
+      }
+    }
+  }
+
+  @Test
+  public void check128MatchesOpenHft() {
+    byte[] arr = randomBytes(MAX_LEN, 2);
+    long[] out = new long[2];
+    for (long seed : new long[] {0, 1, 0x9E3779B97F4A7C15L, -1L}) {
+      LongTupleHashFunction ref = LongTupleHashFunction.xx128(seed);
+      for (int len = 0; len <= MAX_LEN; len++) {
+        Xxh3.hashBytes128(arr, 0, len, seed, out);
+        assertEquals(out, ref.hashBytes(arr, 0, len), "len " + len);
+      }
+    }
+  }
+
+  @Test
+  public void checkOffHeapAndUnalignedMemory() {
+    int n = 1500;
+    byte[] arr = randomBytes(n, 3);
+    long seed = 42;
+    long[] out = new long[2];
+    try (WritableMemory wmem = WritableMemory.allocateDirect(n + 3)) {
+      wmem.putByteArray(3, arr, 0, n);
+      for (int len : new int[] {0, 3, 7, 16, 17, 100, 128, 129, 240, 241, 1024, 1025, n}) {
+        assertEquals(Xxh3.hashMemory64(wmem, 3, len, seed), Xxh3.hashBytes64(arr, 0, len, seed));
+        Xxh3.hashMemory128(wmem, 3, len, seed, out);
+        assertEquals(out, Xxh3.hashBytes128(arr, 0, len, seed, new long[2]));
+      }
+    }
+  }
+
+  @Test
+  public void checkPrimitiveArrays() {
+    long[] longArr = new Random(4).longs(40).toArray();
+    ByteBuffer bb = ByteBuffer.allocate(longArr.length * Long.BYTES).order(ByteOrder.nativeOrder());
+    bb.asLongBuffer().put(longArr);
+    byte[] bytes = bb.array();
+    assertEquals(Xxh3.hashLongs64(longArr, 1, 30, 7), Xxh3.hashBytes64(bytes, 8, 240, 7));
+    assertEquals(Xxh3.hashInts64(new int[] {1, 2, 3}, 0, 3, 7), Xxh3.hashMemory64(
+        Memory.wrap(new int[] {1, 2, 3}), 0, 12, 7));
+    assertEquals(Xxh3.hashLongs128(longArr, 0, 40, 7, new long[2]),
+        Xxh3.hashBytes128(bytes, 0, 320, 7, new long[2]));
+    assertEquals(Xxh3.hashChars64("abc".toCharArray(), 0, 3, 0),
+        Xxh3.hashShorts64(new short[] {'a', 'b', 'c'}, 0, 3, 0));
+    assertEquals(Xxh3.hashFloats64(new float[] {1.5F}, 0, 1, 0),
+        Xxh3.hashInts64(new int[] {Float.floatToRawIntBits(1.5F)}, 0, 1, 0));
+    assertEquals(Xxh3.hashDoubles64(new double[] {2.5}, 0, 1, 0),
+        Xxh3.hashLongs64(new long[] {Double.doubleToRawLongBits(2.5)}, 0, 1, 0));
+  }
+
+  @Test
+  public void checkHashLong() {
+    Random rand = new Random(5);
+    for (int i = 0; i < 100; i++) {
+      long v = rand.nextLong();
+      long seed = (i < 50) ? 0 : rand.nextLong();
+      byte[] le = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(v).array();
+      assertEquals(Xxh3.hashLong64(v, seed), Xxh3.hashBytes64(le, 0, 8, seed));
+    }
+  }
+
+  @Test
+  public void checkFacade() {
+    byte[] arr = "The quick brown fox jumps over the lazy dog".getBytes(UTF_8);
+    assertEquals(XxHash3.hash64ByteArr(arr, 0, arr.length, 0),
+        LongHashFunction.xx3().hashBytes(arr));
+    assertEquals(XxHash3.hash64(Memory.wrap(arr), 4, 5, 9),
+        LongHashFunction.xx3(9).hashBytes(arr, 4, 5));
+    assertEquals(XxHash3.hash128(Memory.wrap(arr), 0, arr.length, 0, new long[2]),
+        LongTupleHashFunction.xx128().hashBytes(arr));
+    assertEquals(XxHash3.hash64Long(77, 0), Xxh3.hashLong64(77, 0));
+    //not the same function as XxHash64
+    assertEquals(XxHash.hashByteArr(arr, 0, arr.length, 0), LongHashFunction.xx().hashBytes(arr));
+  }
+
+  @Test
+  public void checkBounds() {
+    try { Xxh3.hashBytes64(new byte[8], 4, 8, 0); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+    try { Xxh3.hashMemory64(Memory.wrap(new byte[8]), 1, 8, 0); fail(); } catch (MemoryBoundsException e) { /* ok */ }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
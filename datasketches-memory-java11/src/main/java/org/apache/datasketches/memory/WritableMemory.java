@@ -25,6 +25,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Objects;
 
 import org.apache.datasketches.memory.internal.BaseWritableMemoryImpl;
@@ -148,6 +150,52 @@ public interface WritableMemory extends Memory {
     return BaseWritableMemoryImpl.wrapDirect(capacityBytes, byteOrder, memReqSvr);
   }
 
+  /**
+   * Allocates and provides access to capacityBytes directly in off-heap memory with the given alignment.
+   * The start address of the returned memory, {@link #getCumulativeOffset()}, will be a multiple of the
+   * given alignment. Use 64 to align to a typical cache line, or 4096 to align to a typical page.
+   *
+   * <p><b>NOTE:</b> Off-heap memory acquired may have garbage in it.
+   * It is the responsibility of the using application to clear this memory, if required,
+   * and to call <i>close()</i> when done.</p>
+   *
+   * @param capacityBytes the size of the desired memory in bytes.
+   * @param alignment the alignment in bytes. It must be a power of 2 and greater than one; e.g., 8, 64 or 4096.
+   * @param byteOrder the given <i>ByteOrder</i>.  It must be non-null.
+   * @param memReqSvr A user-specified MemoryRequestServer, which may be null.
+   * This is a callback mechanism for a user client of off-heap memory to request more memory.
+   * @return a WritableMemory for this off-heap resource.
+   */
+  static WritableMemory allocateDirect(
+      final long capacityBytes,
+      final int alignment,
+      final ByteOrder byteOrder,
+      final MemoryRequestServer memReqSvr) {
+    return BaseWritableMemoryImpl.wrapDirect(capacityBytes, alignment, byteOrder, memReqSvr);
+  }
+
+  /**
+   * Resizes the given off-heap memory using native reallocation, which can extend the memory in place or move it
+   * without copying it through the JVM. The contents up to the smaller of the old and new capacities are preserved,
+   * as are the alignment, byte order and MemoryRequestServer.
+   *
+   * <p>On success the given memory, and every region or buffer view of it, is no longer <em>alive</em>,
+   * and the returned memory must be closed instead. On failure the given memory is unchanged.
+   * If the capacity is unchanged the off-heap memory is not reallocated and only moves to the returned memory.</p>
+   *
+   * <p><b>NOTE:</b> If the memory grows, the additional off-heap memory may have garbage in it.</p>
+   *
+   * @param wmem the memory to resize. It must have been returned by one of the <i>allocateDirect(...)</i> methods,
+   * or by this method, and must not be a region or read-only view.
+   * @param newCapacityBytes the new size in bytes.
+   * @return a new WritableMemory for the resized off-heap resource.
+   * @throws IllegalArgumentException if the given memory cannot be reallocated.
+   * @throws IllegalStateException if the given memory is not alive or is accessed from a non-owning thread.
+   */
+  static WritableMemory reallocateDirect(final WritableMemory wmem, final long newCapacityBytes) {
+    return BaseWritableMemoryImpl.reallocateDirect(wmem, newCapacityBytes);
+  }
+
   //REGIONS
   /**
    * A writable region is a writable view of this object.
@@ -565,6 +613,85 @@ public interface WritableMemory extends Memory {
       int srcOffsetShorts, 
       int lengthShorts);
 
+  //ATOMIC AND VOLATILE WRITE METHODS
+  // These are bounds checked once and work for heap, direct and memory-mapped resources in either byte order.
+  // The offset must be naturally aligned, i.e., to 4 bytes for ints and 8 bytes for longs, in the underlying
+  // resource, otherwise an IllegalArgumentException is thrown.
+
+  /**
+   * Atomically adds the given delta to the int value at the given offset.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param delta the amount to add
+   * @return the previous value
+   */
+  int getAndAddInt(
+      long offsetBytes,
+      int delta);
+
+  /**
+   * Atomically adds the given delta to the long value at the given offset.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param delta the amount to add
+   * @return the previous value
+   */
+  long getAndAddLong(
+      long offsetBytes,
+      long delta);
+
+  /**
+   * Atomically sets the int value at the given offset to <i>update</i> if it currently equals <i>expect</i>.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param expect the expected current value
+   * @param update the new value
+   * @return true if successful, false if the current value was not equal to <i>expect</i>.
+   */
+  boolean compareAndSetInt(
+      long offsetBytes,
+      int expect,
+      int update);
+
+  /**
+   * Atomically sets the long value at the given offset to <i>update</i> if it currently equals <i>expect</i>.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param expect the expected current value
+   * @param update the new value
+   * @return true if successful, false if the current value was not equal to <i>expect</i>.
+   */
+  boolean compareAndSetLong(
+      long offsetBytes,
+      long expect,
+      long update);
+
+  /**
+   * Atomically sets the long value at the given offset to the given value.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param newValue the new value
+   * @return the previous value
+   */
+  long getAndSetLong(
+      long offsetBytes,
+      long newValue);
+
+  /**
+   * Puts the long value at the given offset with volatile semantics.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param value the value to put
+   */
+  void putLongVolatile(
+      long offsetBytes,
+      long value);
+
+  /**
+   * Puts the long value at the given offset with release semantics: no earlier read or write of this thread is
+   * reordered after it. This pairs with {@link Memory#getLongAcquire(long)} and is cheaper than
+   * {@link #putLongVolatile(long, long)}.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param value the value to put
+   */
+  void putLongRelease(
+      long offsetBytes,
+      long value);
+
   //OTHER WRITE METHODS
   /**
    * Returns the primitive backing array, otherwise null.
@@ -612,6 +739,67 @@ public interface WritableMemory extends Memory {
       long lengthBytes, 
       byte value);
 
+  /**
+   * Fills a portion of this Memory region to the given byte value like {@link #fill(long, long, byte)},
+   * but splits a range of at least {@link BulkOps#getParallelThresholdBytes()} into tasks that run in the
+   * {@link BulkOps#getPool() pool}.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param lengthBytes the length in bytes
+   * @param value the given byte value
+   * @see BulkOps
+   */
+  void fillParallel(
+      long offsetBytes,
+      long lengthBytes,
+      byte value);
+
+  /**
+   * Clears a portion of this Memory to zero like {@link #clear(long, long)},
+   * but splits a range of at least {@link BulkOps#getParallelThresholdBytes()} into tasks that run in the
+   * {@link BulkOps#getPool() pool}.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param lengthBytes the length in bytes
+   * @see BulkOps
+   */
+  void clearParallel(
+      long offsetBytes,
+      long lengthBytes);
+
+  /**
+   * Reads bytes from the given {@code ReadableByteChannel} into a destination range of this Memory,
+   * until the range is full or the channel reaches end-of-stream. Off-heap and memory-mapped destinations
+   * are read into directly through temporary direct ByteBuffer views, in chunks of at most 1MB,
+   * without a staging copy on the heap.
+   * @param offsetBytes the destination offset for this Memory
+   * @param lengthBytes the number of bytes to read
+   * @param in the source ReadableByteChannel
+   * @return the number of bytes read, which is less than <i>lengthBytes</i> only if the channel reached
+   * end-of-stream.
+   * @throws IOException may occur while reading from the ReadableByteChannel
+   */
+  long readFrom(
+      long offsetBytes,
+      long lengthBytes,
+      ReadableByteChannel in) throws IOException;
+
+  /**
+   * Reads bytes from the given {@code FileChannel}, starting at the given file position, into a destination
+   * range of this Memory, until the range is full or the end of the file is reached, like
+   * {@link #readFrom(long, long, ReadableByteChannel)}. The position of the FileChannel is not changed.
+   * @param offsetBytes the destination offset for this Memory
+   * @param lengthBytes the number of bytes to read
+   * @param in the source FileChannel
+   * @param filePosition the file position of the first byte to read. It must be &ge; 0.
+   * @return the number of bytes read, which is less than <i>lengthBytes</i> only if the end of the file
+   * was reached.
+   * @throws IOException may occur while reading from the FileChannel
+   */
+  long readFrom(
+      long offsetBytes,
+      long lengthBytes,
+      FileChannel in,
+      long filePosition) throws IOException;
+
   /**
    * Sets the bits defined by the bitMask
    * @param offsetBytes offset bytes relative to this Memory start
@@ -30,8 +30,13 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
+import org.apache.datasketches.memory.AccessScope;
+
 import sun.nio.ch.FileChannelImpl;
 
 /**
@@ -92,6 +97,10 @@ final class AllocateDirectWritableMap {
 
   private final Deallocator deallocator;
   private final Cleaner.Cleanable cleanable;
+  private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock(); //read: open scopes, write: close
+  private volatile boolean shared = false;
+  //shared by every view of this allocation, null while released
+  private final AtomicReference<Thread> owner = new AtomicReference<>(Thread.currentThread());
 
   private final File file;
   final long capacityBytes;
@@ -115,30 +124,37 @@ final class AllocateDirectWritableMap {
     raf = mapper(file, fileOffsetBytes, capacityBytes, resourceReadOnly);
     nativeBaseOffset = map(raf.getChannel(), resourceReadOnly, fileOffsetBytes, capacityBytes);
     
-    deallocator = new Deallocator(nativeBaseOffset, capacityBytes, raf);
+    deallocator = new Deallocator(nativeBaseOffset, capacityBytes, raf,
+        LeakDetection.sample("Memory-mapped file " + file.getName(), capacityBytes));
     cleanable = CLEANER.register(this, deallocator);
+    NativeMemoryTracker.onMap(capacityBytes);
   }
 
   public void close() {
+    lockForClose(); //waits for a concurrent loadConcurrently(...) and the open scopes of other threads
     try {
+      deallocator.explicitClose = true;
       cleanable.clean(); //triggers the deallocator and ensures it only runs once
     } catch (final Exception e) {
       throw new IllegalStateException("Attempted close of Memory-Mapped File: " + file.getName() + " " + e);
     } finally {
+      closeLock.writeLock().unlock();
       ResourceImpl.reachabilityFence(this);
     }
   }
 
   public void force() {
-    try {
-      MAPPED_BYTE_BUFFER_FORCE0_METHOD
-          //force0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
-          .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
-              raf.getFD(),
-              nativeBaseOffset,
-              capacityBytes);
-    } catch (final IOException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-      throw new RuntimeException(String.format("Encountered %s exception in force. " + e.toString()));
+    try (AccessScope scope = openScope()) {
+      try {
+        MAPPED_BYTE_BUFFER_FORCE0_METHOD
+            //force0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
+            .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
+                raf.getFD(),
+                nativeBaseOffset,
+                capacityBytes);
+      } catch (final IOException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new RuntimeException(String.format("Encountered %s exception in force. " + e.toString()));
+      }
     }
   }
 
@@ -146,33 +162,170 @@ final class AllocateDirectWritableMap {
     return deallocator.getValid();
   }
 
+  Thread getOwner() {
+    return owner.get();
+  }
+
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    return owner.compareAndSet(expectedOwner, newOwner);
+  }
+
+  boolean isShared() {
+    return shared;
+  }
+
+  void share() {
+    shared = true;
+  }
+
+  /**
+   * Opens a scope during which this mapping cannot be released by a close from another thread.
+   * @return an open scope, which must be closed by the calling thread.
+   */
+  AccessScope openScope() {
+    final Lock readLock = closeLock.readLock();
+    readLock.lock();
+    if (!getValid().get()) {
+      readLock.unlock();
+      throw new IllegalStateException("Memory-Mapped File is closed: " + file.getName());
+    }
+    return readLock::unlock;
+  }
+
   public boolean isLoaded() {
-    try {
-      return (boolean) MAPPED_BYTE_BUFFER_ISLOADED0_METHOD
-          //isLoaded0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
-          .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
-              nativeBaseOffset,
-              capacityBytes,
-              pageCount(capacityBytes));
-    } catch (final  IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-      throw new RuntimeException(
-              String.format("Encountered %s exception while loading", e.getClass()));
+    try (AccessScope scope = openScope()) {
+      try {
+        return (boolean) MAPPED_BYTE_BUFFER_ISLOADED0_METHOD
+            //isLoaded0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
+            .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
+                nativeBaseOffset,
+                capacityBytes,
+                pageCount(capacityBytes));
+      } catch (final  IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new RuntimeException(
+                String.format("Encountered %s exception while loading", e.getClass()));
+      }
     }
   }
 
   public void load() {
-    madvise();
-    // Performance optimization. Read a byte from each page to bring it into memory.
-    final int count = pageCount(capacityBytes);
-    long offset = nativeBaseOffset;
-    for (int i = 0; i < count; i++) {
-      unsafe.getByte(offset);
-      offset += pageSize;
+    try (AccessScope scope = openScope()) {
+      madvise();
+      // Performance optimization. Read a byte from each page to bring it into memory.
+      final int count = pageCount(capacityBytes);
+      long offset = nativeBaseOffset;
+      for (int i = 0; i < count; i++) {
+        unsafe.getByte(offset);
+        offset += pageSize;
+      }
+    }
+  }
+
+  /**
+   * Forces the given range of this mapping to the storage device. The range is widened to whole pages.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   */
+  public void force(final long address, final long lengthBytes) {
+    if (lengthBytes == 0) { return; }
+    try (AccessScope scope = openScope()) {
+      final long start = pageStart(address);
+      try {
+        MAPPED_BYTE_BUFFER_FORCE0_METHOD
+            //force0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
+            .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
+                raf.getFD(),
+                start,
+                (address + lengthBytes) - start);
+      } catch (final IOException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new RuntimeException(String.format("Encountered %s exception in force. " + e.toString()));
+      }
+    }
+  }
+
+  /**
+   * Returns true if the given range of this mapping is likely resident in physical memory.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   * @return true if the given range of this mapping is likely resident in physical memory.
+   */
+  public boolean isLoaded(final long address, final long lengthBytes) {
+    if (lengthBytes == 0) { return true; }
+    try (AccessScope scope = openScope()) {
+      final long start = pageStart(address);
+      final long len = (address + lengthBytes) - start;
+      try {
+        return (boolean) MAPPED_BYTE_BUFFER_ISLOADED0_METHOD
+            //isLoaded0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
+            .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER,
+                start,
+                len,
+                pageCount(len));
+      } catch (final  IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new RuntimeException(
+                String.format("Encountered %s exception while loading", e.getClass()));
+      }
+    }
+  }
+
+  /**
+   * Loads the given range of this mapping into physical memory, touching only the pages of the range.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   */
+  public void load(final long address, final long lengthBytes) {
+    if (lengthBytes == 0) { return; }
+    try (AccessScope scope = openScope()) {
+      final long start = pageStart(address);
+      final long len = (address + lengthBytes) - start;
+      try {
+        MAPPED_BYTE_BUFFER_LOAD0_METHOD
+          //load0 is effectively static, so ZERO_READ_ONLY_DIRECT_BYTE_BUFFER is not modified
+          .invoke(AccessByteBuffer.ZERO_READ_ONLY_DIRECT_BYTE_BUFFER, start, len);
+      } catch (final  IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new RuntimeException(
+            String.format("Encountered %s exception while loading", e.getClass()));
+      }
+      final long end = address + lengthBytes;
+      for (long pageAddress = start; pageAddress < end; pageAddress += pageSize) {
+        unsafe.getByte(pageAddress);
+      }
+    }
+  }
+
+  /**
+   * Loads the given range of this mapping from a thread other than the owner.
+   * A concurrent close waits until this returns, so the mapping cannot be released while it is being read.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   * @return false, without loading, if this mapping has already been closed.
+   */
+  boolean loadConcurrently(final long address, final long lengthBytes) {
+    closeLock.readLock().lock();
+    try {
+      if (!getValid().get()) { return false; }
+      load(address, lengthBytes);
+      return true;
+    } finally {
+      closeLock.readLock().unlock();
     }
   }
 
   // Private methods
 
+  //A thread holding a scope would otherwise wait for itself forever
+  private void lockForClose() {
+    if (closeLock.getReadHoldCount() > 0) {
+      throw new IllegalStateException(
+          "Cannot close Memory-Mapped File while this thread has an open scope on it: " + file.getName());
+    }
+    closeLock.writeLock().lock();
+  }
+
+  private static long pageStart(final long address) {
+    return address & -(long) pageSize;
+  }
+
   private static boolean isFileReadOnly(final File file) {
     return (file.canRead() && !file.canWrite());
   }
@@ -256,12 +409,16 @@ final class AllocateDirectWritableMap {
     private final long actualNativeBaseOffset;
     private final long myCapacity;
     private final StepBoolean valid = new StepBoolean(true);
+    private final LeakDetection.AllocationSite allocationSite; //null if not tracked
+    volatile boolean explicitClose = false; //otherwise unmapped by the Cleaner
 
-    Deallocator(final long nativeBaseOffset, final long capacityBytes, final RandomAccessFile raf) {
+    Deallocator(final long nativeBaseOffset, final long capacityBytes, final RandomAccessFile raf,
+        final LeakDetection.AllocationSite allocationSite) {
       myRaf = raf;
       myFc = myRaf.getChannel();
       actualNativeBaseOffset = nativeBaseOffset;
       myCapacity = capacityBytes;
+      this.allocationSite = allocationSite;
     }
 
     StepBoolean getValid() {
@@ -271,7 +428,12 @@ final class AllocateDirectWritableMap {
     @Override
     public void run() {
       if (valid.change()) {
-        unmap();
+        try {
+          unmap();
+        } finally {
+          NativeMemoryTracker.onUnmap(myCapacity, !explicitClose);
+          if (!explicitClose) { LeakDetection.reportLeak(allocationSite); }
+        }
       }
     }
 
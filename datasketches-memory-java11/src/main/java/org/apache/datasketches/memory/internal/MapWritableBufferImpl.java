@@ -21,6 +21,7 @@ package org.apache.datasketches.memory.internal;
 
 import java.nio.ByteOrder;
 
+import org.apache.datasketches.memory.AccessScope;
 import org.apache.datasketches.memory.WritableBuffer;
 
 /**
@@ -44,10 +45,6 @@ final class MapWritableBufferImpl extends NativeWritableBufferImpl {
     this.capacityBytes = capacityBytes;
     this.typeId = removeNnBuf(typeId) | MAP | BUFFER | NATIVE_BO;
     this.cumOffsetBytes = cumOffsetBytes;
-    if ((this.owner != null) && (this.owner != Thread.currentThread())) {
-      throw new IllegalStateException(THREAD_EXCEPTION_TEXT);
-    }
-    this.owner = Thread.currentThread();
   }
 
   @Override
@@ -104,18 +101,55 @@ final class MapWritableBufferImpl extends NativeWritableBufferImpl {
   @Override
   public void close() {
     checkValid();
-    checkThread(owner);
+    checkOwnerThread();
     dirWMap.close(); //checksValidAndThread
   }
 
+  @Override
+  public boolean isShared() {
+    return dirWMap.isShared();
+  }
+
+  @Override
+  Thread getOwner() {
+    return dirWMap.getOwner();
+  }
+
+  @Override
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    return dirWMap.compareAndSetOwner(expectedOwner, newOwner);
+  }
+
+  @Override
+  public void share() {
+    checkValid();
+    checkThread(getOwner());
+    dirWMap.share();
+  }
+
+  @Override
+  public AccessScope openScope() {
+    checkValid();
+    return dirWMap.openScope();
+  }
+
   @Override
   public void force() {
     checkValid();
-    checkThread(owner);
+    checkOwnerThread();
     checkNotReadOnly();
     dirWMap.force(); //checksValidAndThread
   }
 
+  @Override
+  public void force(final long offsetBytes, final long lengthBytes) {
+    checkValid();
+    checkOwnerThread();
+    checkNotReadOnly();
+    checkBounds(offsetBytes, lengthBytes, capacityBytes);
+    dirWMap.force(cumOffsetBytes + offsetBytes, lengthBytes);
+  }
+
   @Override
   Object getUnsafeObject() {
     return null;
@@ -124,10 +158,18 @@ final class MapWritableBufferImpl extends NativeWritableBufferImpl {
   @Override
   public boolean isLoaded() {
     checkValid();
-    checkThread(owner);
+    checkOwnerThread();
     return dirWMap.isLoaded(); //checksValidAndThread
   }
 
+  @Override
+  public boolean isLoaded(final long offsetBytes, final long lengthBytes) {
+    checkValid();
+    checkOwnerThread();
+    checkBounds(offsetBytes, lengthBytes, capacityBytes);
+    return dirWMap.isLoaded(cumOffsetBytes + offsetBytes, lengthBytes);
+  }
+
   @Override
   public boolean isAlive() {
     return dirWMap.getValid().get();
@@ -136,8 +178,21 @@ final class MapWritableBufferImpl extends NativeWritableBufferImpl {
   @Override
   public void load() {
     checkValid();
-    checkThread(owner);
+    checkOwnerThread();
     dirWMap.load(); //checksValidAndThread
   }
 
+  @Override
+  public void load(final long offsetBytes, final long lengthBytes) {
+    checkValid();
+    checkOwnerThread();
+    checkBounds(offsetBytes, lengthBytes, capacityBytes);
+    dirWMap.load(cumOffsetBytes + offsetBytes, lengthBytes);
+  }
+
+  @Override
+  boolean prefault(final long offsetBytes, final long lengthBytes) {
+    return dirWMap.loadConcurrently(cumOffsetBytes + offsetBytes, lengthBytes);
+  }
+
 }
@@ -21,6 +21,8 @@ package org.apache.datasketches.memory.internal;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -30,8 +32,19 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
+import org.apache.datasketches.memory.AccessScope;
 import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.MemoryBoundsException;
+import org.apache.datasketches.memory.NativeMemoryStats;
+import org.apache.datasketches.memory.PrefaultFuture;
 import org.apache.datasketches.memory.ReadOnlyException;
 import org.apache.datasketches.memory.WritableMemory;
 import org.testng.SkipException;
@@ -64,6 +77,20 @@ public class AllocateDirectWritableMapMemoryTest {
     }
   }
 
+  @Test
+  public void checkNativeMemoryStats() throws Exception {
+    final long bytes0 = NativeMemoryStats.getMapBytes();
+    final long count0 = NativeMemoryStats.getLiveMapCount();
+    final long cleaned0 = NativeMemoryStats.getCleanerFreedCount();
+    try (Memory mem = Memory.map(gettyFile)) {
+      assertEquals(NativeMemoryStats.getMapBytes() - bytes0, mem.getCapacity());
+      assertEquals(NativeMemoryStats.getLiveMapCount() - count0, 1);
+    }
+    assertEquals(NativeMemoryStats.getMapBytes(), bytes0);
+    assertEquals(NativeMemoryStats.getLiveMapCount(), count0);
+    assertEquals(NativeMemoryStats.getCleanerFreedCount(), cleaned0);
+  }
+
   @Test
   public void copyOffHeapToMemoryMappedFile() throws Exception {
     long bytes = 1L << 10; //small for unit tests.  Make it larger than 2GB if you like.
@@ -192,6 +219,206 @@ public class AllocateDirectWritableMapMemoryTest {
     return file;
   }
 
+  @Test
+  public void testRangedForceAndLoad() throws Exception {
+    if (IS_WINDOWS) {
+      throw new SkipException("isLoaded() is unreliable on Windows VMM; skipping test.");
+    }
+    File file = createFile("ranged_force.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final long cap = 1 << 16;
+    try (WritableMemory wMap = WritableMemory.writableMap(file, 0, cap, ByteOrder.nativeOrder())) {
+      WritableMemory region = wMap.writableRegion(20_000, 1000);
+      region.putLong(8, 12345L);
+      region.force(8, 8); //not page aligned
+      region.load(0, 1000);
+      assertTrue(region.isLoaded(0, 1000));
+      wMap.load(cap - 1, 1);
+      wMap.force(0, cap);
+      wMap.force(100, 0);
+      assertTrue(wMap.isLoaded(0, 0));
+      try { region.force(999, 2); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+      try { region.load(-1, 2); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+      try { region.isLoaded(0, 1001); fail(); } catch (MemoryBoundsException e) { /* expected */ }
+      try { wMap.region(0, 8).force(0, 8); fail(); } catch (ReadOnlyException e) { /* expected */ }
+    }
+    try (Memory map = Memory.map(file)) {
+      assertEquals(map.getLong(20_008), 12345L);
+    }
+  }
+
+  @Test
+  public void testRangedNotMapped() {
+    WritableMemory wmem = WritableMemory.allocate(64);
+    try { wmem.force(0, 8); fail(); } catch (UnsupportedOperationException e) { /* expected */ }
+    try { wmem.load(0, 8); fail(); } catch (IllegalStateException e) { /* expected */ }
+    try { wmem.isLoaded(0, 8); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void testLoadAsync() throws Exception {
+    File file = createFile("load_async.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final long cap = 3L << 20;
+    ExecutorService exec = Executors.newSingleThreadExecutor();
+    try (WritableMemory wMap = WritableMemory.writableMap(file, 0, cap, ByteOrder.nativeOrder())) {
+      PrefaultFuture f = wMap.loadAsync(exec);
+      assertNull(f.get());
+      assertTrue(f.isDone());
+      assertEquals(f.getLoadedBytes(), cap);
+      assertEquals(f.getTotalBytes(), cap);
+
+      //hottest ranges first
+      f = wMap.loadAsync(exec, new long[] {2L << 20, 0}, new long[] {100, 4096});
+      f.asCompletionStage().toCompletableFuture().get();
+      assertEquals(f.getLoadedBytes(), cap);
+      assertEquals(f.getTotalBytes(), cap);
+
+      //overlapping and repeated hot ranges are loaded once
+      f = wMap.loadAsync(exec, new long[] {1000, 0, 3000, 1000, cap - 10}, new long[] {4000, 2000, 0, 4000, 10});
+      f.get();
+      assertEquals(f.getLoadedBytes(), cap);
+      assertEquals(f.getTotalBytes(), cap);
+
+      //on a region
+      f = wMap.writableRegion(1000, 5000).loadAsync(exec);
+      f.get();
+      assertEquals(f.getLoadedBytes(), 5000);
+
+      try { wMap.loadAsync(exec, new long[] {cap}, new long[] {1}); fail(); }
+      catch (MemoryBoundsException e) { /* expected */ }
+      try { wMap.loadAsync(exec, new long[] {0}, new long[0]); fail(); }
+      catch (IllegalArgumentException e) { /* expected */ }
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void testLoadAsyncCancelAndClose() throws Exception {
+    File file = createFile("load_async2.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final List<Runnable> pending = new ArrayList<>();
+    final Executor deferred = pending::add;
+
+    WritableMemory wMap = WritableMemory.writableMap(file, 0, 1 << 20, ByteOrder.nativeOrder());
+    PrefaultFuture cancelled = wMap.loadAsync(deferred);
+    assertTrue(cancelled.cancel(false));
+    PrefaultFuture closed = wMap.loadAsync(deferred);
+    wMap.close();
+    for (Runnable r : pending) { r.run(); }
+
+    assertTrue(cancelled.isCancelled());
+    assertEquals(cancelled.getLoadedBytes(), 0);
+    assertTrue(closed.isDone());
+    assertEquals(closed.getLoadedBytes(), 0);
+    try { closed.get(); fail(); }
+    catch (ExecutionException e) { assertTrue(e.getCause() instanceof IllegalStateException); }
+  }
+
+  @Test
+  public void testLoadAsyncNotMapped() {
+    try { WritableMemory.allocate(64).loadAsync(Runnable::run); fail(); }
+    catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void testSharedMap() throws Exception {
+    File file = createFile("shared_map.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final int longs = 1 << 16;
+    final WritableMemory wMap = WritableMemory.writableMap(file, 0, longs << 3, ByteOrder.nativeOrder());
+    for (int i = 0; i < longs; i++) { wMap.putLong(i << 3, i); }
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    try {
+      //confined by default
+      try { exec.submit(() -> wMap.load()).get(); fail(); }
+      catch (ExecutionException e) { assertTrue(e.getCause() instanceof IllegalStateException); }
+      assertFalse(wMap.isShared());
+      try { exec.submit(() -> wMap.share()).get(); fail(); }
+      catch (ExecutionException e) { assertTrue(e.getCause() instanceof IllegalStateException); }
+
+      wMap.share();
+      assertTrue(wMap.isShared());
+      assertTrue(wMap.writableRegion(8, 8).isShared());
+      final long sum = IntStream.range(0, 4).parallel().mapToLong(q -> {
+        final Memory region = wMap.region((long) q * (longs << 1), longs << 1);
+        long s = 0;
+        try (AccessScope scope = region.openScope()) {
+          for (int i = 0; i < (longs >> 2); i++) { s += region.getLong(i << 3); }
+        }
+        return s;
+      }).sum();
+      assertEquals(sum, ((long) longs * (longs - 1)) / 2);
+      exec.submit(() -> { wMap.load(); wMap.force(0, 8); }).get();
+      exec.submit(() -> wMap.close()).get();
+      assertFalse(wMap.isAlive());
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void testSharedMapCloseWaitsForScope() throws Exception {
+    File file = createFile("shared_map_scope.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final WritableMemory wMap = WritableMemory.writableMap(file, 0, 1 << 12, ByteOrder.nativeOrder());
+    wMap.share();
+    final AccessScope scope = wMap.openScope();
+    try { wMap.close(); fail(); } catch (IllegalStateException e) { /* own scope is open */ }
+    final Thread closer = new Thread(wMap::close);
+    closer.start();
+    closer.join(100);
+    assertTrue(closer.isAlive()); //waits for the scope
+    assertTrue(wMap.isAlive());
+    wMap.putLong(0, 1L);
+    scope.close();
+    closer.join();
+    assertFalse(wMap.isAlive());
+    try { wMap.openScope(); fail(); } catch (IllegalStateException e) { /* expected */ }
+  }
+
+  @Test
+  public void testTransferMapOwnership() throws Exception {
+    File file = createFile("transfer_map.bin", "");
+    assertTrue(file.setWritable(true, false));
+    final WritableMemory wMap = WritableMemory.writableMap(file, 0, 1 << 12, ByteOrder.nativeOrder());
+    final Memory region = wMap.region(0, 1 << 11);
+    ExecutorService exec = Executors.newSingleThreadExecutor();
+    try {
+      wMap.putLong(0, 7L);
+      wMap.release();
+      try { region.load(); fail(); } catch (IllegalStateException e) { /* no owner */ }
+      exec.submit(() -> {
+        region.acquire();
+        region.load();
+        wMap.force();
+        region.transferOwnership(Thread.currentThread()); //to itself
+        wMap.release();
+      }).get();
+      region.acquire();
+      assertEquals(region.getLong(0), 7L);
+      wMap.close();
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void testAtomicOnMap() throws Exception {
+    File file = createFile("atomic_map.bin", "");
+    assertTrue(file.setWritable(true, false));
+    try (WritableMemory wMap = WritableMemory.writableMap(file, 0, 64, ByteOrder.nativeOrder())) {
+      wMap.clear();
+      assertEquals(wMap.getAndAddLong(8, 3), 0);
+      assertTrue(wMap.compareAndSetLong(8, 3, 4));
+      assertEquals(wMap.getAndSetLong(8, 5), 4);
+      wMap.putLongRelease(16, 6);
+      assertEquals(wMap.getLongAcquire(16), 6);
+      try { wMap.getLongVolatile(12); fail(); } catch (IllegalArgumentException e) { /* unaligned */ }
+    }
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: " + this.getClass().getName());
@@ -19,7 +19,7 @@
 
 package org.apache.datasketches.memory;
 
-//import java.io.File;
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -68,41 +68,41 @@ public interface Memory extends Resource {
   //Duplicates make no sense here
 
   //MAP
-//  /**
-//   * Maps the given file into <i>Memory</i> for read operations
-//   * Calling this method is equivalent to calling
-//   * {@link #map(File, long, long, ByteOrder)
-//   * map(file, 0, file.length(), ByteOrder.nativeOrder())}.
-//   * @param file the given file to map. It must be non-null with a non-negative length and readable.
-//   * @return <i>Memory</i> for managing the mapped memory.
-//   * @throws IllegalArgumentException if path is not associated with the default file system.
-//   * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
-//   * @throws SecurityException If a security manager is installed and it denies an unspecified permission
-//   * required by the implementation.
-//   */
-//  static Memory map(final File file) throws IOException {
-//    return map(file, 0, file.length(), ByteOrder.nativeOrder());
-//  }
-
-//  /**
-//   * Maps the specified portion of the given file into <i>Memory</i> for read operations.
-//   * @param file the given file to map. It must be non-null, readable and length &ge; 0.
-//   * @param fileOffsetBytes the position in the given file in bytes. It must be &ge; 0.
-//   * @param capacityBytes the size of the mapped memory. It must be &ge; 0.
-//   * @param byteOrder the byte order to be used.  It must be non-null.
-//   * @return <i>Memory</i> for managing the mapped memory.
-//   * @throws IllegalArgumentException if path is not associated with the default file system.
-//   * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
-//   * @throws SecurityException If a security manager is installed and it denies an unspecified permission
-//   * required by the implementation.
-//   */
-//  static Memory map(
-//      final File file, 
-//      final long fileOffsetBytes, 
-//      final long capacityBytes, 
-//      final ByteOrder byteOrder) throws IOException {
-//    return BaseWritableMemoryImpl.wrapMap(file, fileOffsetBytes, capacityBytes, true, byteOrder);
-//  }
+  /**
+   * Maps the given file into <i>Memory</i> for read operations
+   * Calling this method is equivalent to calling
+   * {@link #map(File, long, long, ByteOrder)
+   * map(file, 0, file.length(), ByteOrder.nativeOrder())}.
+   * @param file the given file to map. It must be non-null with a non-negative length and readable.
+   * @return <i>Memory</i> for managing the mapped memory.
+   * @throws IllegalArgumentException if path is not associated with the default file system.
+   * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
+   * @throws SecurityException If a security manager is installed and it denies an unspecified permission
+   * required by the implementation.
+   */
+  static Memory map(final File file) throws IOException {
+    return map(file, 0, file.length(), ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Maps the specified portion of the given file into <i>Memory</i> for read operations.
+   * @param file the given file to map. It must be non-null, readable and length &ge; 0.
+   * @param fileOffsetBytes the position in the given file in bytes. It must be &ge; 0.
+   * @param capacityBytes the size of the mapped memory. It must be &ge; 0.
+   * @param byteOrder the byte order to be used.  It must be non-null.
+   * @return <i>Memory</i> for managing the mapped memory.
+   * @throws IllegalArgumentException if path is not associated with the default file system.
+   * @throws IOException if the specified path does not point to an existing file, or if some other I/O error occurs.
+   * @throws SecurityException If a security manager is installed and it denies an unspecified permission
+   * required by the implementation.
+   */
+  static Memory map(
+      final File file, 
+      final long fileOffsetBytes, 
+      final long capacityBytes, 
+      final ByteOrder byteOrder) throws IOException {
+    return BaseWritableMemoryImpl.wrapMap(file, fileOffsetBytes, capacityBytes, true, byteOrder);
+  }
 
   //NO ALLOCATE OFF-HEAP, makes no sense
 
@@ -399,6 +399,25 @@ public interface Memory extends Resource {
    */
   long getLong(long offsetBytes);
 
+  /**
+   * Gets the long value at the given offset with volatile semantics.
+   * The offset must be aligned to 8 bytes in the underlying resource.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the long at the given offset
+   * @throws IllegalArgumentException if the offset is not aligned to 8 bytes.
+   */
+  long getLongVolatile(long offsetBytes);
+
+  /**
+   * Gets the long value at the given offset with acquire semantics: no later read or write of this thread is
+   * reordered before it. This pairs with {@link WritableMemory#putLongRelease(long, long)}.
+   * The offset must be aligned to 8 bytes in the underlying resource.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the long at the given offset
+   * @throws IllegalArgumentException if the offset is not aligned to 8 bytes.
+   */
+  long getLongAcquire(long offsetBytes);
+
   /**
    * Gets the long array at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -432,7 +451,7 @@ public interface Memory extends Resource {
       int dstOffsetShorts, 
       int lengthShorts);
 
-  //SPECIAL PRIMITIVE READ METHODS: compareTo, copyTo, writeTo
+  //SPECIAL PRIMITIVE READ METHODS: compareTo, mismatch, copyTo, writeTo
 
   /**
    * Compares the bytes of this Memory to <i>that</i> Memory.
@@ -455,6 +474,24 @@ public interface Memory extends Resource {
       long thatOffsetBytes, 
       long thatLengthBytes);
 
+  /**
+   * Returns the offset, relative to <i>thisOffsetBytes</i>, of the first byte that differs between the given
+   * range of this Memory and the range of the same length in <i>that</i> Memory, or -1 if the ranges are equal.
+   * The ranges are compared 8 bytes at a time.
+   * @param thisOffsetBytes the starting offset for <i>this Memory</i>
+   * @param that the other Memory to compare with
+   * @param thatOffsetBytes the starting offset for <i>that Memory</i>
+   * @param lengthBytes the length in bytes of both ranges
+   * @return the relative offset of the first differing byte, or -1 if there is none.
+   * @throws IllegalStateException if either Memory is not <em>alive</em>.
+   * @throws MemoryBoundsException if either range is not within the capacity of its Memory.
+   */
+  long mismatch(
+      long thisOffsetBytes,
+      Memory that,
+      long thatOffsetBytes,
+      long lengthBytes);
+
   /**
    * Copies bytes from a source range of this Memory to a destination range of the given Memory
    * with the same semantics when copying between overlapping ranges of bytes as method
@@ -473,6 +510,40 @@ public interface Memory extends Resource {
       long dstOffsetBytes, 
       long lengthBytes);
 
+  /**
+   * Copies bytes like {@link #copyTo(long, WritableMemory, long, long)}, but splits a range of at least
+   * {@link BulkOps#getParallelThresholdBytes()} into tasks that run in the {@link BulkOps#getPool() pool}.
+   * Overlapping ranges of the same Memory are always copied by the calling thread.
+   * @param srcOffsetBytes the source offset for this Memory
+   * @param destination the destination Memory, which may not be Read-Only.
+   * @param dstOffsetBytes the destination offset
+   * @param lengthBytes the number of bytes to copy
+   * @see BulkOps
+   */
+  void copyToParallel(
+      long srcOffsetBytes,
+      WritableMemory destination,
+      long dstOffsetBytes,
+      long lengthBytes);
+
+  /**
+   * Returns true if the given range of this Memory equals the given range of <i>that</i> Memory,
+   * like {@link #equalTo(long, Resource, long, long)}, but splits a range of at least
+   * {@link BulkOps#getParallelThresholdBytes()} into tasks that run in the {@link BulkOps#getPool() pool}.
+   * The remaining tasks are skipped once any task finds a difference.
+   * @param thisOffsetBytes the starting offset for <i>this Memory</i>
+   * @param that the other Memory to compare with
+   * @param thatOffsetBytes the starting offset for <i>that Memory</i>
+   * @param lengthBytes the length in bytes of both ranges
+   * @return true if both ranges contain the same bytes.
+   * @see BulkOps
+   */
+  boolean equalToParallel(
+      long thisOffsetBytes,
+      Memory that,
+      long thatOffsetBytes,
+      long lengthBytes);
+
   /**
    * Writes bytes from a source range of this Memory to the given {@code WritableByteChannel}.
    * @param offsetBytes the source offset for this Memory
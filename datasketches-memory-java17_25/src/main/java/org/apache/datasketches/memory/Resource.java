@@ -21,6 +21,8 @@ package org.apache.datasketches.memory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.Executor;
+import java.util.zip.Checksum;
 
 /**
  * The base class for Memory and Buffer plus some common static variables and check methods.
@@ -91,8 +93,12 @@ public interface Resource extends AutoCloseable {
    * should be manifest in the client code; a failure in any of these transitions reveals a bug in the underlying
    * application logic.</p>
    *
+   * <p>If this Resource is {@link #isShared() shared}, it may be closed from any thread, and the close waits until
+   * every open {@link #openScope() scope} of this Resource has been closed.</p>
+   *
    * @throws IllegalStateException if this Resource is not <em>alive</em>.
    * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws IllegalStateException if the calling thread has an open scope on this Resource.
    * @throws UnsupportedOperationException if this resource is not {@link AutoCloseable}.
    */
   @Override
@@ -133,30 +139,49 @@ public interface Resource extends AutoCloseable {
       long thatOffsetBytes, 
       long lengthBytes);
 
-//  /**
-//   * Forces any changes made to the contents of this memory-mapped Resource to be written to the storage
-//   * device described by the configured file descriptor.
-//   *
-//   * <p>If the file descriptor associated with this memory-mapped Resource resides on a local storage device then when
-//   * this method returns, it is guaranteed that all changes made to this mapped Resource since it was created, or since
-//   * this method was last invoked, will have been written to that device.</p>
-//   *
-//   * <p>If the file descriptor associated with this memory-mapped Resource does not reside on a local device then no
-//   * such guarantee is made.</p>
-//   *
-//   * <p>If this memory-mapped Resource was not mapped in read/write mode
-//   * ({@link java.nio.channels.FileChannel.MapMode#READ_WRITE}) then invoking this method may have no effect.
-//   * In particular, this method has no effect for files mapped in read-only or private
-//   * mapping modes. This method may or may not have an effect for implementation-specific mapping modes.</p>
-//   *
-//   * @throws IllegalStateException if this Resource is not <em>alive</em>.
-//   * @throws IllegalStateException if this method is not accessed from the owning thread.
-//   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
-//   * @throws ReadOnlyException if this Resource is read-only.
-//   * @throws RuntimeException if there is some other error writing the contents of this
-//   * memory-mapped Resource to the associated storage device.
-//   */
-//  void force();
+  /**
+   * Forces any changes made to the contents of this memory-mapped Resource to be written to the storage
+   * device described by the configured file descriptor.
+   *
+   * <p>If the file descriptor associated with this memory-mapped Resource resides on a local storage device then when
+   * this method returns, it is guaranteed that all changes made to this mapped Resource since it was created, or since
+   * this method was last invoked, will have been written to that device.</p>
+   *
+   * <p>If the file descriptor associated with this memory-mapped Resource does not reside on a local device then no
+   * such guarantee is made.</p>
+   *
+   * <p>If this memory-mapped Resource was not mapped in read/write mode
+   * ({@link java.nio.channels.FileChannel.MapMode#READ_WRITE}) then invoking this method may have no effect.
+   * In particular, this method has no effect for files mapped in read-only or private
+   * mapping modes. This method may or may not have an effect for implementation-specific mapping modes.</p>
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   * @throws ReadOnlyException if this Resource is read-only.
+   * @throws RuntimeException if there is some other error writing the contents of this
+   * memory-mapped Resource to the associated storage device.
+   */
+  void force();
+
+  /**
+   * Forces any changes made to the given range of this memory-mapped Resource to be written to the storage device
+   * containing the mapped file. The range is widened internally to whole pages.
+   * This is much faster than {@link #force()} when only a small part of a large mapping has changed.
+   *
+   * @param offsetBytes the offset in bytes of the start of the range, relative to this Resource.
+   * @param lengthBytes the length in bytes of the range.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   * @throws ReadOnlyException if this Resource is read-only.
+   * @throws MemoryBoundsException if the range is not within the capacity of this Resource.
+   * @throws RuntimeException if there is some other error writing the contents of this
+   * memory-mapped Resource to the associated storage device.
+   * @see #force()
+   */
+  void force(long offsetBytes, long lengthBytes);
 
   /**
    * Gets the capacity of this object in bytes
@@ -238,32 +263,47 @@ public interface Resource extends AutoCloseable {
    */
   boolean isHeap();
 
-//  /**
-//   * Tells whether or not the contents of this memory-mapped Resource is resident in physical memory.
-//   *
-//   * <p>A return value of {@code true} implies that it is highly likely that all of the data in this memory-mapped
-//   * Resource is resident in physical memory and may therefore be accessed without incurring any virtual-memory page
-//   * faults or I/O operations.</p>
-//   *
-//   * <p>A return value of {@code false} does not necessarily imply that all of the data in this memory-mapped Resource
-//   * is not resident in physical memory.</p>
-//   *
-//   * <p>The returned value is a hint, rather than a guarantee, because the underlying operating system may have paged
-//   * out some of this Resource's data by the time that an invocation of this method returns.</p>
-//   *
-//   * @return true if it is likely that all of the data in this memory-mapped Resource is resident in physical memory
-//   *
-//   * @throws IllegalStateException if this Resource is not <em>alive</em>.
-//   * @throws IllegalStateException if this method is not accessed from the owning thread.
-//   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
-//   */
-//  boolean isLoaded();
-
-//  /**
-//   * Returns {@code true} if the backing resource is a memory-mapped file.
-//   * @return {@code true} if the backing resource is a memory-mapped file.
-//   */
-//  boolean isMapped();
+  /**
+   * Tells whether or not the contents of this memory-mapped Resource is resident in physical memory.
+   *
+   * <p>A return value of {@code true} implies that it is highly likely that all of the data in this memory-mapped
+   * Resource is resident in physical memory and may therefore be accessed without incurring any virtual-memory page
+   * faults or I/O operations.</p>
+   *
+   * <p>A return value of {@code false} does not necessarily imply that all of the data in this memory-mapped Resource
+   * is not resident in physical memory.</p>
+   *
+   * <p>The returned value is a hint, rather than a guarantee, because the underlying operating system may have paged
+   * out some of this Resource's data by the time that an invocation of this method returns.</p>
+   *
+   * @return true if it is likely that all of the data in this memory-mapped Resource is resident in physical memory
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   */
+  boolean isLoaded();
+
+  /**
+   * Tells whether or not the given range of this memory-mapped Resource is resident in physical memory.
+   * The range is widened internally to whole pages. As with {@link #isLoaded()}, the returned value is a hint.
+   *
+   * @param offsetBytes the offset in bytes of the start of the range, relative to this Resource.
+   * @param lengthBytes the length in bytes of the range.
+   * @return true if it is likely that all of the data in the given range is resident in physical memory
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   * @throws MemoryBoundsException if the range is not within the capacity of this Resource.
+   */
+  boolean isLoaded(long offsetBytes, long lengthBytes);
+
+  /**
+   * Returns {@code true} if the backing resource is a memory-mapped file.
+   * @return {@code true} if the backing resource is a memory-mapped file.
+   */
+  boolean isMapped();
 
   /**
    * If {@code true}, this is a <i>Memory</i> or <i>WritableMemory</i> instance, which provides the Memory API.
@@ -310,6 +350,84 @@ public interface Resource extends AutoCloseable {
    */
   boolean isSameResource(Resource that);
 
+  /**
+   * Transfers the ownership of this confined direct or memory-mapped Resource, and of every region and buffer
+   * derived from it, from the calling thread to the given thread. Afterwards only the new owner may close, force,
+   * load or query <i>isLoaded</i>. The transfer does not itself make writes by the calling thread visible
+   * to the new owner; hand the Resource over through a safe publication, such as an executor or a queue.
+   *
+   * @param newOwner the new owning thread. It must be non-null.
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws IllegalStateException if this Resource is {@link #isShared() shared}.
+   * @throws UnsupportedOperationException if this Resource is neither direct nor memory-mapped.
+   */
+  void transferOwnership(Thread newOwner);
+
+  /**
+   * Releases the ownership of this confined direct or memory-mapped Resource, and of every region and buffer
+   * derived from it, by the calling thread. Until some thread calls {@link #acquire()}, no thread may close, force,
+   * load or query <i>isLoaded</i>. This allows a Resource to follow a task that migrates between threads when the
+   * next owner is not known in advance.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws IllegalStateException if this Resource is {@link #isShared() shared}.
+   * @throws UnsupportedOperationException if this Resource is neither direct nor memory-mapped.
+   */
+  void release();
+
+  /**
+   * Makes the calling thread the owner of this released direct or memory-mapped Resource, and of every region
+   * and buffer derived from it. Writes made by the releasing thread before {@link #release()} are visible to the
+   * acquiring thread after this returns.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this Resource has not been released, i.e., it still has an owning thread.
+   * @throws IllegalStateException if this Resource is {@link #isShared() shared}.
+   * @throws UnsupportedOperationException if this Resource is neither direct nor memory-mapped.
+   */
+  void acquire();
+
+  /**
+   * Returns true if this direct or memory-mapped Resource has been made shared with {@link #share()}.
+   * @return true if this Resource is shared.
+   */
+  boolean isShared();
+
+  /**
+   * Makes this direct or memory-mapped Resource, and every region and buffer derived from it, shared.
+   * A shared Resource may be read and written, and closed, forced, loaded and queried with <i>isLoaded</i>,
+   * from any thread. It cannot be made confined again.
+   *
+   * <p>Threads other than the one that closes the Resource should bracket their accesses with
+   * {@link #openScope()}, so that a concurrent close waits for them to finish rather than releasing the
+   * memory under them. Accesses made outside of a scope are not protected against a concurrent close.
+   * The positional state of a Buffer is not thread-safe; give each thread its own duplicate or region.</p>
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is neither direct nor memory-mapped.
+   */
+  void share();
+
+  /**
+   * Opens an access scope on this Resource. A close of a direct or memory-mapped Resource, from any thread,
+   * waits until every open scope has been closed. For heap and ByteBuffer resources the scope does nothing.
+   *
+   * <pre>{@code
+   * try (AccessScope scope = mem.openScope()) {
+   *   sum += mem.getLong(offset);
+   * }
+   * }</pre>
+   *
+   * <p>A thread must close its own scopes before it closes the Resource.</p>
+   *
+   * @return an open AccessScope that must be closed by the calling thread.
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   */
+  AccessScope openScope();
+
   /**
    * Returns true if this object is alive and has not been closed.
    * This is relevant only for off-heap memory and memory-mapped Files.
@@ -317,18 +435,64 @@ public interface Resource extends AutoCloseable {
    */
   boolean isAlive();
 
-//  /**
-//   * Loads the contents of this memory-mapped Resource into physical memory.
-//   *
-//   * <p>This method makes a best effort to ensure that, when it returns, this contents of the memory-mapped Resource is
-//   * resident in physical memory. Invoking this method may cause some number of page faults and
-//   * I/O operations to occur.</p>
-//   *
-//   * @throws IllegalStateException if this Resource is not <em>alive</em>.
-//   * @throws IllegalStateException if this method is not accessed from the owning thread.
-//   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
-//   */
-//  void load();
+  /**
+   * Loads the contents of this memory-mapped Resource into physical memory.
+   *
+   * <p>This method makes a best effort to ensure that, when it returns, this contents of the memory-mapped Resource is
+   * resident in physical memory. Invoking this method may cause some number of page faults and
+   * I/O operations to occur.</p>
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   */
+  void load();
+
+  /**
+   * Loads the given range of this memory-mapped Resource into physical memory.
+   * The range is widened internally to whole pages. Only the pages of the range are touched.
+   *
+   * @param offsetBytes the offset in bytes of the start of the range, relative to this Resource.
+   * @param lengthBytes the length in bytes of the range.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws UnsupportedOperationException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   * @throws MemoryBoundsException if the range is not within the capacity of this Resource.
+   */
+  void load(long offsetBytes, long lengthBytes);
+
+  /**
+   * Loads the contents of this memory-mapped Resource into physical memory in the background, using the given
+   * executor, and returns immediately. The owning thread may keep using this Resource while the load runs.
+   *
+   * <p>Closing this Resource while the load runs is safe: the close waits for the chunk being loaded, if any,
+   * and the returned future then completes exceptionally.</p>
+   *
+   * @param executor the executor that runs the load, e.g., a single thread or virtual thread executor.
+   * @return a future that reports the progress of the load and may be used to cancel it.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws IllegalStateException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   */
+  PrefaultFuture loadAsync(Executor executor);
+
+  /**
+   * Loads the contents of this memory-mapped Resource into physical memory in the background, as
+   * {@link #loadAsync(Executor)}, but first loads the given hot ranges in the given order.
+   *
+   * @param executor the executor that runs the load, e.g., a single thread or virtual thread executor.
+   * @param hotOffsets the offsets in bytes of the hot ranges, relative to this Resource, hottest first.
+   * @param hotLengths the lengths in bytes of the hot ranges. It must be the same length as <i>hotOffsets</i>.
+   * @return a future that reports the progress of the load and may be used to cancel it.
+   *
+   * @throws IllegalStateException if this Resource is not <em>alive</em>.
+   * @throws IllegalStateException if this method is not accessed from the owning thread.
+   * @throws IllegalStateException if this Resource is not memory-mapped, e.g. if {@code isMapped() == false}.
+   * @throws MemoryBoundsException if a hot range is not within the capacity of this Resource.
+   */
+  PrefaultFuture loadAsync(Executor executor, long[] hotOffsets, long[] hotLengths);
 
   /**
    * Returns a description of this object with an optional formatted hex string of the data
@@ -379,4 +543,58 @@ public interface Resource extends AutoCloseable {
       long in, 
       long seed);
 
+  /**
+   * Returns the CRC-32C checksum of the sequence of bytes in this object specified by
+   * <i>offsetBytes</i> and <i>lengthBytes</i>. The result is the same as that of {@link java.util.zip.CRC32C}
+   * given the same bytes.
+   *
+   * @param offsetBytes the given offset in bytes to the first byte of the byte sequence.
+   * @param lengthBytes the given length in bytes of the byte sequence.
+   * @return the CRC-32C checksum of the byte sequence.
+   */
+  long crc32c(
+      long offsetBytes,
+      long lengthBytes);
+
+  /**
+   * Returns the CRC-32 checksum of the sequence of bytes in this object specified by
+   * <i>offsetBytes</i> and <i>lengthBytes</i>. The result is the same as that of {@link java.util.zip.CRC32}
+   * given the same bytes.
+   *
+   * @param offsetBytes the given offset in bytes to the first byte of the byte sequence.
+   * @param lengthBytes the given length in bytes of the byte sequence.
+   * @return the CRC-32 checksum of the byte sequence.
+   */
+  long crc32(
+      long offsetBytes,
+      long lengthBytes);
+
+  /**
+   * Returns the Adler-32 checksum of the sequence of bytes in this object specified by
+   * <i>offsetBytes</i> and <i>lengthBytes</i>. The result is the same as that of {@link java.util.zip.Adler32}
+   * given the same bytes.
+   *
+   * @param offsetBytes the given offset in bytes to the first byte of the byte sequence.
+   * @param lengthBytes the given length in bytes of the byte sequence.
+   * @return the Adler-32 checksum of the byte sequence.
+   */
+  long adler32(
+      long offsetBytes,
+      long lengthBytes);
+
+  /**
+   * Updates the given checksum with the sequence of bytes in this object specified by
+   * <i>offsetBytes</i> and <i>lengthBytes</i>, so that a checksum may span several ranges or resources.
+   * Off-heap and memory-mapped bytes are given to the checksum in place through direct ByteBuffer views,
+   * in chunks of at most 1MB, without a copy to the heap.
+   *
+   * @param offsetBytes the given offset in bytes to the first byte of the byte sequence.
+   * @param lengthBytes the given length in bytes of the byte sequence.
+   * @param checksum the given checksum, for example a {@link java.util.zip.CRC32C}.
+   */
+  void updateChecksum(
+      long offsetBytes,
+      long lengthBytes,
+      Checksum checksum);
+
 }
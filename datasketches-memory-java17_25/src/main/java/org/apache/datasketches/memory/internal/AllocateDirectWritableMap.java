@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.memory.internal;
+
+import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.Cleaner;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.datasketches.memory.AccessScope;
+
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * Allocates direct memory used to memory map files for read or write operations.
+ *
+ * <p>The mapping is made with the public {@link FileChannel#map(MapMode, long, long)} and the
+ * {@link MappedByteBuffer} methods <i>load()</i>, <i>isLoaded()</i> and <i>force()</i>.
+ * A single mapping is limited to {@link Integer#MAX_VALUE} bytes, so larger files must be mapped as several
+ * windows with a file offset. The mapping is released deterministically on close with
+ * <i>sun.misc.Unsafe.invokeCleaner(ByteBuffer)</i> rather than waiting for the MappedByteBuffer to be collected.</p>
+ */
+final class AllocateDirectWritableMap {
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final Deallocator deallocator;
+  private final Cleaner.Cleanable cleanable;
+  private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock(); //read: open scopes, write: close
+  private volatile boolean shared = false;
+  //shared by every view of this allocation, null while released
+  private final AtomicReference<Thread> owner = new AtomicReference<>(Thread.currentThread());
+
+  private final File file;
+  private final MappedByteBuffer mbb;
+  final long capacityBytes;
+  final RandomAccessFile raf;
+  final long nativeBaseOffset;
+  final boolean resourceReadOnly;
+
+  AllocateDirectWritableMap(final File file, final long fileOffsetBytes, final long capacityBytes,
+      final boolean localReadOnly) {
+    this.file = file;
+    this.capacityBytes = capacityBytes;
+    resourceReadOnly = isFileReadOnly(file);
+    final long fileLength = file.length();
+
+    if ((localReadOnly || resourceReadOnly) && fileOffsetBytes + capacityBytes > fileLength) {
+      throw new IllegalArgumentException(
+          "Read-only mode and requested map length is greater than current file length: "
+          + "Requested Length = " + (fileOffsetBytes + capacityBytes)
+          + ", Current File Length = " + fileLength);
+    }
+    if (capacityBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A single mapping is limited to Integer.MAX_VALUE bytes. Map larger files as multiple regions: "
+          + capacityBytes);
+    }
+    raf = mapper(file, fileOffsetBytes, capacityBytes, resourceReadOnly);
+    mbb = map(raf, resourceReadOnly, fileOffsetBytes, capacityBytes);
+    nativeBaseOffset = ((DirectBuffer) mbb).address();
+
+    deallocator = new Deallocator(mbb, capacityBytes, raf,
+        LeakDetection.sample("Memory-mapped file " + file.getName(), capacityBytes));
+    cleanable = CLEANER.register(this, deallocator);
+    NativeMemoryTracker.onMap(capacityBytes);
+  }
+
+  public void close() {
+    lockForClose(); //waits for a concurrent loadConcurrently(...) and the open scopes of other threads
+    try {
+      deallocator.explicitClose = true;
+      cleanable.clean(); //triggers the deallocator and ensures it only runs once
+    } catch (final Exception e) {
+      throw new IllegalStateException("Attempted close of Memory-Mapped File: " + file.getName() + " " + e);
+    } finally {
+      closeLock.writeLock().unlock();
+      ResourceImpl.reachabilityFence(this);
+    }
+  }
+
+  public void force() {
+    try (AccessScope scope = openScope()) {
+      mbb.force();
+    }
+  }
+
+  public StepBoolean getValid() {
+    return deallocator.getValid();
+  }
+
+  Thread getOwner() {
+    return owner.get();
+  }
+
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    return owner.compareAndSet(expectedOwner, newOwner);
+  }
+
+  boolean isShared() {
+    return shared;
+  }
+
+  void share() {
+    shared = true;
+  }
+
+  /**
+   * Opens a scope during which this mapping cannot be released by a close from another thread.
+   * @return an open scope, which must be closed by the calling thread.
+   */
+  AccessScope openScope() {
+    final Lock readLock = closeLock.readLock();
+    readLock.lock();
+    if (!getValid().get()) {
+      readLock.unlock();
+      throw new IllegalStateException("Memory-Mapped File is closed: " + file.getName());
+    }
+    return readLock::unlock;
+  }
+
+  public boolean isLoaded() {
+    try (AccessScope scope = openScope()) {
+      return mbb.isLoaded();
+    }
+  }
+
+  public void load() {
+    try (AccessScope scope = openScope()) {
+      mbb.load();
+    }
+  }
+
+  /**
+   * Forces the given range of this mapping to the storage device. The range is widened to whole pages.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   */
+  public void force(final long address, final long lengthBytes) {
+    try (AccessScope scope = openScope()) {
+      mbb.force(index(address), (int) lengthBytes);
+    }
+  }
+
+  /**
+   * Returns true if the given range of this mapping is likely resident in physical memory.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   * @return true if the given range of this mapping is likely resident in physical memory.
+   */
+  public boolean isLoaded(final long address, final long lengthBytes) {
+    try (AccessScope scope = openScope()) {
+      return mbb.slice(index(address), (int) lengthBytes).isLoaded();
+    }
+  }
+
+  /**
+   * Loads the given range of this mapping into physical memory, touching only the pages of the range.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   */
+  public void load(final long address, final long lengthBytes) {
+    try (AccessScope scope = openScope()) {
+      mbb.slice(index(address), (int) lengthBytes).load();
+    }
+  }
+
+  /**
+   * Loads the given range of this mapping from a thread other than the owner.
+   * A concurrent close waits until this returns, so the mapping cannot be released while it is being read.
+   * @param address the native address of the start of the range, which must be within this mapping.
+   * @param lengthBytes the length of the range in bytes.
+   * @return false, without loading, if this mapping has already been closed.
+   */
+  boolean loadConcurrently(final long address, final long lengthBytes) {
+    closeLock.readLock().lock();
+    try {
+      if (!getValid().get()) { return false; }
+      load(address, lengthBytes);
+      return true;
+    } finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  // Private methods
+
+  //A thread holding a scope would otherwise wait for itself forever
+  private void lockForClose() {
+    if (closeLock.getReadHoldCount() > 0) {
+      throw new IllegalStateException(
+          "Cannot close Memory-Mapped File while this thread has an open scope on it: " + file.getName());
+    }
+    closeLock.writeLock().lock();
+  }
+
+  //MappedByteBuffer widens ranges to whole pages internally
+  private int index(final long address) {
+    return (int) (address - nativeBaseOffset);
+  }
+
+  private static boolean isFileReadOnly(final File file) {
+    return (file.canRead() && !file.canWrite());
+  }
+
+  //Does the actual mapping work, resourceReadOnly must already be set
+  private static RandomAccessFile mapper(final File file, final long fileOffset,
+      final long capacityBytes, final boolean resourceReadOnly)  {
+
+    final String mode = resourceReadOnly ? "r" : "rw";
+    final RandomAccessFile raf;
+    try {
+      raf = new RandomAccessFile(file, mode);
+      if (fileOffset + capacityBytes > raf.length()) {
+        raf.setLength(fileOffset + capacityBytes);
+      }
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    return raf;
+  }
+
+  /**
+   * Creates a mapping of the file starting at position and of size length to pages in the OS.
+   * This may throw OutOfMemory error if you have exhausted memory.
+   * @param raf the RandomAccessFile
+   * @param resourceReadOnly true if the mapping is read-only
+   * @param position the offset in bytes into the file
+   * @param lengthBytes the length in bytes
+   * @return the MappedByteBuffer
+   * @throws RuntimeException Encountered an exception while mapping
+   */
+  private static MappedByteBuffer map(final RandomAccessFile raf, final boolean resourceReadOnly,
+      final long position, final long lengthBytes) {
+    final MapMode mapMode = resourceReadOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE;
+    try {
+      return raf.getChannel().map(mapMode, position, lengthBytes);
+    } catch (final IOException e) {
+      try { raf.close(); } catch (final IOException e2) { e.addSuppressed(e2); }
+      throw new RuntimeException("Exception while mapping", e);
+    }
+  }
+
+  // The Deallocator must NOT have a reference to the AllocateDirectWritableMap.
+  // Otherwise, it would block a GC.
+  private static final class Deallocator implements Runnable {
+    private final MappedByteBuffer myMbb;
+    private final RandomAccessFile myRaf;
+    private final long myCapacity;
+    private final StepBoolean valid = new StepBoolean(true);
+    private final LeakDetection.AllocationSite allocationSite; //null if not tracked
+    volatile boolean explicitClose = false; //otherwise unmapped by the Cleaner
+
+    Deallocator(final MappedByteBuffer mbb, final long capacityBytes, final RandomAccessFile raf,
+        final LeakDetection.AllocationSite allocationSite) {
+      myMbb = mbb;
+      myRaf = raf;
+      myCapacity = capacityBytes;
+      this.allocationSite = allocationSite;
+    }
+
+    StepBoolean getValid() {
+      return valid;
+    }
+
+    @Override
+    public void run() {
+      if (valid.change()) {
+        try {
+          unmap();
+        } finally {
+          NativeMemoryTracker.onUnmap(myCapacity, !explicitClose);
+          if (!explicitClose) { LeakDetection.reportLeak(allocationSite); }
+        }
+      }
+    }
+
+    private void unmap() {
+      try {
+        unsafe.invokeCleaner(myMbb);
+        myRaf.close();
+      } catch (final Exception e) {
+        throw new IllegalStateException(String.format("Encountered %s exception while freeing memory", e.getClass()));
+      }
+    }
+  } //End of class Deallocator
+}
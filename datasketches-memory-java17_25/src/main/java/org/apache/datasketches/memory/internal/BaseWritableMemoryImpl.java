@@ -29,10 +29,12 @@ import static org.apache.datasketches.memory.internal.UnsafeUtil.ARRAY_SHORT_IND
 import static org.apache.datasketches.memory.internal.UnsafeUtil.unsafe;
 import static org.apache.datasketches.memory.internal.Util.negativeCheck;
 
-//import java.io.File
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Objects;
 
@@ -111,43 +113,44 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
             abb.offsetBytes, abb.capacityBytes,  typeId, cumOffsetBytes, memReqSvr, byteBuffer);
   }
 
-//  /**
-//   * The static constructor that chooses the correct Map leaf node based on the byte order.
-//   * @param file the file being wrapped.  It must be non-null.
-//   * @param fileOffsetBytes the file offset bytes. It must be &ge; 0.
-//   * @param capacityBytes the requested capacity of the memory mapped region. It must be &ge; 0.
-//   * @param localReadOnly the requested read-only state
-//   * @param byteOrder the requested byte-order. It must be non-null.
-//   * @return this class constructed via the leaf node.
-//   */
-//  public static WritableMemory wrapMap(final File file, final long fileOffsetBytes,
-//      final long capacityBytes, final boolean localReadOnly, final ByteOrder byteOrder) {
-//    Objects.requireNonNull(file, "File must be non-null.");
-//    Util.negativeCheck(fileOffsetBytes, "fileOffsetBytes");
-//    Util.negativeCheck(capacityBytes, "capacityBytes");
-//    Objects.requireNonNull(byteOrder, "ByteOrder must be non-null.");
-//    final AllocateDirectWritableMap dirWMap =
-//        new AllocateDirectWritableMap(file, fileOffsetBytes, capacityBytes, localReadOnly);
-//    final int typeId = (dirWMap.resourceReadOnly || localReadOnly) ? READONLY : 0;
-//    final long cumOffsetBytes = dirWMap.nativeBaseOffset;
-//    final BaseWritableMemoryImpl wmem = Util.isNativeByteOrder(byteOrder)
-//        ? new MapWritableMemoryImpl(
-//            dirWMap,
-//            0L,
-//            capacityBytes,
-//            typeId,
-//            cumOffsetBytes)
-//        : new MapNonNativeWritableMemoryImpl(
-//            dirWMap,
-//            0L,
-//            capacityBytes,
-//            typeId,
-//            cumOffsetBytes);
-//    return wmem;
-//  }
+  /**
+   * The static constructor that chooses the correct Map leaf node based on the byte order.
+   * @param file the file being wrapped.  It must be non-null.
+   * @param fileOffsetBytes the file offset bytes. It must be &ge; 0.
+   * @param capacityBytes the requested capacity of the memory mapped region. It must be &ge; 0.
+   * @param localReadOnly the requested read-only state
+   * @param byteOrder the requested byte-order. It must be non-null.
+   * @return this class constructed via the leaf node.
+   */
+  public static WritableMemory wrapMap(final File file, final long fileOffsetBytes,
+      final long capacityBytes, final boolean localReadOnly, final ByteOrder byteOrder) {
+    Objects.requireNonNull(file, "File must be non-null.");
+    Util.negativeCheck(fileOffsetBytes, "fileOffsetBytes");
+    Util.negativeCheck(capacityBytes, "capacityBytes");
+    Objects.requireNonNull(byteOrder, "ByteOrder must be non-null.");
+    final AllocateDirectWritableMap dirWMap =
+        new AllocateDirectWritableMap(file, fileOffsetBytes, capacityBytes, localReadOnly);
+    final int typeId = (dirWMap.resourceReadOnly || localReadOnly) ? READONLY : 0;
+    final long cumOffsetBytes = dirWMap.nativeBaseOffset;
+    final BaseWritableMemoryImpl wmem = Util.isNativeByteOrder(byteOrder)
+        ? new MapWritableMemoryImpl(
+            dirWMap,
+            0L,
+            capacityBytes,
+            typeId,
+            cumOffsetBytes)
+        : new MapNonNativeWritableMemoryImpl(
+            dirWMap,
+            0L,
+            capacityBytes,
+            typeId,
+            cumOffsetBytes);
+    return wmem;
+  }
 
   /**
    * The static constructor that chooses the correct Direct leaf node based on the byte order.
+   * The allocated memory will be 8-byte aligned.
    * @param capacityBytes the requested capacity for the Direct (off-heap) memory. It must be &ge; 0.
    * @param byteOrder the requested byte order. It must be non-null.
    * @param memReqSvr the requested MemoryRequestServer, which may be null.
@@ -155,9 +158,22 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
    */
   public static WritableMemory wrapDirect(final long capacityBytes,
       final ByteOrder byteOrder, final MemoryRequestServer memReqSvr) {
+    return wrapDirect(capacityBytes, Long.BYTES, byteOrder, memReqSvr);
+  }
+
+  /**
+   * The static constructor that chooses the correct Direct leaf node based on the byte order.
+   * @param capacityBytes the requested capacity for the Direct (off-heap) memory. It must be &ge; 0.
+   * @param alignment the requested alignment of the start address. It must be a power of 2 and greater than one.
+   * @param byteOrder the requested byte order. It must be non-null.
+   * @param memReqSvr the requested MemoryRequestServer, which may be null.
+   * @return this class constructed via the leaf node.
+   */
+  public static WritableMemory wrapDirect(final long capacityBytes, final int alignment,
+      final ByteOrder byteOrder, final MemoryRequestServer memReqSvr) {
     Util.negativeCheck(capacityBytes, "capacityBytes");
     Objects.requireNonNull(byteOrder, "byteOrder must be non-null.");
-    final AllocateDirect direct = new AllocateDirect(capacityBytes, 3);
+    final AllocateDirect direct = new AllocateDirect(capacityBytes, alignment);
     final int typeId = 0; //direct is never read-only on construction
     final long nativeBaseOffset = direct.getAddress();
     final long cumOffsetBytes = nativeBaseOffset;
@@ -179,6 +195,53 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     return wmem;
   }
 
+  /**
+   * Resizes the given direct memory by native reallocation instead of allocating new memory and copying.
+   * @param wmem the direct memory to resize. It must be a writable, whole (non-region) direct allocation.
+   * @param newCapacityBytes the new capacity in bytes. It must be &ge; 0.
+   * @return a new WritableMemory with the byte order and MemoryRequestServer of the given memory.
+   */
+  public static WritableMemory reallocateDirect(final WritableMemory wmem, final long newCapacityBytes) {
+    Objects.requireNonNull(wmem, "wmem must be non-null.");
+    Util.negativeCheck(newCapacityBytes, "newCapacityBytes");
+    if (!isReallocatable(wmem)) {
+      throw new IllegalArgumentException(
+          "Only a writable, whole allocation from allocateDirect(...) can be reallocated.");
+    }
+    final BaseWritableMemoryImpl bwmem = (BaseWritableMemoryImpl) wmem;
+    bwmem.checkValid();
+    bwmem.checkOwnerThread();
+    final AllocateDirect direct = getAllocateDirect(wmem);
+    final AllocateDirect newDirect = direct.reallocate(newCapacityBytes);
+    final int typeId = 0;
+    final long cumOffsetBytes = newDirect.getAddress();
+    final MemoryRequestServer memReqSvr = bwmem.getMemoryRequestServer();
+    return Util.isNativeByteOrder(bwmem.getTypeByteOrder())
+        ? new DirectWritableMemoryImpl(newDirect, 0L, newCapacityBytes, typeId, cumOffsetBytes, memReqSvr)
+        : new DirectNonNativeWritableMemoryImpl(newDirect, 0L, newCapacityBytes, typeId, cumOffsetBytes, memReqSvr);
+  }
+
+  /**
+   * Returns true if the given memory can be passed to {@link #reallocateDirect(WritableMemory, long)}.
+   * @param wmem the given memory
+   * @return true if the given memory is a writable, whole allocation from <i>allocateDirect(...)</i>.
+   */
+  public static boolean isReallocatable(final WritableMemory wmem) {
+    final AllocateDirect direct = getAllocateDirect(wmem);
+    return (direct != null) && !wmem.isReadOnly() && !wmem.isRegionView()
+        && (wmem.getCapacity() == direct.getCapacityBytes());
+  }
+
+  private static AllocateDirect getAllocateDirect(final WritableMemory wmem) {
+    if (wmem instanceof DirectWritableMemoryImpl) {
+      return ((DirectWritableMemoryImpl) wmem).getAllocateDirect();
+    }
+    if (wmem instanceof DirectNonNativeWritableMemoryImpl) {
+      return ((DirectNonNativeWritableMemoryImpl) wmem).getAllocateDirect();
+    }
+    return null;
+  }
+
   //REGIONS
 
   @Override
@@ -283,7 +346,7 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     return unsafe.getShort(getUnsafeObject(), getCumulativeOffset(offsetBytes));
   }
 
-  //OTHER PRIMITIVE READ METHODS: compareTo, copyTo, equals
+  //OTHER PRIMITIVE READ METHODS: compareTo, mismatch, copyTo, copyToParallel, equalToParallel
   @Override
   public final int compareTo(final long thisOffsetBytes, final long thisLengthBytes,
       final Memory thatMem, final long thatOffsetBytes, final long thatLengthBytes) {
@@ -291,6 +354,13 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
         (ResourceImpl)thatMem, thatOffsetBytes, thatLengthBytes);
   }
 
+  @Override
+  public final long mismatch(final long thisOffsetBytes, final Memory thatMem, final long thatOffsetBytes,
+      final long lengthBytes) {
+    return CompareAndCopy.mismatch((ResourceImpl)this, thisOffsetBytes, (ResourceImpl)thatMem, thatOffsetBytes,
+        lengthBytes);
+  }
+
   @Override
   public final void copyTo(final long srcOffsetBytes, final WritableMemory destination,
       final long dstOffsetBytes, final long lengthBytes) {
@@ -298,6 +368,21 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
         dstOffsetBytes, lengthBytes);
   }
 
+  @Override
+  public final void copyToParallel(final long srcOffsetBytes, final WritableMemory destination,
+      final long dstOffsetBytes, final long lengthBytes) {
+    ParallelBulk.copy((ResourceImpl)this, srcOffsetBytes, (ResourceImpl)destination,
+        dstOffsetBytes, lengthBytes);
+  }
+
+  @Override
+  public final boolean equalToParallel(final long thisOffsetBytes, final Memory that,
+      final long thatOffsetBytes, final long lengthBytes) {
+    if (that == null) { return false; }
+    return ParallelBulk.equals((ResourceImpl)this, thisOffsetBytes, (ResourceImpl)that, thatOffsetBytes,
+        lengthBytes);
+  }
+
   @Override
   public final void writeTo(final long offsetBytes, final long lengthBytes, final WritableByteChannel out) 
       throws IOException {
@@ -313,6 +398,21 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     }
   }
 
+  @Override
+  public final long readFrom(final long offsetBytes, final long lengthBytes, final ReadableByteChannel in)
+      throws IOException {
+    Objects.requireNonNull(in, "in must be non-null.");
+    return readFrom(offsetBytes, lengthBytes, (dst, bytesRead) -> in.read(dst));
+  }
+
+  @Override
+  public final long readFrom(final long offsetBytes, final long lengthBytes, final FileChannel in,
+      final long filePosition) throws IOException {
+    Objects.requireNonNull(in, "in must be non-null.");
+    negativeCheck(filePosition, "filePosition");
+    return readFrom(offsetBytes, lengthBytes, (dst, bytesRead) -> in.read(dst, filePosition + bytesRead));
+  }
+
   //PRIMITIVE putX() and putXArray() implementations
   @Override
   public final void putBoolean(final long offsetBytes, final boolean value) {
@@ -362,6 +462,22 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     unsafe.putShort(getUnsafeObject(), getCumulativeOffset(offsetBytes), value);
   }
 
+  //ATOMIC AND VOLATILE METHODS (used by both endians)
+  //Checks once and returns the cumulative offset of an atomic access, which must be naturally aligned
+  final long atomicOffset(final long offsetBytes, final int widthBytes, final boolean write) {
+    if (write) {
+      checkValidAndBoundsForWrite(offsetBytes, widthBytes);
+    } else {
+      checkValidAndBounds(offsetBytes, widthBytes);
+    }
+    final long cumOffset = getCumulativeOffset(offsetBytes);
+    if ((cumOffset & (widthBytes - 1)) != 0) {
+      throw new IllegalArgumentException(
+          "Atomic and volatile accesses must be aligned to " + widthBytes + " bytes: offsetBytes = " + offsetBytes);
+    }
+    return cumOffset;
+  }
+
   //OTHER WRITE METHODS
 
   /**
@@ -415,6 +531,16 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     }
   }
 
+  @Override
+  public final void fillParallel(final long offsetBytes, final long lengthBytes, final byte value) {
+    ParallelBulk.fill((ResourceImpl)this, offsetBytes, lengthBytes, value);
+  }
+
+  @Override
+  public final void clearParallel(final long offsetBytes, final long lengthBytes) {
+    ParallelBulk.fill((ResourceImpl)this, offsetBytes, lengthBytes, (byte) 0);
+  }
+
   @Override
   public final void setBits(final long offsetBytes, final byte bitMask) {
     checkValidAndBoundsForWrite(offsetBytes, ARRAY_BYTE_INDEX_SCALE);
@@ -463,6 +589,58 @@ public abstract class BaseWritableMemoryImpl extends ResourceImpl implements Wri
     }
   }
 
+  //Reads from a channel into the given ByteBuffer, given the number of bytes read so far by the whole operation
+  private interface ChannelReader {
+    int read(ByteBuffer dst, long bytesRead) throws IOException;
+  }
+
+  private long readFrom(final long offsetBytes, final long lengthBytes, final ChannelReader reader)
+      throws IOException {
+    checkValidAndBoundsForWrite(offsetBytes, lengthBytes);
+    final Object unsafeObj = getUnsafeObject();
+    if (unsafeObj instanceof byte[]) {
+      final int off = Ints.checkedCast(getCumulativeOffset(offsetBytes) - UnsafeUtil.ARRAY_BYTE_BASE_OFFSET);
+      return readFully(ByteBuffer.wrap((byte[]) unsafeObj, off, Ints.checkedCast(lengthBytes)), reader, 0);
+    }
+    if (unsafeObj == null) {
+      // Chunk for the same safepoint reasons as writeDirectMemoryTo().
+      long addr = getCumulativeOffset(offsetBytes);
+      long total = 0;
+      while (total < lengthBytes) {
+        final int chunk = (int) Math.min(Util.UNSAFE_COPY_THRESHOLD_BYTES, lengthBytes - total);
+        final long read = readFully(AccessByteBuffer.getDummyDirectByteBuffer(addr, chunk), reader, total);
+        total += read;
+        if (read < chunk) { break; } //end-of-stream
+        addr += chunk;
+      }
+      return total;
+    }
+    // Memory is backed by some array that is not byte[], for example int[], long[], etc.
+    // We don't have the choice to do an extra intermediate copy.
+    final byte[] buf = new byte[(int) Math.max(8, Math.min(lengthBytes, 4096))];
+    final ByteBuffer bufToRead = ByteBuffer.wrap(buf);
+    long total = 0;
+    while (total < lengthBytes) {
+      final int chunk = (int) Math.min(buf.length, lengthBytes - total);
+      bufToRead.clear().limit(chunk);
+      final int read = (int) readFully(bufToRead, reader, total);
+      putByteArray(offsetBytes + total, buf, 0, read);
+      total += read;
+      if (read < chunk) { break; } //end-of-stream
+    }
+    return total;
+  }
+
+  //returns the number of bytes read, which is less than the remaining bytes of dst only at end-of-stream
+  private static long readFully(final ByteBuffer dst, final ChannelReader reader, final long bytesRead)
+      throws IOException {
+    final int start = dst.position();
+    while (dst.remaining() > 0) {
+      if (reader.read(dst, bytesRead + (dst.position() - start)) < 0) { break; }
+    }
+    return dst.position() - start;
+  }
+
   private static void writeFully(final ByteBuffer bufToWrite, final WritableByteChannel out) throws IOException {
     while (bufToWrite.remaining() > 0) {
       out.write(bufToWrite);
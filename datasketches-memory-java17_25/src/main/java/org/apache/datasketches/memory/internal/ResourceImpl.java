@@ -24,9 +24,17 @@ import static org.apache.datasketches.memory.internal.Util.characterPad;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import org.apache.datasketches.memory.AccessScope;
 import org.apache.datasketches.memory.MemoryBoundsException;
 import org.apache.datasketches.memory.MemoryRequestServer;
+import org.apache.datasketches.memory.PrefaultFuture;
 import org.apache.datasketches.memory.ReadOnlyException;
 import org.apache.datasketches.memory.Resource;
 
@@ -80,6 +88,11 @@ public abstract class ResourceImpl implements Resource {
 
   static final String NOT_MAPPED_FILE_RESOURCE = "This is not a memory-mapped file resource";
   static final String THREAD_EXCEPTION_TEXT = "Attempted access outside owning thread";
+  static final String NOT_SHAREABLE_RESOURCE = "Only direct and memory-mapped resources can be shared";
+  static final String NOT_OWNABLE_RESOURCE = "Only direct and memory-mapped resources have an owning thread";
+
+  //Used by Heap and ByteBuffer resources, which are never released by a close
+  static final AccessScope NO_OP_SCOPE = () -> { };
   
   static {
     final String javaVer = System.getProperty("java.version");
@@ -166,6 +179,55 @@ public abstract class ResourceImpl implements Resource {
     }
   }
 
+  /**
+   * This checks that the current thread is the owner thread, unless this resource is shared.
+   * @Throws IllegalStateException if it is not.
+   */
+  final void checkOwnerThread() {
+    if (!isShared()) { checkThread(getOwner()); }
+  }
+
+  //Overridden by Direct and Map leaves, whose owner is kept with the allocation and is common to all of its views
+  Thread getOwner() {
+    return owner;
+  }
+
+  //Overridden by Direct and Map leaves
+  boolean compareAndSetOwner(final Thread expectedOwner, final Thread newOwner) {
+    throw new UnsupportedOperationException(NOT_OWNABLE_RESOURCE);
+  }
+
+  @Override
+  public final void transferOwnership(final Thread newOwner) {
+    Objects.requireNonNull(newOwner, "newOwner must be non-null.");
+    checkOwnable();
+    if (!compareAndSetOwner(Thread.currentThread(), newOwner)) {
+      throw new IllegalStateException(THREAD_EXCEPTION_TEXT);
+    }
+  }
+
+  @Override
+  public final void release() {
+    checkOwnable();
+    if (!compareAndSetOwner(Thread.currentThread(), null)) {
+      throw new IllegalStateException(THREAD_EXCEPTION_TEXT);
+    }
+  }
+
+  @Override
+  public final void acquire() {
+    checkOwnable();
+    if (!compareAndSetOwner(null, Thread.currentThread())) {
+      throw new IllegalStateException("This Resource has not been released by its owning thread");
+    }
+  }
+
+  private void checkOwnable() {
+    checkValid();
+    if ((getTypeId() & (MAP | DIRECT)) == 0) { throw new UnsupportedOperationException(NOT_OWNABLE_RESOURCE); }
+    if (isShared()) { throw new IllegalStateException("A shared Resource has no owning thread"); }
+  }
+
   /**
    * @throws IllegalStateException if this Resource is AutoCloseable, and already closed, i.e., not <em>alive</em>.
    */
@@ -224,10 +286,15 @@ public abstract class ResourceImpl implements Resource {
     return CompareAndCopy.equals(this, thisOffsetBytes, (ResourceImpl) that, thatOffsetBytes, lengthBytes);
   }
 
-//  @Override
-//  public void force() { //overridden by Map Leaves
-//    throw new UnsupportedOperationException(NOT_MAPPED_FILE_RESOURCE);
-//  }
+  @Override
+  public void force() { //overridden by Map Leaves
+    throw new UnsupportedOperationException(NOT_MAPPED_FILE_RESOURCE);
+  }
+
+  @Override
+  public void force(final long offsetBytes, final long lengthBytes) { //overridden by Map Leaves
+    throw new UnsupportedOperationException(NOT_MAPPED_FILE_RESOURCE);
+  }
 
   //Overridden by ByteBuffer Leaves. Used internally and for tests.
   ByteBuffer getByteBuffer() {
@@ -301,15 +368,20 @@ public abstract class ResourceImpl implements Resource {
     return getUnsafeObject() != null;
   }
 
-//  @Override
-//  public boolean isLoaded() { //overridden by Map Leaves
-//    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
-//  }
-//
-//  @Override
-//  public boolean isMapped() {
-//    return (getTypeId() & MAP) > 0;
-//  }
+  @Override
+  public boolean isLoaded() { //overridden by Map Leaves
+    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
+  }
+
+  @Override
+  public boolean isLoaded(final long offsetBytes, final long lengthBytes) { //overridden by Map Leaves
+    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
+  }
+
+  @Override
+  public boolean isMapped() {
+    return (getTypeId() & MAP) > 0;
+  }
 
   @Override
   public boolean isMemory() {
@@ -355,10 +427,53 @@ public abstract class ResourceImpl implements Resource {
     return true;
   }
 
-//  @Override
-//  public void load() { //overridden by Map leaves
-//    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
-//  }
+  @Override
+  public boolean isShared() { //overridden by Direct and Map leaves
+    return false;
+  }
+
+  @Override
+  public void share() { //overridden by Direct and Map leaves
+    throw new UnsupportedOperationException(NOT_SHAREABLE_RESOURCE);
+  }
+
+  @Override
+  public AccessScope openScope() { //overridden by Direct and Map leaves
+    checkValid();
+    return NO_OP_SCOPE;
+  }
+
+  @Override
+  public void load() { //overridden by Map leaves
+    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
+  }
+
+  @Override
+  public void load(final long offsetBytes, final long lengthBytes) { //overridden by Map leaves
+    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
+  }
+
+  @Override
+  public PrefaultFuture loadAsync(final Executor executor) {
+    return loadAsync(executor, new long[0], new long[0]);
+  }
+
+  @Override
+  public PrefaultFuture loadAsync(final Executor executor, final long[] hotOffsets, final long[] hotLengths) {
+    Objects.requireNonNull(executor, "executor must be non-null.");
+    checkValid();
+    checkOwnerThread();
+    if (!isMapped()) { throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE); }
+    final MapPrefault task = new MapPrefault(this, hotOffsets, hotLengths);
+    executor.execute(task);
+    return task;
+  }
+
+  //Overridden by Map leaves. Called by MapPrefault from a thread other than the owner.
+  //Returns false if the mapping has been closed.
+  boolean prefault(final long offsetBytes, final long lengthBytes) {
+    throw new IllegalStateException(NOT_MAPPED_FILE_RESOURCE);
+  }
 
   private static String pad(final String s, final int fieldLen) {
     return characterPad(s, fieldLen, ' ' , true);
@@ -539,4 +654,54 @@ public abstract class ResourceImpl implements Resource {
     return XxHash64.hash(in, seed);
   }
 
+  @Override
+  public final long crc32c(final long offsetBytes, final long lengthBytes) {
+    final CRC32C checksum = new CRC32C();
+    updateChecksum(offsetBytes, lengthBytes, checksum);
+    return checksum.getValue();
+  }
+
+  @Override
+  public final long crc32(final long offsetBytes, final long lengthBytes) {
+    final CRC32 checksum = new CRC32();
+    updateChecksum(offsetBytes, lengthBytes, checksum);
+    return checksum.getValue();
+  }
+
+  @Override
+  public final long adler32(final long offsetBytes, final long lengthBytes) {
+    final Adler32 checksum = new Adler32();
+    updateChecksum(offsetBytes, lengthBytes, checksum);
+    return checksum.getValue();
+  }
+
+  @Override
+  public final void updateChecksum(final long offsetBytes, long lengthBytes, final Checksum checksum) {
+    checkValidAndBounds(offsetBytes, lengthBytes);
+    final Object unsafeObj = getUnsafeObject();
+    long cumOffset = getCumulativeOffset(offsetBytes);
+    if (unsafeObj instanceof byte[]) {
+      checksum.update((byte[]) unsafeObj, Ints.checkedCast(cumOffset - UnsafeUtil.ARRAY_BYTE_BASE_OFFSET),
+          Ints.checkedCast(lengthBytes));
+    } else if (unsafeObj == null) {
+      // Chunk like writeTo(), so that the checksum intrinsics over a direct ByteBuffer do not delay safepoints.
+      while (lengthBytes > 0) {
+        final int chunk = (int) Math.min(Util.UNSAFE_COPY_THRESHOLD_BYTES, lengthBytes);
+        checksum.update(AccessByteBuffer.getDummyReadOnlyDirectByteBuffer(cumOffset, chunk));
+        cumOffset += chunk;
+        lengthBytes -= chunk;
+      }
+    } else {
+      // Backed by some array that is not byte[], for example long[], so copy through a small buffer.
+      final byte[] buf = new byte[(int) Math.min(4096, lengthBytes)];
+      while (lengthBytes > 0) {
+        final int chunk = (int) Math.min(buf.length, lengthBytes);
+        unsafe.copyMemory(unsafeObj, cumOffset, buf, UnsafeUtil.ARRAY_BYTE_BASE_OFFSET, chunk);
+        checksum.update(buf, 0, chunk);
+        cumOffset += chunk;
+        lengthBytes -= chunk;
+      }
+    }
+  }
+
 }
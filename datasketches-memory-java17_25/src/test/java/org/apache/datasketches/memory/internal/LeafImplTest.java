@@ -27,6 +27,8 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -113,6 +115,38 @@ public class LeafImplTest {
     checkCombinations(mem, off, cap,  mem.isDirect(), mem.getTypeByteOrder(), true, true);
   }
 
+  @Test
+  public void checkMapLeaves() throws Exception {
+    long off = 0;
+    long cap = 128;
+    File file = new File("TestFile2.bin");
+    if (file.exists()) {
+      try {
+        java.nio.file.Files.delete(file.toPath());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    assertTrue(file.createNewFile());
+    assertTrue(file.setWritable(true, false)); //writable=true, ownerOnly=false
+    assertTrue(file.isFile());
+    file.deleteOnExit();  //comment out if you want to examine the file.
+    // Off Heap, Native order, No ByteBuffer, No MemReqSvr
+    try (WritableMemory memNO = WritableMemory.writableMap(file, off, cap, NBO)) {
+      memNO.putShort(0, (short) 1);
+      assertNull(((ResourceImpl)memNO).getUnsafeObject());
+      assertTrue(memNO.isDirect());
+      checkCombinations(memNO, off, cap, memNO.isDirect(), NBO, false, false);
+    }
+    // Off heap, Non Native order, No ByteBuffer, no MemReqSvr
+    try (WritableMemory memNNO = WritableMemory.writableMap(file, off, cap, NNBO)) {
+      memNNO.putShort(0, (short) 1);
+      assertNull(((ResourceImpl)memNNO).getUnsafeObject());
+      assertTrue(memNNO.isDirect());
+      checkCombinations(memNNO, off, cap, memNNO.isDirect(), NNBO, false, false);
+    }
+  }
+
   @Test
   public void checkHeapLeaves() {
     long off = 0;
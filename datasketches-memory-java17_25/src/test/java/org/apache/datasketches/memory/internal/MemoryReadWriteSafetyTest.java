@@ -19,8 +19,12 @@
 
 package org.apache.datasketches.memory.internal;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.ReadOnlyException;
@@ -176,4 +180,60 @@ public class MemoryReadWriteSafetyTest {
     mem1.putInt(0, 1);
   }
 
+  @Test(expectedExceptions = ReadOnlyException.class)
+  public void testMapFile() throws Exception {
+    File tempFile;
+    try {
+      tempFile = File.createTempFile("test", ".tmp", null);
+      Files.write(tempFile.toPath(), "ipsum".getBytes(), StandardOpenOption.APPEND);
+      //tempFile.setReadOnly();
+    } catch (IllegalArgumentException | IOException | SecurityException e) { throw new RuntimeException(e); }
+    try (Memory mem = Memory.map(tempFile)) { //Memory is RO
+      ((WritableMemory) mem).putInt(0, 1);
+    }
+    tempFile.delete();
+  }
+
+  @Test(expectedExceptions = ReadOnlyException.class)
+  public void testWritableMapWithROFile() throws IOException {
+    File tempFile;
+    try {
+      tempFile = File.createTempFile("test", ".tmp", null);
+      Files.write(tempFile.toPath(), "ipsum".getBytes(), StandardOpenOption.APPEND);
+      tempFile.setReadOnly();
+    } catch (IllegalArgumentException | IOException | SecurityException e) { throw new RuntimeException(e); }
+    try (WritableMemory mem = WritableMemory.writableMap(tempFile)) { //File is RO
+      mem.putInt(0, 1);
+    }
+    tempFile.delete();
+  }
+
+  @Test(expectedExceptions = ReadOnlyException.class)
+  public void testMapFileWithOffsetsAndBO() throws IOException {
+    File tempFile;
+    try {
+      tempFile = File.createTempFile("test", ".tmp", null);
+      Files.write(tempFile.toPath(), "ipsum".getBytes(), StandardOpenOption.APPEND);
+      //tempFile.setReadOnly();
+    } catch (IllegalArgumentException | IOException | SecurityException e) { throw new RuntimeException(e); }
+    try (Memory mem = Memory.map(tempFile, 0, 4, ByteOrder.nativeOrder())) { //Memory is RO
+      ((WritableMemory) mem).putInt(0, 1);
+    }
+    tempFile.delete();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testMapFileBeyondTheFileSize() throws IOException {
+    File tempFile;
+    try {
+      tempFile = File.createTempFile("test", ".tmp", null);
+      Files.write(tempFile.toPath(), "ipsum".getBytes(), StandardOpenOption.APPEND);
+      //tempFile.setReadOnly();
+    } catch (IllegalArgumentException | IOException | SecurityException e) { throw new RuntimeException(e); }
+    try (Memory mem = Memory.map(tempFile, 0, 16, ByteOrder.nativeOrder())) {
+      //Read-only mode and requested map length is greater than current file length:
+      //  Requested Length = 16, Current File Length = 5
+    }
+    tempFile.delete();
+  }
 }
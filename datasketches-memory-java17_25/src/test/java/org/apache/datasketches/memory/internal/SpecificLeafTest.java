@@ -22,6 +22,8 @@ package org.apache.datasketches.memory.internal;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -113,6 +115,46 @@ public class SpecificLeafTest {
     assertTrue(((ResourceImpl)buf4).isDuplicate());
   }
 
+  @Test
+  public void checkMapLeaves() throws IOException {
+    File file = new File("TestFile2.bin");
+    if (file.exists()) {
+      try {
+        java.nio.file.Files.delete(file.toPath());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    assertTrue(file.createNewFile());
+    assertTrue(file.setWritable(true, false)); //writable=true, ownerOnly=false
+    assertTrue(file.isFile());
+    file.deleteOnExit();  //comment out if you want to examine the file.
+
+    final long bytes = 128;
+
+    try (WritableMemory mem = WritableMemory.writableMap(file, 0L, bytes, ByteOrder.nativeOrder())) {
+      assertTrue(((ResourceImpl)mem).isMapped());
+      assertFalse(mem.isReadOnly());
+      checkCrossLeafTypeIds(mem);
+      Memory nnreg = mem.region(0, bytes, Util.NON_NATIVE_BYTE_ORDER);
+
+      Memory reg = mem.region(0, bytes, ByteOrder.nativeOrder());
+      Buffer buf = reg.asBuffer().region(0, bytes, ByteOrder.nativeOrder());
+      Buffer buf4 = buf.duplicate();
+
+      Memory reg2 = nnreg.region(0, bytes, Util.NON_NATIVE_BYTE_ORDER);
+      Buffer buf2 = reg2.asBuffer().region(0, bytes, Util.NON_NATIVE_BYTE_ORDER);
+      Buffer buf3 = buf2.duplicate();
+
+      assertTrue(((ResourceImpl)reg).isRegionView());
+      assertTrue(((ResourceImpl)reg2).isRegionView());
+      assertTrue(((ResourceImpl)buf).isRegionView());
+      assertTrue(((ResourceImpl)buf2).isRegionView());
+      assertTrue(((ResourceImpl)buf3).isDuplicate());
+      assertTrue(((ResourceImpl)buf4).isDuplicate());
+    }
+  }
+
   private static void checkCrossLeafTypeIds(Memory mem) {
     Memory reg1 = mem.region(0, mem.getCapacity());
     assertTrue(((ResourceImpl)reg1).isRegionView());
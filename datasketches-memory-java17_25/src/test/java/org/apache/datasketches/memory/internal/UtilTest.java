@@ -26,11 +26,28 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+
 import org.apache.datasketches.memory.MemoryBoundsException;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 public class UtilTest {
   private static final String LS = System.getProperty("line.separator");
+  private File gettyFile;
+  private long gettySize;
+  
+  @BeforeClass
+  public void setReadOnly() {
+    gettyFile = UtilitiesForTest.setResourceReadOnly("GettysburgAddress.txt");
+    gettySize = gettyFile.length();
+  }
 
   @Test(expectedExceptions = MemoryBoundsException.class)
   public void checkBoundsTest() {
@@ -60,6 +77,49 @@ public class UtilTest {
     }
   }
 
+  static final String getFileAttributes(File file) {
+    try {
+    PosixFileAttributes attrs = Files.getFileAttributeView(
+        file.toPath(), PosixFileAttributeView.class, new LinkOption[0]).readAttributes();
+    String s = String.format("%s: %s %s %s%n",
+        file.getPath(),
+        attrs.owner().getName(),
+        attrs.group().getName(),
+        PosixFilePermissions.toString(attrs.permissions()));
+    return s;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  //Resources
+
+  @Test
+  public void resourceFileExits() {
+    assertTrue(gettyFile.exists());
+  }
+
+  @Test
+  public void resourceFileNotFound() {
+    final String shortFileName = "GettysburgAddress.txt";
+    try { UtilitiesForTest.getResourceFile(shortFileName + "123"); }
+    catch (IllegalArgumentException e) { //OK
+    }
+  }
+
+  @Test
+  public void resourceBytesCorrect() {
+    assertTrue(gettySize == 1541);
+  }
+
+  @Test
+  public void resourceBytesFileNotFound() {
+    final String shortFileName = "GettysburgAddress.txt";
+    try { UtilitiesForTest.getResourceBytes(shortFileName + "123"); }
+    catch (IllegalArgumentException e) { //OK
+    }
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: " + this.getClass().getName());